@@ -0,0 +1,87 @@
+package com.bankz.benchmarks;
+
+import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.models.Account;
+import com.bankz.models.Money;
+import com.bankz.services.AccountService;
+import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.InsufficientFundsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit, withdrawal and transfer through the service as the controllers call them,
+ * each committing its own transaction against a seeded ledger.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+
+    private static final Money AMOUNT = Money.ofCents(1_00);
+
+    @Param({"1000", "100000", "1000000"})
+    public int ledgerRows;
+
+    private BenchmarkDatabase database;
+    private AccountService accountService;
+    private List<Integer> accountIds;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(ledgerRows);
+        accountService = new AccountServiceImpl(new CachingAccountDao(new AccountDaoImpl(), 1024), new TransactionDaoImpl());
+        accountIds = database.getAccountIds();
+        random = new SplittableRandom(BenchmarkDatabase.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public Account deposit() {
+        return accountService.deposit(nextAccountId(), AMOUNT, "Benchmark deposit");
+    }
+
+    @Benchmark
+    public Account withdraw() throws InsufficientFundsException {
+        return accountService.withdraw(nextAccountId(), AMOUNT, "Benchmark withdrawal");
+    }
+
+    @Benchmark
+    public boolean transfer() throws InsufficientFundsException {
+        int source = nextAccountId();
+        int destination = nextAccountId();
+        while (destination == source) {
+            destination = nextAccountId();
+        }
+        return accountService.transfer(source, destination, AMOUNT, "Benchmark transfer");
+    }
+
+    private int nextAccountId() {
+        return accountIds.get(random.nextInt(accountIds.size()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.bankz.benchmarks;
+
+import com.bankz.DataGenerator;
+import com.bankz.models.Money;
+import com.bankz.util.DatabaseManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Temporary SQLite database seeded by {@link DataGenerator} with the same customers, accounts and ledger
+ * for a given size, so numbers from different runs and branches are comparable.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final long SEED = 20240101L;
+    static final int CUSTOMERS = 500;
+    static final int ACCOUNTS = 1_000;
+    static final String PASSWORD = "benchmark-password";
+    static final Money OPENING_BALANCE = Money.ofCents(1_000_000_000L);
+
+    private static final LocalDate LEDGER_END = LocalDate.of(2024, 4, 1);
+
+    private final Path directory;
+    private final List<Integer> accountIds = new ArrayList<>();
+    private final List<String> usernames = new ArrayList<>();
+
+    private BenchmarkDatabase(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a database with {@link #CUSTOMERS} customers, {@link #ACCOUNTS} accounts and the given number of ledger rows
+     * on top of one opening deposit per account
+     */
+    static BenchmarkDatabase create(int ledgerRows) throws IOException, SQLException {
+        BenchmarkDatabase database = new BenchmarkDatabase(Files.createTempDirectory("bankz-bench"));
+        System.setProperty("db.url", "jdbc:sqlite:" + database.directory.resolve("bench.db"));
+        DatabaseManager.initializeDatabase();
+        database.seed(ledgerRows);
+        return database;
+    }
+
+    List<Integer> getAccountIds() {
+        return accountIds;
+    }
+
+    List<String> getUsernames() {
+        return usernames;
+    }
+
+    private void seed(int ledgerRows) throws SQLException {
+        DataGenerator.Options options = new DataGenerator.Options();
+        options.setSeed(SEED);
+        options.setCustomers(CUSTOMERS);
+        options.setAccountsPerCustomer(ACCOUNTS / CUSTOMERS);
+        options.setTransactions(ledgerRows);
+        options.setUsernamePrefix("customer");
+        options.setPassword(PASSWORD);
+        options.setOpeningBalance(OPENING_BALANCE);
+        options.setUntil(LEDGER_END);
+
+        DataGenerator.Result result = new DataGenerator().generate(options);
+        for (int i = 0; i < result.getAccountCount(); i++) {
+            accountIds.add(result.getFirstAccountId() + i);
+        }
+        for (int i = 0; i < result.getCustomerCount(); i++) {
+            usernames.add(result.getUsername(i));
+        }
+    }
+
+    @Override
+    public void close() throws SQLException, IOException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+        try (Stream<Path> files = Files.walk(directory)) {
+            // Children sort after their directory, so reverse order deletes them first
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.bankz.benchmarks;
+
+import com.bankz.dao.CustomerDao;
+import com.bankz.dao.CustomerDaoImpl;
+import com.bankz.models.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username lookup as done on every login attempt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerDaoBenchmark {
+
+    private BenchmarkDatabase database;
+    private CustomerDao customerDao;
+    private List<String> usernames;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(0);
+        customerDao = new CustomerDaoImpl();
+        usernames = database.getUsernames();
+        random = new SplittableRandom(BenchmarkDatabase.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public Customer findByUsername() throws SQLException {
+        return customerDao.findByUsername(usernames.get(random.nextInt(usernames.size())));
+    }
+
+    @Benchmark
+    public Customer findByUsernameMissing() throws SQLException {
+        return customerDao.findByUsername("nobody" + random.nextInt(1_000));
+    }
+}
@@ -0,0 +1,73 @@
+package com.bankz.benchmarks;
+
+import com.bankz.dao.TransactionDao;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.models.Money;
+import com.bankz.models.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger insert and full per-account history read as the ledger grows.
+ * With {@link BenchmarkDatabase#ACCOUNTS} accounts, an account's history is roughly
+ * {@code 1.7 * ledgerRows / ACCOUNTS} rows, counting transfers on both sides.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionDaoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int ledgerRows;
+
+    private BenchmarkDatabase database;
+    private TransactionDao transactionDao;
+    private List<Integer> accountIds;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(ledgerRows);
+        transactionDao = new TransactionDaoImpl();
+        accountIds = database.getAccountIds();
+        random = new SplittableRandom(BenchmarkDatabase.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public Transaction save() throws SQLException {
+        return transactionDao.save(new Transaction(null, nextAccountId(), "DEPOSIT", Money.ofCents(1_00), "Benchmark"));
+    }
+
+    @Benchmark
+    public List<Transaction> findByAccountId() throws SQLException {
+        return transactionDao.findByAccountId(nextAccountId());
+    }
+
+    private int nextAccountId() {
+        return accountIds.get(random.nextInt(accountIds.size()));
+    }
+}
@@ -1,7 +1,12 @@
 package com.bankz;
 
 import java.sql.SQLException;
+import java.util.UUID;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
 
+import com.bankz.dao.UsernameFilter;
+import com.bankz.util.BackgroundTasks;
 import com.bankz.util.DatabaseManager;
 
 import javafx.application.Application;
@@ -17,10 +22,17 @@ public class App extends Application {
     public static final int LOGIN_WIDTH = 900;
     public static final int LOGIN_HEIGHT = 600;
 
+    private static final String INSTALLATION_ID_KEY = "installationId";
+
+    private static String installationId;
+
     @Override
     public void start(Stage primaryStage) {
         try {
             DatabaseManager.initializeDatabase();
+            // Built now so the first registration screen does not wait for it
+            UsernameFilter.forCustomers().rebuild();
+            UsernameFilter.forEmployees().rebuild();
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/login.fxml"));
             Parent root = loader.load();
@@ -33,6 +45,7 @@ public class App extends Application {
             primaryStage.show();
 
             primaryStage.setOnCloseRequest(event -> {
+                BackgroundTasks.shutdown();
                 try {
                     DatabaseManager.closeConnection();
                 } catch (SQLException e) {
@@ -45,6 +58,31 @@ public class App extends Application {
         }
     }
 
+    /**
+     * Returns a random id for this installation, kept in the user's preferences so it survives restarts.
+     * The login screen passes it to the login throttle as the attempt's source. If the preferences
+     * cannot be written, the id only lasts until the application exits.
+     */
+    public static synchronized String getInstallationId() {
+        if (installationId == null) {
+            try {
+                Preferences preferences = Preferences.userNodeForPackage(App.class);
+                installationId = preferences.get(INSTALLATION_ID_KEY, null);
+                if (installationId == null) {
+                    installationId = UUID.randomUUID().toString();
+                    preferences.put(INSTALLATION_ID_KEY, installationId);
+                    preferences.flush();
+                }
+            } catch (BackingStoreException | SecurityException e) {
+                e.printStackTrace();
+                if (installationId == null) {
+                    installationId = UUID.randomUUID().toString();
+                }
+            }
+        }
+        return installationId;
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,485 @@
+package com.bankz;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.bankz.dao.TransactionDao;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.dao.UsernameFilter;
+import com.bankz.models.Money;
+import com.bankz.models.Transaction;
+import com.bankz.util.DatabaseManager;
+import com.bankz.util.PasswordUtils;
+import com.bankz.util.ZipfianSampler;
+
+/**
+ * Fills a database with synthetic customers, accounts and ledger rows for load and scale testing.
+ * The same options always produce the same rows: names, account ownership, transaction types,
+ * amounts and the accounts involved all come from one seeded {@link Random}. Timestamps are
+ * spread evenly over the days before {@code until}, which defaults to a fixed date rather than today
+ * so that a run with default options is reproducible too.
+ * <p>
+ * Accounts are picked for transactions from a Zipfian distribution over a shuffled account list,
+ * so a few accounts see most of the traffic. A withdrawal or transfer that the account cannot
+ * cover becomes a deposit, so no balance goes negative. Each account's final balance is the
+ * sum of its ledger rows.
+ * <p>
+ * Everything is written with batched inserts in a single transaction, so a failed run leaves the database unchanged.
+ * <pre>
+ * java -cp target/bank-z.jar com.bankz.DataGenerator --db=bankz.db --customers=10000 --accounts-per-customer=2 --transactions=1000000
+ * </pre>
+ */
+public class DataGenerator {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] FIRST_NAMES = {
+            "Ava", "Ben", "Chloe", "Daniel", "Emma", "Felix", "Grace", "Hugo", "Isla", "Jack",
+            "Kara", "Liam", "Maya", "Noah", "Olivia", "Priya", "Quinn", "Ravi", "Sofia", "Theo"
+    };
+    private static final String[] LAST_NAMES = {
+            "Adams", "Brown", "Chen", "Diaz", "Evans", "Fischer", "Garcia", "Haddad", "Ito", "Jones",
+            "Kim", "Lopez", "Murphy", "Nguyen", "Okafor", "Patel", "Rossi", "Silva", "Taylor", "Walker"
+    };
+    private static final String[] ACCOUNT_TYPES = { "Checking", "Savings" };
+
+    private final TransactionDao transactionDao;
+
+    public DataGenerator() {
+        this(new TransactionDaoImpl());
+    }
+
+    public DataGenerator(TransactionDao transactionDao) {
+        this.transactionDao = transactionDao;
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            if (options.getDbPath() != null) {
+                System.setProperty("db.url", "jdbc:sqlite:" + options.getDbPath());
+            }
+            DatabaseManager.initializeDatabase();
+            Result result = new DataGenerator().generate(options);
+            System.out.println(result);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            try {
+                DatabaseManager.closeConnection();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Generates a dataset into the current database
+     * @param options What to generate
+     * @return The IDs and counts of the generated rows
+     * @throws SQLException if a database access error occurs; nothing is written
+     */
+    public Result generate(Options options) throws SQLException {
+        long start = System.nanoTime();
+        Random random = new Random(options.getSeed());
+        LocalDateTime until = options.getUntil().atStartOfDay();
+        LocalDateTime from = until.minusDays(options.getDays());
+
+        Result result = DatabaseManager.inTransaction(() -> {
+            int customerCount = options.getCustomers();
+            int accountCount = customerCount * options.getAccountsPerCustomer();
+            int firstCustomerId = insertCustomers(options, random, from);
+            int firstAccountId = insertAccounts(options, random, firstCustomerId, from);
+
+            long[] balances = new long[accountCount];
+            long ledgerRows = insertLedger(options, random, firstAccountId, balances, from, until);
+            updateBalances(firstAccountId, balances);
+
+            return new Result(options.getUsernamePrefix(), firstCustomerId, customerCount, firstAccountId,
+                    accountCount, ledgerRows, (System.nanoTime() - start) / 1_000_000L);
+        });
+        // The customers were inserted directly, so the filter has to be rebuilt to see them
+        UsernameFilter.forCustomers().invalidate();
+        return result;
+    }
+
+    private int insertCustomers(Options options, Random random, LocalDateTime created) throws SQLException {
+        String sql = "INSERT INTO customers (first_name, last_name, username, password_hash, date_created) VALUES (?, ?, ?, ?, ?)";
+        // Every generated customer shares one password, so hash it once
+        String passwordHash = PasswordUtils.hashPassword(options.getPassword());
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < options.getCustomers(); i++) {
+                stmt.setString(1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                stmt.setString(2, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                stmt.setString(3, options.getUsernamePrefix() + i);
+                stmt.setString(4, passwordHash);
+                stmt.setString(5, created.toString());
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            return lastInsertId(conn) - options.getCustomers() + 1;
+        }
+    }
+
+    private int insertAccounts(Options options, Random random, int firstCustomerId, LocalDateTime opened) throws SQLException {
+        String sql = "INSERT INTO accounts (customer_id, account_number, account_type, balance, date_opened, status) VALUES (?, ?, ?, 0, ?, 'ACTIVE')";
+        int accountCount = options.getCustomers() * options.getAccountsPerCustomer();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < accountCount; i++) {
+                stmt.setInt(1, firstCustomerId + i / options.getAccountsPerCustomer());
+                stmt.setString(2, "ACC-" + options.getUsernamePrefix().toUpperCase() + "-" + i);
+                stmt.setString(3, ACCOUNT_TYPES[random.nextInt(ACCOUNT_TYPES.length)]);
+                stmt.setString(4, opened.toString());
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            return lastInsertId(conn) - accountCount + 1;
+        }
+    }
+
+    private long insertLedger(Options options, Random random, int firstAccountId, long[] balances,
+                              LocalDateTime from, LocalDateTime until) throws SQLException {
+        int accountCount = balances.length;
+        long rows = 0;
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+
+        long opening = options.getOpeningBalance().getCents();
+        if (opening > 0) {
+            for (int i = 0; i < accountCount; i++) {
+                Transaction deposit = new Transaction(null, firstAccountId + i, "DEPOSIT", Money.ofCents(opening), "Opening deposit");
+                deposit.setTimestamp(from);
+                balances[i] += opening;
+                add(batch, deposit);
+                rows++;
+            }
+        }
+
+        // Hot accounts are spread across customers rather than being the first ones created
+        List<Integer> order = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
+        ZipfianSampler sampler = new ZipfianSampler(accountCount, options.getZipfExponent(), random);
+
+        long spanSeconds = Duration.between(from, until).getSeconds();
+        int transactions = options.getTransactions();
+        for (int i = 0; i < transactions; i++) {
+            int source = order.get(sampler.next());
+            long amount = 100 + random.nextInt(100_000);
+            int kind = random.nextInt(100);
+            Transaction transaction;
+            if (kind < 30 && balances[source] >= amount) {
+                balances[source] -= amount;
+                transaction = new Transaction(firstAccountId + source, null, "WITHDRAWAL", Money.ofCents(amount), "Cash withdrawal");
+            } else if (kind >= 30 && kind < 60 && balances[source] >= amount && accountCount > 1) {
+                int destination = order.get(sampler.next());
+                if (destination == source) {
+                    destination = (source + 1) % accountCount;
+                }
+                balances[source] -= amount;
+                balances[destination] += amount;
+                transaction = new Transaction(firstAccountId + source, firstAccountId + destination, "TRANSFER",
+                        Money.ofCents(amount), "Transfer");
+            } else {
+                balances[source] += amount;
+                transaction = new Transaction(null, firstAccountId + source, "DEPOSIT", Money.ofCents(amount), "Deposit");
+            }
+            transaction.setTimestamp(from.plusSeconds(spanSeconds * i / transactions));
+            add(batch, transaction);
+            rows++;
+        }
+        flush(batch);
+        return rows;
+    }
+
+    private void add(List<Transaction> batch, Transaction transaction) throws SQLException {
+        batch.add(transaction);
+        if (batch.size() == BATCH_SIZE) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<Transaction> batch) throws SQLException {
+        if (!batch.isEmpty()) {
+            transactionDao.saveAll(batch);
+            batch.clear();
+        }
+    }
+
+    private void updateBalances(int firstAccountId, long[] balances) throws SQLException {
+        String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < balances.length; i++) {
+                stmt.setLong(1, balances[i]);
+                stmt.setInt(2, firstAccountId + i);
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static int lastInsertId(Connection conn) throws SQLException {
+        // IDs are consecutive because the whole run holds the write lock
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * What to generate. Every option has a default, so {@code new Options()} is a small valid dataset.
+     */
+    public static class Options {
+
+        static final String USAGE = "Usage: DataGenerator [--db=<file>] [--customers=N] [--accounts-per-customer=M] "
+                + "[--transactions=T] [--seed=S] [--zipf=<exponent>] [--prefix=<username prefix>] "
+                + "[--password=<password>] [--opening-balance=<amount>] [--days=D] [--until=<yyyy-mm-dd, default 2024-01-01>]";
+
+        static final LocalDate DEFAULT_UNTIL = LocalDate.of(2024, 1, 1);
+
+        private String dbPath;
+        private int customers = 1_000;
+        private int accountsPerCustomer = 2;
+        private int transactions = 100_000;
+        private long seed = 42L;
+        private double zipfExponent = 1.0;
+        private String usernamePrefix = "user";
+        private String password = "password123";
+        private Money openingBalance = Money.ZERO;
+        private int days = 90;
+        private LocalDate until = DEFAULT_UNTIL;
+
+        /**
+         * Parses {@code --name=value} arguments
+         * @throws IllegalArgumentException if an argument is unknown or its value is invalid
+         */
+        public static Options parse(String[] args) {
+            return parse(args, new Options());
+        }
+
+        /**
+         * Parses {@code --name=value} arguments on top of the given defaults
+         * @throws IllegalArgumentException if an argument is unknown or its value is invalid
+         */
+        static Options parse(String[] args, Options options) {
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+                }
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+                try {
+                    switch (name) {
+                        case "db" -> options.setDbPath(value);
+                        case "customers" -> options.setCustomers(Integer.parseInt(value));
+                        case "accounts-per-customer" -> options.setAccountsPerCustomer(Integer.parseInt(value));
+                        case "transactions" -> options.setTransactions(Integer.parseInt(value));
+                        case "seed" -> options.setSeed(Long.parseLong(value));
+                        case "zipf" -> options.setZipfExponent(Double.parseDouble(value));
+                        case "prefix" -> options.setUsernamePrefix(value);
+                        case "password" -> options.setPassword(value);
+                        case "opening-balance" -> options.setOpeningBalance(Money.parse(value));
+                        case "days" -> options.setDays(Integer.parseInt(value));
+                        case "until" -> options.setUntil(LocalDate.parse(value));
+                        default -> throw new IllegalArgumentException("Unknown option: --" + name);
+                    }
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid value for --" + name + ": " + value, e);
+                }
+            }
+            if (options.customers < 1 || options.accountsPerCustomer < 1 || options.transactions < 0 || options.days < 1) {
+                throw new IllegalArgumentException("Counts must be positive");
+            }
+            return options;
+        }
+
+        public String getDbPath() {
+            return dbPath;
+        }
+
+        public void setDbPath(String dbPath) {
+            this.dbPath = dbPath;
+        }
+
+        public int getCustomers() {
+            return customers;
+        }
+
+        public void setCustomers(int customers) {
+            this.customers = customers;
+        }
+
+        public int getAccountsPerCustomer() {
+            return accountsPerCustomer;
+        }
+
+        public void setAccountsPerCustomer(int accountsPerCustomer) {
+            this.accountsPerCustomer = accountsPerCustomer;
+        }
+
+        public int getTransactions() {
+            return transactions;
+        }
+
+        public void setTransactions(int transactions) {
+            this.transactions = transactions;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public double getZipfExponent() {
+            return zipfExponent;
+        }
+
+        public void setZipfExponent(double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+        }
+
+        public String getUsernamePrefix() {
+            return usernamePrefix;
+        }
+
+        public void setUsernamePrefix(String usernamePrefix) {
+            this.usernamePrefix = usernamePrefix;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Money getOpeningBalance() {
+            return openingBalance;
+        }
+
+        /**
+         * Sets an amount deposited into every account before the transaction stream; the deposits are ledger rows too
+         */
+        public void setOpeningBalance(Money openingBalance) {
+            this.openingBalance = openingBalance;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public void setDays(int days) {
+            this.days = days;
+        }
+
+        public LocalDate getUntil() {
+            return until;
+        }
+
+        public void setUntil(LocalDate until) {
+            this.until = until;
+        }
+    }
+
+    /**
+     * IDs and counts of a generated dataset. Customer and account IDs are consecutive;
+     * customer {@code i} has username {@code prefix + i} and owns the accounts that follow it in ID order.
+     */
+    public static class Result {
+        private final String usernamePrefix;
+        private final int firstCustomerId;
+        private final int customerCount;
+        private final int firstAccountId;
+        private final int accountCount;
+        private final long ledgerRows;
+        private final long elapsedMillis;
+
+        Result(String usernamePrefix, int firstCustomerId, int customerCount, int firstAccountId,
+               int accountCount, long ledgerRows, long elapsedMillis) {
+            this.usernamePrefix = usernamePrefix;
+            this.firstCustomerId = firstCustomerId;
+            this.customerCount = customerCount;
+            this.firstAccountId = firstAccountId;
+            this.accountCount = accountCount;
+            this.ledgerRows = ledgerRows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public String getUsername(int customerIndex) {
+            return usernamePrefix + customerIndex;
+        }
+
+        public int getFirstCustomerId() {
+            return firstCustomerId;
+        }
+
+        public int getCustomerCount() {
+            return customerCount;
+        }
+
+        public int getFirstAccountId() {
+            return firstAccountId;
+        }
+
+        public int getAccountCount() {
+            return accountCount;
+        }
+
+        public long getLedgerRows() {
+            return ledgerRows;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Generated " + customerCount + " customers (IDs " + firstCustomerId + "-" + (firstCustomerId + customerCount - 1)
+                    + "), " + accountCount + " accounts (IDs " + firstAccountId + "-" + (firstAccountId + accountCount - 1)
+                    + ") and " + ledgerRows + " ledger rows in " + elapsedMillis + " ms";
+        }
+    }
+}
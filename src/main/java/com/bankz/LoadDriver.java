@@ -0,0 +1,641 @@
+package com.bankz;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.bankz.dao.AccountDao;
+import com.bankz.dao.CachingAccountDao;
+import com.bankz.dao.CustomerDao;
+import com.bankz.dao.CustomerDaoImpl;
+import com.bankz.dao.EmployeeDao;
+import com.bankz.dao.EmployeeDaoImpl;
+import com.bankz.dao.PrincipalDao;
+import com.bankz.dao.PrincipalDaoImpl;
+import com.bankz.dao.TransactionDao;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.models.Account;
+import com.bankz.models.Money;
+import com.bankz.services.AccountService;
+import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthenticationService;
+import com.bankz.services.AuthenticationServiceImpl;
+import com.bankz.services.InsufficientFundsException;
+import com.bankz.services.LoginThrottle;
+import com.bankz.util.DatabaseManager;
+import com.bankz.util.Instrumented;
+import com.bankz.util.LatencyHistogram;
+import com.bankz.util.PasswordHashingPool;
+import com.bankz.util.ZipfianSampler;
+
+/**
+ * Headless load test for the service layer. Generates a dataset with {@link DataGenerator}, then runs a
+ * weighted mix of logins, deposits, withdrawals, transfers and history reads from many virtual threads
+ * against {@link AuthenticationServiceImpl} and {@link AccountServiceImpl}, the same services the
+ * controllers use.
+ * <p>
+ * Prints throughput and latency percentiles per operation. Afterwards it checks that money was conserved
+ * (balances changed by exactly the deposits minus the withdrawals that succeeded), that every balance
+ * still equals its ledger, and that no balance is negative. The exit code is 1 if any check fails.
+ * <pre>
+ * java -cp target/bank-z.jar com.bankz.LoadDriver --threads=200 --duration=60 --mix=login:10,deposit:30,withdraw:20,transfer:30,history:10
+ * </pre>
+ * Any {@link DataGenerator} option may be added to size the dataset. Without {@code --db} a temporary file is used and deleted afterwards.
+ */
+public class LoadDriver {
+
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final long MAX_AMOUNT_CENTS = 100_00L;
+
+    /**
+     * The operations a load test can mix
+     */
+    public enum Operation {
+        LOGIN, DEPOSIT, WITHDRAW, TRANSFER, HISTORY;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final AuthenticationService authenticationService;
+    private final AccountService accountService;
+
+    public LoadDriver(AuthenticationService authenticationService, AccountService accountService) {
+        this.authenticationService = authenticationService;
+        this.accountService = accountService;
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Path temporaryDirectory = null;
+        int exitCode = 1;
+        try {
+            String dbPath = options.getDataset().getDbPath();
+            if (dbPath == null) {
+                temporaryDirectory = Files.createTempDirectory("bankz-load");
+                dbPath = temporaryDirectory.resolve("load.db").toString();
+            }
+            System.setProperty("db.url", "jdbc:sqlite:" + dbPath);
+            DatabaseManager.initializeDatabase();
+
+            DataGenerator.Result dataset = new DataGenerator().generate(options.getDataset());
+            System.out.println(dataset);
+
+            // Wired like the controllers, so the metrics registry sees the same calls as in the app.
+            // Logins are not throttled: a few simulated users log in far more often than the limit allows.
+            LoadDriver driver = new LoadDriver(
+                    Instrumented.wrap(AuthenticationService.class, new AuthenticationServiceImpl(
+                            Instrumented.wrap(CustomerDao.class, new CustomerDaoImpl()),
+                            Instrumented.wrap(EmployeeDao.class, new EmployeeDaoImpl()),
+                            Instrumented.wrap(PrincipalDao.class, new PrincipalDaoImpl()),
+                            PasswordHashingPool.getShared(), LoginThrottle.unlimited())),
+                    Instrumented.wrap(AccountService.class, new AccountServiceImpl(
+                            Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared()),
+                            Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl()))));
+            Report report = driver.run(options, dataset);
+            System.out.println(report);
+            exitCode = report.isConsistent() ? 0 : 1;
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                DatabaseManager.closeConnection();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            deleteDirectory(temporaryDirectory);
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Runs the load against a dataset that was already generated into the current database
+     * @param options Threads, mix and how long to run
+     * @param dataset The generated customers and accounts to pick from
+     * @return Per-operation statistics and any ledger invariants that were violated
+     * @throws SQLException if the invariants cannot be read
+     */
+    public Report run(Options options, DataGenerator.Result dataset) throws SQLException {
+        long balanceBefore = totalBalance(dataset);
+        AtomicLong remaining = new AtomicLong(options.getOperations());
+        long deadline = System.nanoTime() + options.getDurationSeconds() * 1_000_000_000L;
+
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < options.getThreads(); i++) {
+            workers.add(new Worker(options, dataset, options.getDataset().getSeed() + i, remaining, deadline));
+        }
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Worker worker : workers) {
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for load workers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed", e.getCause());
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        long deposited = 0;
+        long withdrawn = 0;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+        for (Worker worker : workers) {
+            for (OperationStats operationStats : stats.values()) {
+                operationStats.merge(worker.stats.get(operationStats.operation));
+            }
+            deposited += worker.depositedCents;
+            withdrawn += worker.withdrawnCents;
+        }
+
+        List<String> violations = checkInvariants(dataset, balanceBefore + deposited - withdrawn);
+        return new Report(options.getThreads(), elapsedNanos, stats, violations);
+    }
+
+    private List<String> checkInvariants(DataGenerator.Result dataset, long expectedTotal) throws SQLException {
+        List<String> violations = new ArrayList<>();
+
+        long actualTotal = totalBalance(dataset);
+        if (actualTotal != expectedTotal) {
+            violations.add("Money not conserved: balances total " + Money.ofCents(actualTotal)
+                    + " but deposits and withdrawals add up to " + Money.ofCents(expectedTotal));
+        }
+
+        String negativeSql = "SELECT account_id, balance FROM accounts WHERE account_id BETWEEN ? AND ? AND balance < 0";
+        String ledgerSql = "SELECT a.account_id, a.balance, "
+                + "COALESCE((SELECT SUM(amount) FROM transactions WHERE destination_account_id = a.account_id), 0) - "
+                + "COALESCE((SELECT SUM(amount) FROM transactions WHERE source_account_id = a.account_id), 0) AS ledger "
+                + "FROM accounts a WHERE a.account_id BETWEEN ? AND ?";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(negativeSql)) {
+                bindAccountRange(stmt, dataset);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        violations.add("Account " + rs.getInt(1) + " has a negative balance of " + Money.ofCents(rs.getLong(2)));
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(ledgerSql)) {
+                bindAccountRange(stmt, dataset);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (rs.getLong(2) != rs.getLong(3)) {
+                            violations.add("Account " + rs.getInt(1) + " balance " + Money.ofCents(rs.getLong(2))
+                                    + " does not match its ledger total " + Money.ofCents(rs.getLong(3)));
+                        }
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    private long totalBalance(DataGenerator.Result dataset) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(balance), 0) FROM accounts WHERE account_id BETWEEN ? AND ?";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindAccountRange(stmt, dataset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static void bindAccountRange(PreparedStatement stmt, DataGenerator.Result dataset) throws SQLException {
+        stmt.setInt(1, dataset.getFirstAccountId());
+        stmt.setInt(2, dataset.getFirstAccountId() + dataset.getAccountCount() - 1);
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            // Children sort after their directory, so reverse order deletes them first
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * One virtual thread's loop. Each worker has its own random source, sampler and histograms, so
+     * the only shared state while running is the operation budget.
+     */
+    private class Worker implements Runnable {
+        private final Options options;
+        private final DataGenerator.Result dataset;
+        private final SplittableRandom random;
+        private final ZipfianSampler sampler;
+        private final AtomicLong remaining;
+        private final long deadline;
+        private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        private long depositedCents;
+        private long withdrawnCents;
+
+        Worker(Options options, DataGenerator.Result dataset, long seed, AtomicLong remaining, long deadline) {
+            this.options = options;
+            this.dataset = dataset;
+            this.random = new SplittableRandom(seed);
+            this.sampler = new ZipfianSampler(dataset.getAccountCount(), options.getDataset().getZipfExponent(), new Random(seed));
+            this.remaining = remaining;
+            this.deadline = deadline;
+            for (Operation operation : Operation.values()) {
+                stats.put(operation, new OperationStats(operation));
+            }
+        }
+
+        @Override
+        public void run() {
+            while (hasBudget()) {
+                Operation operation = options.pickOperation(random.nextInt(options.getTotalWeight()));
+                OperationStats operationStats = stats.get(operation);
+                long start = System.nanoTime();
+                Outcome outcome;
+                try {
+                    outcome = execute(operation);
+                } catch (RuntimeException e) {
+                    outcome = Outcome.ERROR;
+                }
+                operationStats.record(System.nanoTime() - start, outcome);
+            }
+        }
+
+        private boolean hasBudget() {
+            if (options.getOperations() > 0) {
+                return remaining.getAndDecrement() > 0;
+            }
+            return System.nanoTime() < deadline;
+        }
+
+        private Outcome execute(Operation operation) {
+            int accountIndex = sampler.next();
+            int accountId = dataset.getFirstAccountId() + accountIndex;
+            Money amount = Money.ofCents(1 + random.nextLong(MAX_AMOUNT_CENTS));
+
+            switch (operation) {
+                case LOGIN -> {
+                    int customerIndex = accountIndex / options.getDataset().getAccountsPerCustomer();
+                    return authenticationService.authenticate(dataset.getUsername(customerIndex),
+                            options.getDataset().getPassword()) != null ? Outcome.OK : Outcome.ERROR;
+                }
+                case DEPOSIT -> {
+                    Account account = accountService.deposit(accountId, amount, "Load test deposit");
+                    if (account == null) {
+                        return Outcome.ERROR;
+                    }
+                    depositedCents += amount.getCents();
+                    return Outcome.OK;
+                }
+                case WITHDRAW -> {
+                    try {
+                        Account account = accountService.withdraw(accountId, amount, "Load test withdrawal");
+                        if (account == null) {
+                            return Outcome.ERROR;
+                        }
+                        withdrawnCents += amount.getCents();
+                        return Outcome.OK;
+                    } catch (InsufficientFundsException e) {
+                        return Outcome.REJECTED;
+                    }
+                }
+                case TRANSFER -> {
+                    if (dataset.getAccountCount() < 2) {
+                        return Outcome.REJECTED;
+                    }
+                    int destinationIndex = sampler.next();
+                    if (destinationIndex == accountIndex) {
+                        destinationIndex = (accountIndex + 1) % dataset.getAccountCount();
+                    }
+                    try {
+                        return accountService.transfer(accountId, dataset.getFirstAccountId() + destinationIndex, amount,
+                                "Load test transfer") ? Outcome.OK : Outcome.ERROR;
+                    } catch (InsufficientFundsException e) {
+                        return Outcome.REJECTED;
+                    }
+                }
+                case HISTORY -> {
+                    return accountService.getTransactionHistoryPage(accountId, null, HISTORY_PAGE_SIZE) != null
+                            ? Outcome.OK : Outcome.ERROR;
+                }
+                default -> throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+    }
+
+    private enum Outcome {
+        OK, REJECTED, ERROR
+    }
+
+    /**
+     * Load test settings plus the {@link DataGenerator.Options} for the dataset it runs against
+     */
+    public static class Options {
+
+        static final String USAGE = "Usage: LoadDriver [--threads=N] [--duration=<seconds>] [--operations=N] "
+                + "[--mix=login:W,deposit:W,withdraw:W,transfer:W,history:W] [data generator options]";
+
+        private int threads = 64;
+        private long durationSeconds = 30;
+        private long operations;
+        private final int[] weights = { 10, 30, 20, 30, 10 };
+        private DataGenerator.Options dataset = defaultDataset();
+
+        /**
+         * Parses {@code --name=value} arguments; anything not recognised here is passed to {@link DataGenerator.Options#parse}
+         * @throws IllegalArgumentException if an argument is unknown or its value is invalid
+         */
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            List<String> datasetArgs = new ArrayList<>();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                String name = arg.startsWith("--") && equals > 0 ? arg.substring(2, equals) : "";
+                String value = equals > 0 ? arg.substring(equals + 1) : "";
+                try {
+                    switch (name) {
+                        case "threads" -> options.setThreads(Integer.parseInt(value));
+                        case "duration" -> options.setDurationSeconds(Long.parseLong(value));
+                        case "operations" -> options.setOperations(Long.parseLong(value));
+                        case "mix" -> options.setMix(value);
+                        default -> datasetArgs.add(arg);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value for --" + name + ": " + value, e);
+                }
+            }
+
+            options.setDataset(DataGenerator.Options.parse(datasetArgs.toArray(new String[0]), defaultDataset()));
+            return options;
+        }
+
+        private static DataGenerator.Options defaultDataset() {
+            DataGenerator.Options dataset = new DataGenerator.Options();
+            // Enough that withdrawals and transfers are mostly accepted
+            dataset.setOpeningBalance(Money.ofCents(1_000_00L));
+            dataset.setTransactions(10_000);
+            return dataset;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Thread count must be positive");
+            }
+            this.threads = threads;
+        }
+
+        public long getDurationSeconds() {
+            return durationSeconds;
+        }
+
+        public void setDurationSeconds(long durationSeconds) {
+            if (durationSeconds < 1) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+            this.durationSeconds = durationSeconds;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        /**
+         * Sets a total number of operations to run instead of running for {@link #getDurationSeconds()}; 0 runs for the duration
+         */
+        public void setOperations(long operations) {
+            if (operations < 0) {
+                throw new IllegalArgumentException("Operation count must not be negative");
+            }
+            this.operations = operations;
+        }
+
+        public int getWeight(Operation operation) {
+            return weights[operation.ordinal()];
+        }
+
+        /**
+         * Sets the relative weight of each operation from a list such as {@code deposit:3,history:1}.
+         * Operations that are not listed get a weight of 0.
+         */
+        public void setMix(String mix) {
+            int[] parsed = new int[weights.length];
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected operation:weight but got: " + entry);
+                }
+                Operation operation;
+                try {
+                    operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown operation: " + parts[0], e);
+                }
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Weights must not be negative");
+                }
+                parsed[operation.ordinal()] = weight;
+            }
+            if (Arrays.stream(parsed).sum() == 0) {
+                throw new IllegalArgumentException("At least one operation needs a positive weight");
+            }
+            System.arraycopy(parsed, 0, weights, 0, weights.length);
+        }
+
+        public DataGenerator.Options getDataset() {
+            return dataset;
+        }
+
+        public void setDataset(DataGenerator.Options dataset) {
+            this.dataset = dataset;
+        }
+
+        int getTotalWeight() {
+            int total = 0;
+            for (int weight : weights) {
+                total += weight;
+            }
+            return total;
+        }
+
+        Operation pickOperation(int roll) {
+            for (Operation operation : Operation.values()) {
+                roll -= weights[operation.ordinal()];
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException("Roll exceeds the total weight");
+        }
+    }
+
+    /**
+     * Counts and latencies for one operation
+     */
+    public static class OperationStats {
+        private final Operation operation;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long errors;
+        private long rejected;
+
+        OperationStats(Operation operation) {
+            this.operation = operation;
+        }
+
+        void record(long nanos, Outcome outcome) {
+            latencies.record(nanos);
+            if (outcome == Outcome.ERROR) {
+                errors++;
+            } else if (outcome == Outcome.REJECTED) {
+                rejected++;
+            }
+        }
+
+        void merge(OperationStats other) {
+            latencies.merge(other.latencies);
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public long getCount() {
+            return latencies.getCount();
+        }
+
+        /**
+         * Calls that failed, e.g. a database error the service swallowed or a login that was refused
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Withdrawals and transfers refused for insufficient funds; expected under load and not an error
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+    }
+
+    /**
+     * The result of a load test run
+     */
+    public static class Report {
+        private final int threads;
+        private final long elapsedNanos;
+        private final Map<Operation, OperationStats> stats;
+        private final List<String> violations;
+
+        Report(int threads, long elapsedNanos, Map<Operation, OperationStats> stats, List<String> violations) {
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            this.stats = stats;
+            this.violations = violations;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public OperationStats getStats(Operation operation) {
+            return stats.get(operation);
+        }
+
+        public long getTotalOperations() {
+            return stats.values().stream().mapToLong(OperationStats::getCount).sum();
+        }
+
+        public long getTotalErrors() {
+            return stats.values().stream().mapToLong(OperationStats::getErrors).sum();
+        }
+
+        /**
+         * Ledger invariants that did not hold after the run; empty if the ledger is consistent
+         */
+        public List<String> getViolations() {
+            return violations;
+        }
+
+        public boolean isConsistent() {
+            return violations.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.ROOT, "%d operations on %d threads in %.1f s (%.0f ops/s)%n",
+                    getTotalOperations(), threads, seconds, getTotalOperations() / seconds));
+            out.append(String.format(Locale.ROOT, "%-10s %10s %10s %8s %8s %10s %10s %10s %10s%n",
+                    "operation", "count", "ops/s", "errors", "rejected", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+            for (OperationStats operationStats : stats.values()) {
+                LatencyHistogram latencies = operationStats.getLatencies();
+                out.append(String.format(Locale.ROOT, "%-10s %10d %10.0f %8d %8d %10.3f %10.3f %10.3f %10.3f%n",
+                        operationStats.getOperation().label(), operationStats.getCount(), operationStats.getCount() / seconds,
+                        operationStats.getErrors(), operationStats.getRejected(),
+                        latencies.getPercentileNanos(50.0) / 1e6, latencies.getPercentileNanos(99.0) / 1e6,
+                        latencies.getPercentileNanos(99.9) / 1e6, latencies.getMaxNanos() / 1e6));
+            }
+            if (violations.isEmpty()) {
+                out.append("Ledger invariants hold: money conserved, balances match the ledger, no negative balances");
+            } else {
+                out.append("LEDGER INVARIANTS VIOLATED:");
+                for (String violation : violations) {
+                    out.append(System.lineSeparator()).append("  ").append(violation);
+                }
+            }
+            return out.toString();
+        }
+    }
+}
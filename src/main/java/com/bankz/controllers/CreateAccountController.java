@@ -1,10 +1,16 @@
 package com.bankz.controllers;
 
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import com.bankz.services.AccountService;
 import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthorizationException;
+import com.bankz.services.SecuredAccountService;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 import com.bankz.dao.AccountDao;
-import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
 import com.bankz.dao.TransactionDao;
 import com.bankz.dao.TransactionDaoImpl;
 import javafx.event.ActionEvent;
@@ -12,7 +18,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.math.BigDecimal;
+import java.util.function.Consumer;
+
 
 /**
  * Controller class for the create account dialog
@@ -37,24 +44,44 @@ public class CreateAccountController {
     @FXML
     private Label messageLabel;
     
-    private AccountService accountService;
+    private SessionManager.Session session;
+    private SecuredAccountService accountService;
     private Runnable onAccountCreated;
+    private Consumer<AuthorizationException> onAuthorizationFailure;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
     
     @FXML
     public void initialize() {
         // Initialize the account service
-        AccountDao accountDao = new AccountDaoImpl();
-        TransactionDao transactionDao = new TransactionDaoImpl();
-        accountService = new AccountServiceImpl(accountDao, transactionDao);
+        AccountDao accountDao = Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared());
+        TransactionDao transactionDao = Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl());
+        accountService = new SecuredAccountService(
+                Instrumented.wrap(AccountService.class, new AccountServiceImpl(accountDao, transactionDao)), accountDao);
+        
+        createButton.disableProperty().bind(backgroundTasks.busyProperty());
         
         // Initialize account types
         accountTypeComboBox.getItems().addAll("Checking", "Savings");
     }
     
+    /**
+     * The employee session the account is opened under
+     */
+    public void setSession(SessionManager.Session session) {
+        this.session = session;
+    }
+    
     public void setOnAccountCreated(Runnable onAccountCreated) {
         this.onAccountCreated = onAccountCreated;
     }
     
+    /**
+     * Called after the dialog closes itself because the session was refused
+     */
+    public void setOnAuthorizationFailure(Consumer<AuthorizationException> onAuthorizationFailure) {
+        this.onAuthorizationFailure = onAuthorizationFailure;
+    }
+    
     public void setCustomerId(int customerId) {
         customerIdField.setText(String.valueOf(customerId));
         // Disable the field so the user cannot change it
@@ -86,11 +113,11 @@ public class CreateAccountController {
             return;
         }
         
-        BigDecimal initialBalance = BigDecimal.ZERO;
+        Money initialBalance = Money.ZERO;
         if (!initialBalanceText.isEmpty()) {
             try {
-                initialBalance = new BigDecimal(initialBalanceText);
-                if (initialBalance.compareTo(BigDecimal.ZERO) < 0) {
+                initialBalance = Money.parse(initialBalanceText);
+                if (initialBalance.isNegative()) {
                     messageLabel.setText("Initial balance cannot be negative");
                     return;
                 }
@@ -101,31 +128,51 @@ public class CreateAccountController {
         }
         
         // Create the account
-        Account account = accountService.openAccount(customerId, accountType);
-        if (account != null) {
+        Money initialDeposit = initialBalance;
+        messageLabel.setText("Creating account...");
+        backgroundTasks.submit(() -> {
+            Account account = accountService.openAccount(session.getToken(), customerId, accountType);
             // If there's an initial balance, deposit it
-            if (initialBalance.compareTo(BigDecimal.ZERO) > 0) {
-                accountService.deposit(account.getAccountId(), initialBalance, "Initial deposit");
+            if (account != null && initialDeposit.isPositive()) {
+                accountService.deposit(session.getToken(), account.getAccountId(), initialDeposit, "Initial deposit");
             }
-            
-            messageLabel.setText("Account created successfully!");
-            // Clear the form
-            customerIdField.clear();
-            accountTypeComboBox.getSelectionModel().clearSelection();
-            initialBalanceField.clear();
-            
-            // Notify the parent controller
-            if (onAccountCreated != null) {
-                onAccountCreated.run();
+            return account;
+        }, account -> {
+            if (account != null) {
+                messageLabel.setText("Account created successfully!");
+                // Clear the form
+                customerIdField.clear();
+                accountTypeComboBox.getSelectionModel().clearSelection();
+                initialBalanceField.clear();
+                
+                // Notify the parent controller
+                if (onAccountCreated != null) {
+                    onAccountCreated.run();
+                }
+            } else {
+                messageLabel.setText("Failed to create account. Please try again.");
             }
-        } else {
+        }, e -> {
+            if (e instanceof AuthorizationException authorizationFailure) {
+                closeAfterAuthorizationFailure(authorizationFailure);
+                return;
+            }
+            e.printStackTrace();
             messageLabel.setText("Failed to create account. Please try again.");
-        }
+        });
     }
     
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         Stage stage = (Stage) cancelButton.getScene().getWindow();
         stage.close();
     }
+    
+    private void closeAfterAuthorizationFailure(AuthorizationException e) {
+        handleCancel(null);
+        if (onAuthorizationFailure != null) {
+            onAuthorizationFailure.accept(e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.bankz.controllers;
 
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import com.bankz.models.Customer;
 import com.bankz.services.AccountService;
 import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthorizationException;
+import com.bankz.services.SecuredAccountService;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 import com.bankz.dao.AccountDao;
-import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
 import com.bankz.dao.TransactionDao;
 import com.bankz.dao.TransactionDaoImpl;
 import javafx.event.ActionEvent;
@@ -13,7 +19,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.math.BigDecimal;
+import java.util.function.Consumer;
+
 
 /**
  * Controller class for the create account dialog
@@ -38,29 +45,43 @@ public class CreateAccountDialogController {
     @FXML
     private Label messageLabel;
     
+    private SessionManager.Session session;
     private Customer customer;
-    private AccountService accountService;
+    private SecuredAccountService accountService;
     private Runnable onAccountCreated;
+    private Consumer<AuthorizationException> onAuthorizationFailure;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
     
     @FXML
     public void initialize() {
         // Initialize the account service
-        AccountDao accountDao = new AccountDaoImpl();
-        TransactionDao transactionDao = new TransactionDaoImpl();
-        accountService = new AccountServiceImpl(accountDao, transactionDao);
+        AccountDao accountDao = Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared());
+        TransactionDao transactionDao = Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl());
+        accountService = new SecuredAccountService(
+                Instrumented.wrap(AccountService.class, new AccountServiceImpl(accountDao, transactionDao)), accountDao);
+        
+        createButton.disableProperty().bind(backgroundTasks.busyProperty());
         
         // Initialize account types
         accountTypeComboBox.getItems().addAll("Checking", "Savings");
     }
     
-    public void setCustomer(Customer customer) {
-        this.customer = customer;
+    public void setSession(SessionManager.Session session) {
+        this.session = session;
+        this.customer = (Customer) session.getPrincipal();
     }
     
     public void setOnAccountCreated(Runnable onAccountCreated) {
         this.onAccountCreated = onAccountCreated;
     }
     
+    /**
+     * Called after the dialog closes itself because the session was refused
+     */
+    public void setOnAuthorizationFailure(Consumer<AuthorizationException> onAuthorizationFailure) {
+        this.onAuthorizationFailure = onAuthorizationFailure;
+    }
+    
     @FXML
     private void handleCreate(ActionEvent event) {
         String accountType = accountTypeComboBox.getValue();
@@ -73,55 +94,81 @@ public class CreateAccountDialogController {
             return;
         }
         
+        // Parse the initial deposit up front; invalid amounts are ignored
+        Money parsedDeposit = null;
+        boolean invalidDeposit = false;
+        if (initialDepositText != null && !initialDepositText.isEmpty()) {
+            try {
+                parsedDeposit = Money.parse(initialDepositText);
+            } catch (NumberFormatException e) {
+                invalidDeposit = true;
+            }
+        }
+        Money initialDeposit = parsedDeposit;
+        boolean depositIgnored = invalidDeposit;
+        
         // Create the account
-        Account newAccount = accountService.openAccount(customer.getCustomerId(), accountType);
-        if (newAccount != null) {
+        messageLabel.setText("Creating account...");
+        backgroundTasks.submit(() -> {
+            Account newAccount = accountService.openAccount(session.getToken(), customer.getCustomerId(), accountType);
             // If there's an initial deposit, process it
-            if (initialDepositText != null && !initialDepositText.isEmpty()) {
-                try {
-                    BigDecimal initialDeposit = new BigDecimal(initialDepositText);
-                    if (initialDeposit.compareTo(BigDecimal.ZERO) > 0) {
-                        String depositDescription = description.isEmpty() ? "Initial deposit" : description;
-                        accountService.deposit(newAccount.getAccountId(), initialDeposit, depositDescription);
-                    }
-                } catch (NumberFormatException e) {
-                    // Just ignore invalid deposit amounts
-                    messageLabel.setText("Invalid deposit amount ignored");
+            if (newAccount != null && initialDeposit != null && initialDeposit.isPositive()) {
+                String depositDescription = description.isEmpty() ? "Initial deposit" : description;
+                accountService.deposit(session.getToken(), newAccount.getAccountId(), initialDeposit, depositDescription);
+            }
+            return newAccount;
+        }, newAccount -> {
+            if (newAccount != null) {
+                messageLabel.setText(depositIgnored
+                        ? "Account created successfully! Invalid deposit amount ignored"
+                        : "Account created successfully!");
+                
+                // Clear the form
+                accountTypeComboBox.getSelectionModel().clearSelection();
+                initialDepositField.clear();
+                descriptionField.clear();
+                
+                // Notify the parent controller
+                if (onAccountCreated != null) {
+                    onAccountCreated.run();
                 }
+                
+                // Close the dialog after a short delay
+                new Thread(() -> {
+                    try {
+                        Thread.sleep(1000);
+                        javafx.application.Platform.runLater(() -> {
+                            Stage stage = (Stage) createButton.getScene().getWindow();
+                            stage.close();
+                        });
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }).start();
+            } else {
+                messageLabel.setText("Failed to create account. Please try again.");
             }
-            
-            messageLabel.setText("Account created successfully!");
-            
-            // Clear the form
-            accountTypeComboBox.getSelectionModel().clearSelection();
-            initialDepositField.clear();
-            descriptionField.clear();
-            
-            // Notify the parent controller
-            if (onAccountCreated != null) {
-                onAccountCreated.run();
+        }, e -> {
+            if (e instanceof AuthorizationException authorizationFailure) {
+                closeAfterAuthorizationFailure(authorizationFailure);
+                return;
             }
-            
-            // Close the dialog after a short delay
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1000);
-                    javafx.application.Platform.runLater(() -> {
-                        Stage stage = (Stage) createButton.getScene().getWindow();
-                        stage.close();
-                    });
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }).start();
-        } else {
+            e.printStackTrace();
             messageLabel.setText("Failed to create account. Please try again.");
-        }
+        });
     }
     
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         Stage stage = (Stage) cancelButton.getScene().getWindow();
         stage.close();
     }
+    
+    private void closeAfterAuthorizationFailure(AuthorizationException e) {
+        handleCancel(null);
+        if (onAuthorizationFailure != null) {
+            onAuthorizationFailure.accept(e);
+        }
+    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.bankz.controllers;
 import com.bankz.models.Customer;
 import com.bankz.services.AuthenticationService;
 import com.bankz.services.AuthenticationServiceImpl;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 import com.bankz.dao.CustomerDao;
 import com.bankz.dao.CustomerDaoImpl;
 import com.bankz.dao.EmployeeDao;
@@ -43,13 +45,16 @@ public class CreateCustomerController {
     
     private AuthenticationService authenticationService;
     private Runnable onCustomerCreated;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
     
     @FXML
     public void initialize() {
         // Initialize the authentication service
-        CustomerDao customerDao = new CustomerDaoImpl();
-        EmployeeDao employeeDao = new EmployeeDaoImpl();
-        authenticationService = new AuthenticationServiceImpl(customerDao, employeeDao);
+        CustomerDao customerDao = Instrumented.wrap(CustomerDao.class, new CustomerDaoImpl());
+        EmployeeDao employeeDao = Instrumented.wrap(EmployeeDao.class, new EmployeeDaoImpl());
+        authenticationService = Instrumented.wrap(AuthenticationService.class, new AuthenticationServiceImpl(customerDao, employeeDao));
+        
+        createButton.disableProperty().bind(backgroundTasks.busyProperty());
     }
     
     public void setOnCustomerCreated(Runnable onCustomerCreated) {
@@ -80,32 +85,39 @@ public class CreateCustomerController {
             return;
         }
         
-        try {
-            // Register the customer
-            Customer customer = authenticationService.registerCustomer(firstName, lastName, username, password);
-            if (customer != null) {
-                messageLabel.setText("Customer created successfully!");
-                // Clear the form
-                firstNameField.clear();
-                lastNameField.clear();
-                usernameField.clear();
-                passwordField.clear();
-                confirmPasswordField.clear();
-                
-                // Notify the parent controller
-                if (onCustomerCreated != null) {
-                    onCustomerCreated.run();
-                }
-            } else {
-                messageLabel.setText("Failed to create customer. Please try again.");
-            }
-        } catch (IllegalArgumentException e) {
-            messageLabel.setText(e.getMessage());
-        }
+        // Register the customer
+        messageLabel.setText("Creating customer...");
+        backgroundTasks.submit(() -> authenticationService.registerCustomer(firstName, lastName, username, password),
+                customer -> {
+                    if (customer != null) {
+                        messageLabel.setText("Customer created successfully!");
+                        // Clear the form
+                        firstNameField.clear();
+                        lastNameField.clear();
+                        usernameField.clear();
+                        passwordField.clear();
+                        confirmPasswordField.clear();
+                        
+                        // Notify the parent controller
+                        if (onCustomerCreated != null) {
+                            onCustomerCreated.run();
+                        }
+                    } else {
+                        messageLabel.setText("Failed to create customer. Please try again.");
+                    }
+                }, e -> {
+                    if (e instanceof IllegalArgumentException) {
+                        messageLabel.setText(e.getMessage());
+                    } else {
+                        e.printStackTrace();
+                        messageLabel.setText("Failed to create customer. Please try again.");
+                    }
+                });
     }
     
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         Stage stage = (Stage) cancelButton.getScene().getWindow();
         stage.close();
     }
@@ -1,21 +1,29 @@
 package com.bankz.controllers;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.util.List;
 
 import com.bankz.App;
 import com.bankz.dao.AccountDao;
-import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
 import com.bankz.dao.TransactionDao;
 import com.bankz.dao.TransactionDaoImpl;
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import com.bankz.models.Customer;
+import com.bankz.models.CustomerSummary;
 import com.bankz.models.Transaction;
+import com.bankz.models.TransactionCursor;
 import com.bankz.services.AccountService;
 import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthorizationException;
+import com.bankz.services.SecuredAccountService;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -35,6 +43,8 @@ import javafx.stage.Stage;
 
 public class CustomerDashboardController {
 
+    private static final int TRANSACTION_PAGE_SIZE = 50;
+
     // Navigation buttons
     @FXML
     private Button dashboardButton;
@@ -62,6 +72,9 @@ public class CustomerDashboardController {
     @FXML
     private VBox dashboardOverview;
 
+    @FXML
+    private Label portfolioSummaryLabel;
+
     @FXML
     private VBox accountsView;
 
@@ -89,7 +102,7 @@ public class CustomerDashboardController {
     private TableColumn<Account, String> accountTypeColumn;
 
     @FXML
-    private TableColumn<Account, BigDecimal> accountBalanceColumn;
+    private TableColumn<Account, Money> accountBalanceColumn;
 
     @FXML
     private TableColumn<Account, String> accountStatusColumn;
@@ -101,6 +114,9 @@ public class CustomerDashboardController {
     @FXML
     private Button refreshTransactionsButton;
 
+    @FXML
+    private Button loadMoreTransactionsButton;
+
     @FXML
     private TableView<Transaction> transactionsTable;
 
@@ -111,22 +127,28 @@ public class CustomerDashboardController {
     private TableColumn<Transaction, String> transactionTypeColumn;
 
     @FXML
-    private TableColumn<Transaction, BigDecimal> transactionAmountColumn;
+    private TableColumn<Transaction, Money> transactionAmountColumn;
 
     @FXML
     private TableColumn<Transaction, String> transactionDescriptionColumn;
 
+    private SessionManager.Session session;
     private Customer customer;
-    private AccountService accountService;
+    private SecuredAccountService accountService;
     private ObservableList<Account> accountsList;
     private ObservableList<Transaction> transactionsList;
+    private Account historyAccount;
+    private TransactionCursor nextTransactionsCursor;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
+    private Task<?> customerDataTask;
 
     @FXML
     public void initialize() {
         // Initialize the account service
-        AccountDao accountDao = new AccountDaoImpl();
-        TransactionDao transactionDao = new TransactionDaoImpl();
-        accountService = new AccountServiceImpl(accountDao, transactionDao);
+        AccountDao accountDao = Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared());
+        TransactionDao transactionDao = Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl());
+        accountService = new SecuredAccountService(
+                Instrumented.wrap(AccountService.class, new AccountServiceImpl(accountDao, transactionDao)), accountDao);
 
         // Initialize table columns
         setupAccountsTable();
@@ -140,8 +162,12 @@ public class CustomerDashboardController {
         showDashboard();
     }
 
-    public void setCustomer(Customer customer) {
-        this.customer = customer;
+    /**
+     * Shows the dashboard for a logged-in customer; the session ends on logout
+     */
+    public void setSession(SessionManager.Session session) {
+        this.session = session;
+        this.customer = (Customer) session.getPrincipal();
         welcomeLabel.setText("Welcome, " + customer.getFirstName() + " " + customer.getLastName());
         loadCustomerData();
     }
@@ -169,42 +195,49 @@ public class CustomerDashboardController {
     }
 
     private void loadCustomerData() {
-        try {
-            // Load accounts
-            List<Account> accounts = accountService.getAccountsByCustomer(customer.getCustomerId());
-            accountsContainer.getChildren().clear();
-            accountsList.clear();
-
-            if (accounts != null) {
-                accountsList.addAll(accounts);
-                accountsTable.setItems(accountsList);
-                accountFilterComboBox.setItems(accountsList);
-
-                for (Account account : accounts) {
-                    addAccountCard(account);
-                }
-
-                // Load recent transactions (from the first account if available)
-                if (!accounts.isEmpty()) {
-                    List<Transaction> transactions = accountService
-                            .getTransactionHistory(accounts.get(0).getAccountId());
+        // A newer refresh supersedes one still in flight
+        if (customerDataTask != null) {
+            customerDataTask.cancel();
+        }
+        customerDataTask = backgroundTasks.submit(
+                () -> accountService.getCustomerSummary(session.getToken(), customer.getCustomerId()),
+                summary -> {
+                    accountsContainer.getChildren().clear();
                     transactionsContainer.getChildren().clear();
-                    transactionsList.clear();
+                    accountsList.clear();
 
-                    if (transactions != null) {
-                        transactionsList.addAll(transactions);
-                        transactionsTable.setItems(transactionsList);
+                    if (summary != null) {
+                        List<Account> accounts = summary.getAccounts();
+                        accountsList.addAll(accounts);
+                        accountsTable.setItems(accountsList);
+                        accountFilterComboBox.setItems(accountsList);
+                        showPortfolioSummary(summary);
 
-                        for (Transaction transaction : transactions) {
+                        for (Account account : accounts) {
+                            addAccountCard(account);
+                        }
+                        for (Transaction transaction : summary.getRecentTransactions()) {
                             addTransactionItem(transaction);
                         }
+
+                        // The full history is only read once the transactions view is open
+                        if (!accounts.isEmpty() && transactionsView.isVisible()) {
+                            transactionsTable.setItems(transactionsList);
+                            loadFirstTransactionPage(accounts.get(0));
+                        }
                     }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Error loading customer data: " + e.getMessage());
-        }
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error loading customer data: " + e.getMessage());
+                });
+    }
+
+    private void showPortfolioSummary(CustomerSummary summary) {
+        portfolioSummaryLabel.setText("Total balance: $" + summary.getTotalBalance()
+                + "    This month: in $" + summary.getMonthInflow() + ", out $" + summary.getMonthOutflow());
     }
 
     private void addAccountCard(Account account) {
@@ -268,7 +301,8 @@ public class CustomerDashboardController {
 
             // Get the controller and set the customer
             TransferFundsController controller = loader.getController();
-            controller.setCustomer(customer);
+            controller.setSession(session);
+            controller.setOnAuthorizationFailure(this::returnToLogin);
             controller.setOnTransferSuccess(this::loadCustomerData); // Refresh data after transfer
 
             // Create a new stage for the dialog
@@ -299,7 +333,8 @@ public class CustomerDashboardController {
 
                     // Get the controller and set the customer
                     DepositController controller = loader.getController();
-                    controller.setCustomer(customer);
+                    controller.setSession(session);
+                    controller.setOnAuthorizationFailure(this::returnToLogin);
                     controller.setOnDepositSuccess(this::loadCustomerData); // Refresh data after deposit
 
                     // Create a new stage for the dialog
@@ -315,7 +350,8 @@ public class CustomerDashboardController {
 
                     // Get the controller and set the customer
                     WithdrawController controller = loader.getController();
-                    controller.setCustomer(customer);
+                    controller.setSession(session);
+                    controller.setOnAuthorizationFailure(this::returnToLogin);
                     controller.setOnWithdrawSuccess(this::loadCustomerData); // Refresh data after withdrawal
 
                     // Create a new stage for the dialog
@@ -346,7 +382,8 @@ public class CustomerDashboardController {
 
             // Get the controller and set the customer
             CreateAccountDialogController controller = loader.getController();
-            controller.setCustomer(customer);
+            controller.setSession(session);
+            controller.setOnAuthorizationFailure(this::returnToLogin);
             controller.setOnAccountCreated(this::loadCustomerData); // Refresh data after account creation
 
             // Create a new stage for the dialog
@@ -365,21 +402,110 @@ public class CustomerDashboardController {
     private void handleRefreshTransactions(ActionEvent event) {
         Account selectedAccount = accountFilterComboBox.getValue();
         if (selectedAccount != null) {
-            try {
-                List<Transaction> transactions = accountService.getTransactionHistory(selectedAccount.getAccountId());
-                transactionsList.clear();
-                if (transactions != null) {
-                    transactionsList.addAll(transactions);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                showError("Error refreshing transactions: " + e.getMessage());
-            }
+            loadFirstTransactionPage(selectedAccount);
+        }
+    }
+
+    @FXML
+    private void handleLoadMoreTransactions(ActionEvent event) {
+        if (historyAccount == null || nextTransactionsCursor == null) {
+            return;
+        }
+        Account account = historyAccount;
+        TransactionCursor cursor = nextTransactionsCursor;
+        loadMoreTransactionsButton.setDisable(true);
+        backgroundTasks.submit(() -> accountService.getTransactionHistoryPage(
+                session.getToken(), account.getAccountId(), cursor, TRANSACTION_PAGE_SIZE),
+                page -> {
+                    // Ignore a page for an account that is no longer shown
+                    if (account != historyAccount) {
+                        return;
+                    }
+                    if (page != null) {
+                        transactionsList.addAll(page.getTransactions());
+                        setNextTransactionsCursor(page.getNextCursor());
+                    } else {
+                        setNextTransactionsCursor(cursor);
+                    }
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    setNextTransactionsCursor(cursor);
+                    showError("Error loading transactions: " + e.getMessage());
+                });
+    }
+
+    /**
+     * Replaces the transaction table contents with the newest page for the account
+     */
+    private void loadFirstTransactionPage(Account account) {
+        historyAccount = account;
+        transactionsList.clear();
+        setNextTransactionsCursor(null);
+        backgroundTasks.submit(() -> accountService.getTransactionHistoryPage(
+                session.getToken(), account.getAccountId(), null, TRANSACTION_PAGE_SIZE),
+                page -> {
+                    if (account != historyAccount || page == null) {
+                        return;
+                    }
+                    transactionsList.setAll(page.getTransactions());
+                    setNextTransactionsCursor(page.getNextCursor());
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error loading transactions: " + e.getMessage());
+                });
+    }
+
+    private void setNextTransactionsCursor(TransactionCursor cursor) {
+        nextTransactionsCursor = cursor;
+        if (loadMoreTransactionsButton != null) {
+            loadMoreTransactionsButton.setDisable(cursor == null);
         }
     }
 
     @FXML
     private void handleLogout(ActionEvent event) {
+        backgroundTasks.cancelAll();
+        if (session != null) {
+            SessionManager.getShared().invalidate(session.getToken());
+        }
+        showLogin();
+    }
+
+    /**
+     * Returns to the login screen if background work failed because the session was refused
+     * @return true if it did, in which case the failure needs no further handling
+     */
+    private boolean returnToLoginIfRefused(Throwable e) {
+        if (e instanceof AuthorizationException authorizationFailure) {
+            returnToLogin(authorizationFailure);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ends the session after a call was refused, e.g. because it expired, and goes back to the login screen
+     */
+    private void returnToLogin(AuthorizationException e) {
+        backgroundTasks.cancelAll();
+        if (session != null) {
+            SessionManager.getShared().invalidate(session.getToken());
+        }
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Session Ended");
+        alert.setHeaderText(null);
+        alert.setContentText(e.getMessage() + ". Please log in again.");
+        alert.showAndWait();
+        showLogin();
+    }
+
+    private void showLogin() {
         try {
             // Load the login screen
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/login.fxml"));
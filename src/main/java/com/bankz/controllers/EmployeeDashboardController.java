@@ -1,12 +1,11 @@
 package com.bankz.controllers;
 
 import java.io.IOException;
-import java.sql.SQLException;
-import java.util.List;
+import java.util.Locale;
 
 import com.bankz.App;
 import com.bankz.dao.AccountDao;
-import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
 import com.bankz.dao.CustomerDao;
 import com.bankz.dao.CustomerDaoImpl;
 import com.bankz.dao.TransactionDao;
@@ -17,11 +16,18 @@ import com.bankz.models.Employee;
 import com.bankz.models.Transaction;
 import com.bankz.services.AccountService;
 import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthorizationException;
 import com.bankz.services.CustomerService;
 import com.bankz.services.CustomerServiceImpl;
+import com.bankz.services.Permission;
+import com.bankz.services.SecuredAccountService;
+import com.bankz.services.SecuredCustomerService;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
+import com.bankz.util.SlowQueryLog;
 
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -33,6 +39,7 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -44,6 +51,9 @@ import javafx.stage.Stage;
  */
 public class EmployeeDashboardController {
 
+    private static final int TRANSACTION_PAGE_SIZE = 100;
+    private static final int MAX_CACHED_TRANSACTION_PAGES = 10;
+
     @FXML
     private Label welcomeLabel;
 
@@ -113,31 +123,65 @@ public class EmployeeDashboardController {
     @FXML
     private TableColumn<Transaction, String> transactionDateColumn;
 
+    // Diagnostics Tab
+    @FXML
+    private Button refreshSlowQueriesButton;
+    @FXML
+    private Button clearSlowQueriesButton;
+    @FXML
+    private Label slowQueryThresholdLabel;
+    @FXML
+    private TableView<SlowQueryLog.Entry> slowQueriesTable;
+    @FXML
+    private TableColumn<SlowQueryLog.Entry, String> slowQueryTimeColumn;
+    @FXML
+    private TableColumn<SlowQueryLog.Entry, String> slowQueryElapsedColumn;
+    @FXML
+    private TableColumn<SlowQueryLog.Entry, Long> slowQueryRowsColumn;
+    @FXML
+    private TableColumn<SlowQueryLog.Entry, String> slowQuerySqlColumn;
+    @FXML
+    private TextArea slowQueryDetailArea;
+
+    private SessionManager.Session session;
     private Employee employee;
-    private CustomerService customerService;
-    private AccountService accountService;
+    private SecuredCustomerService customerService;
+    private SecuredAccountService accountService;
     private CustomerDao customerDao;
     private AccountDao accountDao;
     private TransactionDao transactionDao;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
 
     @FXML
     public void initialize() {
         // Initialize services and DAOs
-        customerDao = new CustomerDaoImpl();
-        accountDao = new AccountDaoImpl();
-        transactionDao = new TransactionDaoImpl();
-        customerService = new CustomerServiceImpl(customerDao);
-        accountService = new AccountServiceImpl(accountDao, transactionDao);
+        customerDao = Instrumented.wrap(CustomerDao.class, new CustomerDaoImpl());
+        accountDao = Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared());
+        transactionDao = Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl());
+        customerService = new SecuredCustomerService(
+                Instrumented.wrap(CustomerService.class, new CustomerServiceImpl(customerDao)));
+        accountService = new SecuredAccountService(
+                Instrumented.wrap(AccountService.class, new AccountServiceImpl(accountDao, transactionDao)), accountDao);
 
         // Initialize table columns
         initializeCustomerTable();
         initializeAccountTable();
         initializeTransactionTable();
+        initializeSlowQueryTable();
+    }
+
+    /**
+     * Shows the dashboard for a logged-in employee; the session ends on logout
+     */
+    public void setSession(SessionManager.Session session) {
+        this.session = session;
+        setEmployee((Employee) session.getPrincipal());
 
-        // Load initial data
+        // Every load is authorized with the session, so nothing is read before it is set
         loadCustomers();
         loadAccounts();
         loadTransactions();
+        loadSlowQueries();
     }
 
     public void setEmployee(Employee employee) {
@@ -170,43 +214,88 @@ public class EmployeeDashboardController {
         transactionSourceColumn.setCellValueFactory(new PropertyValueFactory<>("sourceAccountId"));
         transactionDestinationColumn.setCellValueFactory(new PropertyValueFactory<>("destinationAccountId"));
         transactionTypeColumn.setCellValueFactory(new PropertyValueFactory<>("type"));
+        // Rows still being paged in are null
         transactionAmountColumn.setCellValueFactory(cellData -> 
             javafx.beans.binding.Bindings.createStringBinding(() -> 
-                "$" + cellData.getValue().getAmount()));
+                cellData.getValue() == null ? "" : "$" + cellData.getValue().getAmount()));
         transactionDateColumn.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
+        // Rows are paged in newest-first order from the database and cannot be re-sorted in memory
+        transactionsTable.setSortPolicy(table -> false);
+    }
+
+    private void initializeSlowQueryTable() {
+        slowQueryTimeColumn.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
+        slowQueryElapsedColumn.setCellValueFactory(cellData ->
+            javafx.beans.binding.Bindings.createStringBinding(() ->
+                String.format(Locale.ROOT, "%.1f", cellData.getValue().getElapsedMillis())));
+        slowQueryRowsColumn.setCellValueFactory(new PropertyValueFactory<>("rows"));
+        slowQuerySqlColumn.setCellValueFactory(new PropertyValueFactory<>("sql"));
+        slowQueriesTable.getSelectionModel().selectedItemProperty().addListener((observable, previous, entry) ->
+            slowQueryDetailArea.setText(entry == null ? ""
+                : "Parameters: " + entry.getParameters() + System.lineSeparator()
+                    + "Plan:" + System.lineSeparator() + entry.getPlan()));
+    }
+
+    private void loadSlowQueries() {
+        // Logged statements carry their bound parameters, so they are shown only to authorized sessions
+        backgroundTasks.submit(() -> {
+                    SessionManager.getShared().authorize(session.getToken(), Permission.VIEW_DIAGNOSTICS);
+                    return SlowQueryLog.getShared().getRecent();
+                },
+                entries -> {
+                    SlowQueryLog slowQueryLog = SlowQueryLog.getShared();
+                    slowQueryThresholdLabel.setText(slowQueryLog.isEnabled()
+                            ? "Statements taking " + slowQueryLog.getThresholdMillis() + " ms or longer"
+                            : "Slow query logging is off; start with -Ddb.slowQuery.thresholdMillis=200 to turn it on");
+                    slowQueriesTable.setItems(FXCollections.observableArrayList(entries));
+                },
+                e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error loading slow queries: " + e.getMessage());
+                });
     }
 
     private void loadCustomers() {
-        try {
-            List<Customer> customers = customerService.getAllCustomers();
-            ObservableList<Customer> customerObservableList = FXCollections.observableArrayList(customers);
-            customersTable.setItems(customerObservableList);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Error loading customers: " + e.getMessage());
-        }
+        backgroundTasks.submit(() -> customerService.getAllCustomers(session.getToken()),
+                customers -> customersTable.setItems(FXCollections.observableArrayList(customers)),
+                e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error loading customers: " + e.getMessage());
+                });
     }
 
     private void loadAccounts() {
-        try {
-            List<Account> accounts = accountDao.findAll();
-            ObservableList<Account> accountObservableList = FXCollections.observableArrayList(accounts);
-            accountsTable.setItems(accountObservableList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showError("Error loading accounts: " + e.getMessage());
-        }
+        backgroundTasks.submit(() -> accountService.getAllAccounts(session.getToken()),
+                accounts -> accountsTable.setItems(FXCollections.observableArrayList(accounts)),
+                e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error loading accounts: " + e.getMessage());
+                });
     }
 
     private void loadTransactions() {
-        try {
-            List<Transaction> transactions = transactionDao.findAll();
-            ObservableList<Transaction> transactionObservableList = FXCollections.observableArrayList(transactions);
-            transactionsTable.setItems(transactionObservableList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showError("Error loading transactions: " + e.getMessage());
-        }
+        backgroundTasks.submit(() -> {
+                    SessionManager.getShared().authorize(session.getToken(), Permission.VIEW_ALL_TRANSACTIONS);
+                    return new PagedTransactionList(
+                            transactionDao, TRANSACTION_PAGE_SIZE, MAX_CACHED_TRANSACTION_PAGES, backgroundTasks);
+                },
+                transactions -> transactionsTable.setItems(transactions),
+                e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error loading transactions: " + e.getMessage());
+                });
     }
 
     @FXML
@@ -246,17 +335,14 @@ public class EmployeeDashboardController {
 
         dialog.showAndWait().ifPresent(input -> {
             if (!input.isEmpty()) {
-                try {
-                    Customer customer = null;
+                backgroundTasks.submit(() -> {
                     if (input.matches("\\d+")) {
                         // Input is numeric, treat as customer ID
-                        int customerId = Integer.parseInt(input);
-                        customer = customerService.findCustomerById(customerId);
-                    } else {
-                        // Treat as username
-                        customer = customerService.findCustomerByUsername(input);
+                        return customerService.findCustomerById(session.getToken(), Integer.parseInt(input));
                     }
-
+                    // Treat as username
+                    return customerService.findCustomerByUsername(session.getToken(), input);
+                }, customer -> {
                     if (customer != null) {
                         // Show customer details in an alert
                         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -271,12 +357,17 @@ public class EmployeeDashboardController {
                     } else {
                         showError("Customer not found");
                     }
-                } catch (NumberFormatException e) {
-                    showError("Please enter a valid customer ID");
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error searching for customer: " + e.getMessage());
-                }
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    if (e instanceof NumberFormatException) {
+                        showError("Please enter a valid customer ID");
+                    } else {
+                        e.printStackTrace();
+                        showError("Error searching for customer: " + e.getMessage());
+                    }
+                });
             }
         });
     }
@@ -291,48 +382,59 @@ public class EmployeeDashboardController {
 
         dialog.showAndWait().ifPresent(input -> {
             if (!input.isEmpty()) {
+                int customerId;
                 try {
-                    int customerId = Integer.parseInt(input);
-                    Customer customer = customerService.findCustomerById(customerId);
-
+                    customerId = Integer.parseInt(input);
+                } catch (NumberFormatException e) {
+                    showError("Please enter a valid customer ID");
+                    return;
+                }
+                backgroundTasks.submit(() -> customerService.findCustomerById(session.getToken(), customerId), customer -> {
                     if (customer != null) {
-                        try {
-                            // Load the create account dialog
-                            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/create_account.fxml"));
-                            Parent root = loader.load();
-
-                            // Get the controller and set the customer ID
-                            CreateAccountController controller = loader.getController();
-                            controller.setCustomerId(customerId);
-                            controller.setOnAccountCreated(() -> {
-                                // Refresh account data
-                                loadAccounts();
-                                showSuccess("Account created successfully");
-                            });
-
-                            // Create a new stage for the dialog
-                            Stage stage = new Stage();
-                            stage.setTitle("Create Account for " + customer.getFirstName() + " " + customer.getLastName());
-                            stage.setScene(new Scene(root, 700, 500));
-                            stage.initModality(Modality.APPLICATION_MODAL);
-                            stage.showAndWait();
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            showError("Error opening create account dialog: " + e.getMessage());
-                        }
+                        openCreateAccountDialog(customer);
                     } else {
                         showError("Customer not found");
                     }
-                } catch (NumberFormatException e) {
-                    showError("Please enter a valid customer ID");
-                } catch (Exception e) {
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
                     e.printStackTrace();
                     showError("Error creating account: " + e.getMessage());
-                }
+                });
             }
         });
     }
 
+    private void openCreateAccountDialog(Customer customer) {
+        try {
+            // Load the create account dialog
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/create_account.fxml"));
+            Parent root = loader.load();
+
+            // Get the controller and set the customer ID
+            CreateAccountController controller = loader.getController();
+            controller.setSession(session);
+            controller.setCustomerId(customer.getCustomerId());
+            controller.setOnAuthorizationFailure(this::returnToLogin);
+            controller.setOnAccountCreated(() -> {
+                // Refresh account data
+                loadAccounts();
+                showSuccess("Account created successfully");
+            });
+
+            // Create a new stage for the dialog
+            Stage stage = new Stage();
+            stage.setTitle("Create Account for " + customer.getFirstName() + " " + customer.getLastName());
+            stage.setScene(new Scene(root, 700, 500));
+            stage.initModality(Modality.APPLICATION_MODAL);
+            stage.showAndWait();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Error opening create account dialog: " + e.getMessage());
+        }
+    }
+
     @FXML
     private void handleSearchAccount(ActionEvent event) {
         // Show a dialog to get account ID or number
@@ -343,17 +445,14 @@ public class EmployeeDashboardController {
 
         dialog.showAndWait().ifPresent(input -> {
             if (!input.isEmpty()) {
-                try {
-                    Account account = null;
+                backgroundTasks.submit(() -> {
                     if (input.matches("\\d+")) {
                         // Input is numeric, treat as account ID
-                        int accountId = Integer.parseInt(input);
-                        account = accountDao.findById(accountId);
-                    } else {
-                        // Treat as account number
-                        account = accountDao.findByAccountNumber(input);
+                        return accountService.getAccount(session.getToken(), Integer.parseInt(input));
                     }
-
+                    // Treat as account number
+                    return accountService.getAccountByAccountNumber(session.getToken(), input);
+                }, account -> {
                     if (account != null) {
                         // Show account details in an alert
                         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -370,12 +469,17 @@ public class EmployeeDashboardController {
                     } else {
                         showError("Account not found");
                     }
-                } catch (NumberFormatException e) {
-                    showError("Please enter a valid account ID");
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error searching for account: " + e.getMessage());
-                }
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    if (e instanceof NumberFormatException) {
+                        showError("Please enter a valid account ID");
+                    } else {
+                        e.printStackTrace();
+                        showError("Error searching for account: " + e.getMessage());
+                    }
+                });
             }
         });
     }
@@ -390,44 +494,53 @@ public class EmployeeDashboardController {
 
         dialog.showAndWait().ifPresent(input -> {
             if (!input.isEmpty()) {
+                int accountId;
                 try {
-                    int accountId = Integer.parseInt(input);
-                    Account account = accountDao.findById(accountId);
+                    accountId = Integer.parseInt(input);
+                } catch (NumberFormatException e) {
+                    showError("Please enter a valid account ID");
+                    return;
+                }
+                backgroundTasks.submit(() -> accountService.getAccount(session.getToken(), accountId), account -> {
+                    if (account == null) {
+                        showError("Account not found");
+                        return;
+                    }
 
-                    if (account != null) {
-                        // Confirm before freezing
-                        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-                        confirmAlert.setTitle("Confirm Freeze");
-                        confirmAlert.setHeaderText(null);
-                        confirmAlert.setContentText(
-                                "Are you sure you want to freeze account #" + accountId + 
-                                " (" + account.getAccountNumber() + ")?");
-
-                        confirmAlert.showAndWait().ifPresent(response -> {
-                            if (response == ButtonType.OK) {
-                                try {
-                                    if (accountService.freezeAccount(accountId)) {
-                                        // Refresh account data
-                                        loadAccounts();
-                                        showSuccess("Account frozen successfully");
-                                    } else {
-                                        showError("Failed to freeze account");
-                                    }
-                                } catch (Exception e) {
-                                    e.printStackTrace();
-                                    showError("Error freezing account: " + e.getMessage());
+                    // Confirm before freezing
+                    Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+                    confirmAlert.setTitle("Confirm Freeze");
+                    confirmAlert.setHeaderText(null);
+                    confirmAlert.setContentText(
+                            "Are you sure you want to freeze account #" + accountId + 
+                            " (" + account.getAccountNumber() + ")?");
+
+                    confirmAlert.showAndWait().ifPresent(response -> {
+                        if (response == ButtonType.OK) {
+                            backgroundTasks.submit(() -> accountService.freezeAccount(session.getToken(), accountId), success -> {
+                                if (success) {
+                                    // Refresh account data
+                                    loadAccounts();
+                                    showSuccess("Account frozen successfully");
+                                } else {
+                                    showError("Failed to freeze account");
                                 }
-                            }
-                        });
-                    } else {
-                        showError("Account not found");
+                            }, e -> {
+                                if (returnToLoginIfRefused(e)) {
+                                    return;
+                                }
+                                e.printStackTrace();
+                                showError("Error freezing account: " + e.getMessage());
+                            });
+                        }
+                    });
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
                     }
-                } catch (NumberFormatException e) {
-                    showError("Please enter a valid account ID");
-                } catch (Exception e) {
                     e.printStackTrace();
                     showError("Error freezing account: " + e.getMessage());
-                }
+                });
             }
         });
     }
@@ -442,44 +555,53 @@ public class EmployeeDashboardController {
 
         dialog.showAndWait().ifPresent(input -> {
             if (!input.isEmpty()) {
+                int accountId;
                 try {
-                    int accountId = Integer.parseInt(input);
-                    Account account = accountDao.findById(accountId);
+                    accountId = Integer.parseInt(input);
+                } catch (NumberFormatException e) {
+                    showError("Please enter a valid account ID");
+                    return;
+                }
+                backgroundTasks.submit(() -> accountService.getAccount(session.getToken(), accountId), account -> {
+                    if (account == null) {
+                        showError("Account not found");
+                        return;
+                    }
 
-                    if (account != null) {
-                        // Confirm before closing
-                        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-                        confirmAlert.setTitle("Confirm Close");
-                        confirmAlert.setHeaderText(null);
-                        confirmAlert.setContentText(
-                                "Are you sure you want to close account #" + accountId + 
-                                " (" + account.getAccountNumber() + ")?");
-
-                        confirmAlert.showAndWait().ifPresent(response -> {
-                            if (response == ButtonType.OK) {
-                                try {
-                                    if (accountService.closeAccount(accountId)) {
-                                        // Refresh account data
-                                        loadAccounts();
-                                        showSuccess("Account closed successfully");
-                                    } else {
-                                        showError("Failed to close account");
-                                    }
-                                } catch (Exception e) {
-                                    e.printStackTrace();
-                                    showError("Error closing account: " + e.getMessage());
+                    // Confirm before closing
+                    Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+                    confirmAlert.setTitle("Confirm Close");
+                    confirmAlert.setHeaderText(null);
+                    confirmAlert.setContentText(
+                            "Are you sure you want to close account #" + accountId + 
+                            " (" + account.getAccountNumber() + ")?");
+
+                    confirmAlert.showAndWait().ifPresent(response -> {
+                        if (response == ButtonType.OK) {
+                            backgroundTasks.submit(() -> accountService.closeAccount(session.getToken(), accountId), success -> {
+                                if (success) {
+                                    // Refresh account data
+                                    loadAccounts();
+                                    showSuccess("Account closed successfully");
+                                } else {
+                                    showError("Failed to close account");
                                 }
-                            }
-                        });
-                    } else {
-                        showError("Account not found");
+                            }, e -> {
+                                if (returnToLoginIfRefused(e)) {
+                                    return;
+                                }
+                                e.printStackTrace();
+                                showError("Error closing account: " + e.getMessage());
+                            });
+                        }
+                    });
+                }, e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
                     }
-                } catch (NumberFormatException e) {
-                    showError("Please enter a valid account ID");
-                } catch (Exception e) {
                     e.printStackTrace();
                     showError("Error closing account: " + e.getMessage());
-                }
+                });
             }
         });
     }
@@ -488,11 +610,70 @@ public class EmployeeDashboardController {
     private void handleViewTransactions(ActionEvent event) {
         // Refresh transactions table
         loadTransactions();
+        loadSlowQueries();
         showSuccess("Transactions refreshed");
     }
 
+    @FXML
+    private void handleRefreshSlowQueries(ActionEvent event) {
+        loadSlowQueries();
+    }
+
+    @FXML
+    private void handleClearSlowQueries(ActionEvent event) {
+        backgroundTasks.submit(() -> {
+                    SessionManager.getShared().authorize(session.getToken(), Permission.VIEW_DIAGNOSTICS);
+                    SlowQueryLog.getShared().clear();
+                    return null;
+                },
+                cleared -> loadSlowQueries(),
+                e -> {
+                    if (returnToLoginIfRefused(e)) {
+                        return;
+                    }
+                    e.printStackTrace();
+                    showError("Error clearing slow queries: " + e.getMessage());
+                });
+    }
+
     @FXML
     private void handleLogout(ActionEvent event) {
+        backgroundTasks.cancelAll();
+        if (session != null) {
+            SessionManager.getShared().invalidate(session.getToken());
+        }
+        showLogin();
+    }
+
+    /**
+     * Returns to the login screen if background work failed because the session was refused
+     * @return true if it did, in which case the failure needs no further handling
+     */
+    private boolean returnToLoginIfRefused(Throwable e) {
+        if (e instanceof AuthorizationException authorizationFailure) {
+            returnToLogin(authorizationFailure);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ends the session after a call was refused, e.g. because it expired, and goes back to the login screen
+     */
+    private void returnToLogin(AuthorizationException e) {
+        backgroundTasks.cancelAll();
+        if (session != null) {
+            SessionManager.getShared().invalidate(session.getToken());
+        }
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Session Ended");
+        alert.setHeaderText(null);
+        alert.setContentText(e.getMessage() + ". Please log in again.");
+        alert.showAndWait();
+        showLogin();
+    }
+
+    private void showLogin() {
         try {
             // Load the login screen
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/login.fxml"));
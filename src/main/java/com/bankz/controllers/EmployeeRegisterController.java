@@ -3,9 +3,10 @@ package com.bankz.controllers;
 import com.bankz.App;
 import com.bankz.dao.EmployeeDao;
 import com.bankz.dao.EmployeeDaoImpl;
-import com.bankz.models.Employee;
 import com.bankz.services.AuthenticationService;
 import com.bankz.services.AuthenticationServiceImpl;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -40,11 +41,12 @@ public class EmployeeRegisterController {
     private Label messageLabel;
 
     private AuthenticationService authenticationService;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
 
     @FXML
     public void initialize() {
-        EmployeeDao employeeDao = new EmployeeDaoImpl();
-        authenticationService = new AuthenticationServiceImpl(null, employeeDao);
+        EmployeeDao employeeDao = Instrumented.wrap(EmployeeDao.class, new EmployeeDaoImpl());
+        authenticationService = Instrumented.wrap(AuthenticationService.class, new AuthenticationServiceImpl(null, employeeDao));
     }
 
     @FXML
@@ -91,32 +93,37 @@ public class EmployeeRegisterController {
             return;
         }
 
-        try {
-            Employee employee = authenticationService.registerEmployee(firstName, lastName, username, password, role);
-            if (employee != null) {
-                showMessage("Registration successful!", "success");
-                // Add a small delay before navigating to login to allow user to see success message
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(1500);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
+        registerButton.disableProperty().bind(backgroundTasks.busyProperty());
+        showMessage("Registering...", "info");
+        backgroundTasks.submit(() -> authenticationService.registerEmployee(firstName, lastName, username, password, role),
+                employee -> {
+                    if (employee != null) {
+                        showMessage("Registration successful!", "success");
+                        // Add a small delay before navigating to login to allow user to see success message
+                        new Thread(() -> {
+                            try {
+                                Thread.sleep(1500);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            javafx.application.Platform.runLater(this::navigateToLogin);
+                        }).start();
+                    } else {
+                        showMessage("Registration failed. Username may already exist.", "error");
                     }
-                    javafx.application.Platform.runLater(this::navigateToLogin);
-                }).start();
-            } else {
-                showMessage("Registration failed. Username may already exist.", "error");
-            }
-        } catch (IllegalArgumentException e) {
-            showMessage(e.getMessage(), "error");
-        } catch (Exception e) {
-            showMessage("An unexpected error occurred during registration", "error");
-            e.printStackTrace();
-        }
+                }, e -> {
+                    if (e instanceof IllegalArgumentException) {
+                        showMessage(e.getMessage(), "error");
+                    } else {
+                        showMessage("An unexpected error occurred during registration", "error");
+                        e.printStackTrace();
+                    }
+                });
     }
 
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         navigateToLogin();
     }
 
@@ -1,16 +1,23 @@
 package com.bankz.controllers;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.bankz.App;
 import com.bankz.dao.CustomerDao;
 import com.bankz.dao.CustomerDaoImpl;
 import com.bankz.dao.EmployeeDao;
 import com.bankz.dao.EmployeeDaoImpl;
+import com.bankz.dao.PrincipalDao;
+import com.bankz.dao.PrincipalDaoImpl;
 import com.bankz.models.Customer;
 import com.bankz.models.Employee;
 import com.bankz.services.AuthenticationService;
 import com.bankz.services.AuthenticationServiceImpl;
+import com.bankz.services.LoginThrottledException;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -44,12 +51,17 @@ public class LoginController {
     private Label messageLabel;
 
     private AuthenticationService authenticationService;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
 
     @FXML
     public void initialize() {
-        CustomerDao customerDao = new CustomerDaoImpl();
-        EmployeeDao employeeDao = new EmployeeDaoImpl();
-        authenticationService = new AuthenticationServiceImpl(customerDao, employeeDao);
+        CustomerDao customerDao = Instrumented.wrap(CustomerDao.class, new CustomerDaoImpl());
+        EmployeeDao employeeDao = Instrumented.wrap(EmployeeDao.class, new EmployeeDaoImpl());
+        PrincipalDao principalDao = Instrumented.wrap(PrincipalDao.class, new PrincipalDaoImpl());
+        authenticationService = Instrumented.wrap(AuthenticationService.class, new AuthenticationServiceImpl(customerDao, employeeDao, principalDao));
+
+        // Prevent a second login attempt while one is being checked
+        loginButton.disableProperty().bind(backgroundTasks.busyProperty());
     }
 
     @FXML
@@ -62,25 +74,32 @@ public class LoginController {
             return;
         }
 
-        Customer customer = authenticationService.authenticateCustomer(username, password);
-        if (customer != null) {
-            showMessage("Login successful! Redirecting...", "success");
-            navigateToCustomerDashboard(customer);
-            return;
-        }
-
-        Employee employee = authenticationService.authenticateEmployee(username, password);
-        if (employee != null) {
-            showMessage("Login successful! Redirecting...", "success");
-            navigateToEmployeeDashboard(employee);
-            return;
-        }
-
-        showMessage("Invalid username or password", "error");
+        showMessage("Signing in...", "info");
+        // Attempts from this installation share one source budget in the login throttle
+        backgroundTasks.submit(() -> authenticationService.authenticate(
+                username, password, "installation:" + App.getInstallationId()), principal -> {
+            if (principal instanceof Customer) {
+                showMessage("Login successful! Redirecting...", "success");
+                navigateToCustomerDashboard(SessionManager.getShared().open(principal));
+            } else if (principal instanceof Employee) {
+                showMessage("Login successful! Redirecting...", "success");
+                navigateToEmployeeDashboard(SessionManager.getShared().open(principal));
+            } else {
+                showMessage("Invalid username or password", "error");
+            }
+        }, e -> {
+            if (e instanceof LoginThrottledException || e instanceof RejectedExecutionException) {
+                showMessage(e.getMessage(), "error");
+                return;
+            }
+            e.printStackTrace();
+            showMessage("An unexpected error occurred during login", "error");
+        });
     }
 
     @FXML
     private void handleRegister(ActionEvent event) {
+        backgroundTasks.cancelAll();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/register.fxml"));
             Parent root = loader.load();
@@ -100,6 +119,7 @@ public class LoginController {
 
     @FXML
     private void handleEmployeeRegister(ActionEvent event) {
+        backgroundTasks.cancelAll();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/employee_register.fxml"));
             Parent root = loader.load();
@@ -134,13 +154,13 @@ public class LoginController {
         }
     }
 
-    private void navigateToCustomerDashboard(Customer customer) {
+    private void navigateToCustomerDashboard(SessionManager.Session session) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/customer_dashboard.fxml"));
             Parent root = loader.load();
 
             CustomerDashboardController controller = loader.getController();
-            controller.setCustomer(customer);
+            controller.setSession(session);
 
             Stage stage = (Stage) loginButton.getScene().getWindow();
 
@@ -155,13 +175,13 @@ public class LoginController {
         }
     }
 
-    private void navigateToEmployeeDashboard(Employee employee) {
+    private void navigateToEmployeeDashboard(SessionManager.Session session) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/employee_dashboard.fxml"));
             Parent root = loader.load();
 
             EmployeeDashboardController controller = loader.getController();
-            controller.setEmployee(employee);
+            controller.setSession(session);
 
             Stage stage = (Stage) loginButton.getScene().getWindow();
 
@@ -0,0 +1,186 @@
+package com.bankz.controllers;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bankz.dao.TransactionDao;
+import com.bankz.models.Transaction;
+import com.bankz.util.BackgroundTasks;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only list of every transaction, newest first, that loads fixed-size pages on demand.
+ * A TableView only asks for the rows it is showing, so only the pages around the viewport are
+ * read; once more than {@code maxCachedPages} are held, the page farthest from the last one
+ * requested is dropped.
+ * <p>
+ * Rows are addressed by transaction ID: index 0 is the highest ID when the list was created and
+ * each index below it is the next lower ID. Every page is therefore read with a bounded seek on
+ * the primary key, so scrolling or jumping costs the same at any depth, and transactions added
+ * later never shift the rows already shown.
+ * <p>
+ * When created with {@link BackgroundTasks}, a missing page is read in the background: its rows
+ * are reported as null until the page arrives, then an update change is fired so the table
+ * redraws them. Without it, pages are read on the calling thread.
+ * <p>
+ * The size is the highest ID when the list is created; build a new list to pick up newer
+ * transactions.
+ */
+public class PagedTransactionList extends ObservableListBase<Transaction> {
+
+    private final TransactionDao transactionDao;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final BackgroundTasks backgroundTasks;
+    private final Map<Integer, List<Transaction>> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private final int maxId;
+    private final int size;
+    private long pageLoads;
+
+    public PagedTransactionList(TransactionDao transactionDao, int pageSize, int maxCachedPages) throws SQLException {
+        this(transactionDao, pageSize, maxCachedPages, null);
+    }
+
+    /**
+     * @param backgroundTasks Runs page reads off the FX thread, or null to read pages synchronously
+     */
+    public PagedTransactionList(TransactionDao transactionDao, int pageSize, int maxCachedPages,
+                                BackgroundTasks backgroundTasks) throws SQLException {
+        if (pageSize < 1 || maxCachedPages < 1) {
+            throw new IllegalArgumentException("Page size and cached page count must be positive");
+        }
+        this.transactionDao = transactionDao;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.backgroundTasks = backgroundTasks;
+        this.maxId = transactionDao.findMaxId();
+        this.size = maxId;
+    }
+
+    /**
+     * Returns the transaction at the index, or null if its page is still loading, could not be
+     * loaded, or no transaction with that ID exists
+     */
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageIndex = index / pageSize;
+        List<Transaction> page = pages.get(pageIndex);
+        if (page == null) {
+            if (backgroundTasks != null) {
+                requestPage(pageIndex);
+                return null;
+            }
+            try {
+                page = queryFor(pageIndex).run();
+                storePage(pageIndex, page);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        return page.get(index % pageSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Searches the cached pages only; rows that are not loaded are never read to answer this
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<Transaction>> entry : pages.entrySet()) {
+            int row = entry.getValue().indexOf(o);
+            if (row >= 0) {
+                return entry.getKey() * pageSize + row;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    public int getCachedPageCount() {
+        return pages.size();
+    }
+
+    public long getPageLoads() {
+        return pageLoads;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (!loading.add(pageIndex)) {
+            return;
+        }
+        PageQuery query = queryFor(pageIndex);
+        backgroundTasks.submit(query::run, page -> {
+            loading.remove(pageIndex);
+            storePage(pageIndex, page);
+            int from = pageIndex * pageSize;
+            beginChange();
+            for (int i = from; i < from + pageSize && i < size; i++) {
+                nextUpdate(i);
+            }
+            endChange();
+        }, e -> {
+            loading.remove(pageIndex);
+            e.printStackTrace();
+        });
+    }
+
+    /**
+     * Reads the IDs the page covers, placing each row at its ID's index and leaving missing IDs null
+     */
+    private PageQuery queryFor(int pageIndex) {
+        int newestId = maxId - pageIndex * pageSize;
+        return () -> {
+            List<Transaction> page = new ArrayList<>(Collections.nCopies(pageSize, null));
+            for (Transaction transaction : transactionDao.findOlderThan(newestId + 1, 0, pageSize)) {
+                int row = newestId - transaction.getTransactionId();
+                if (row < pageSize) {
+                    page.set(row, transaction);
+                }
+            }
+            return page;
+        };
+    }
+
+    private void storePage(int pageIndex, List<Transaction> page) {
+        pageLoads++;
+        pages.put(pageIndex, page);
+        evictFarthestFrom(pageIndex);
+    }
+
+    private void evictFarthestFrom(int pageIndex) {
+        while (pages.size() > maxCachedPages) {
+            int farthest = pageIndex;
+            for (Integer cached : pages.keySet()) {
+                if (Math.abs(cached - pageIndex) > Math.abs(farthest - pageIndex)) {
+                    farthest = cached;
+                }
+            }
+            pages.remove(farthest);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Transaction> run() throws SQLException;
+    }
+}
@@ -12,6 +12,9 @@ import com.bankz.services.AuthenticationService;
 import com.bankz.services.AuthenticationServiceImpl;
 import com.bankz.services.CustomerService;
 import com.bankz.services.CustomerServiceImpl;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -55,14 +58,17 @@ public class RegisterController {
 
     private AuthenticationService authenticationService;
     private CustomerService customerService;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
 
     @FXML
     public void initialize() {
         // Initialize the services
-        CustomerDao customerDao = new CustomerDaoImpl();
-        EmployeeDao employeeDao = new EmployeeDaoImpl();
-        authenticationService = new AuthenticationServiceImpl(customerDao, employeeDao);
-        customerService = new CustomerServiceImpl(customerDao);
+        CustomerDao customerDao = Instrumented.wrap(CustomerDao.class, new CustomerDaoImpl());
+        EmployeeDao employeeDao = Instrumented.wrap(EmployeeDao.class, new EmployeeDaoImpl());
+        authenticationService = Instrumented.wrap(AuthenticationService.class, new AuthenticationServiceImpl(customerDao, employeeDao));
+        customerService = Instrumented.wrap(CustomerService.class, new CustomerServiceImpl(customerDao));
+
+        registerButton.disableProperty().bind(backgroundTasks.busyProperty());
     }
 
     @FXML
@@ -89,23 +95,30 @@ public class RegisterController {
             return;
         }
 
-        try {
-            // Register the customer
-            Customer customer = authenticationService.registerCustomer(firstName, lastName, username, password);
-            if (customer != null) {
-                messageLabel.setText("Registration successful!");
-                // Navigate to customer dashboard
-                navigateToCustomerDashboard(customer);
-            } else {
-                messageLabel.setText("Registration failed. Please try again.");
-            }
-        } catch (IllegalArgumentException e) {
-            messageLabel.setText(e.getMessage());
-        }
+        // Register the customer
+        messageLabel.setText("Registering...");
+        backgroundTasks.submit(() -> authenticationService.registerCustomer(firstName, lastName, username, password),
+                customer -> {
+                    if (customer != null) {
+                        messageLabel.setText("Registration successful!");
+                        // Navigate to customer dashboard
+                        navigateToCustomerDashboard(customer);
+                    } else {
+                        messageLabel.setText("Registration failed. Please try again.");
+                    }
+                }, e -> {
+                    if (e instanceof IllegalArgumentException) {
+                        messageLabel.setText(e.getMessage());
+                    } else {
+                        e.printStackTrace();
+                        messageLabel.setText("Registration failed. Please try again.");
+                    }
+                });
     }
 
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         try {
             // Load the login screen
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/login.fxml"));
@@ -132,9 +145,9 @@ public class RegisterController {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/bankz/fxml/customer_dashboard.fxml"));
             Parent root = loader.load();
 
-            // Get the controller and set the customer
+            // Get the controller and start the new customer's session
             CustomerDashboardController controller = loader.getController();
-            controller.setCustomer(customer);
+            controller.setSession(SessionManager.getShared().open(customer));
 
             // Get the current stage
             Stage stage = (Stage) registerButton.getScene().getWindow();
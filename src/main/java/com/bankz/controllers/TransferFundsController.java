@@ -1,12 +1,18 @@
 package com.bankz.controllers;
 
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import com.bankz.models.Customer;
 import com.bankz.services.AccountService;
 import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthorizationException;
+import com.bankz.services.SecuredAccountService;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 import com.bankz.services.InsufficientFundsException;
 import com.bankz.dao.AccountDao;
-import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
 import com.bankz.dao.TransactionDao;
 import com.bankz.dao.TransactionDaoImpl;
 import javafx.event.ActionEvent;
@@ -14,8 +20,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.math.BigDecimal;
-import java.util.List;
+import java.util.function.Consumer;
+
 
 /**
  * Controller class for the transfer funds dialog
@@ -43,20 +49,27 @@ public class TransferFundsController {
     @FXML
     private Label messageLabel;
     
+    private SessionManager.Session session;
     private Customer customer;
-    private AccountService accountService;
+    private SecuredAccountService accountService;
     private Runnable onTransferSuccess;
+    private Consumer<AuthorizationException> onAuthorizationFailure;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
     
     @FXML
     public void initialize() {
         // Initialize the account service
-        AccountDao accountDao = new AccountDaoImpl();
-        TransactionDao transactionDao = new TransactionDaoImpl();
-        accountService = new AccountServiceImpl(accountDao, transactionDao);
+        AccountDao accountDao = Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared());
+        TransactionDao transactionDao = Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl());
+        accountService = new SecuredAccountService(
+                Instrumented.wrap(AccountService.class, new AccountServiceImpl(accountDao, transactionDao)), accountDao);
+        
+        transferButton.disableProperty().bind(backgroundTasks.busyProperty());
     }
     
-    public void setCustomer(Customer customer) {
-        this.customer = customer;
+    public void setSession(SessionManager.Session session) {
+        this.session = session;
+        this.customer = (Customer) session.getPrincipal();
         loadCustomerAccounts();
     }
     
@@ -64,19 +77,29 @@ public class TransferFundsController {
         this.onTransferSuccess = onTransferSuccess;
     }
     
+    /**
+     * Called after the dialog closes itself because the session was refused
+     */
+    public void setOnAuthorizationFailure(Consumer<AuthorizationException> onAuthorizationFailure) {
+        this.onAuthorizationFailure = onAuthorizationFailure;
+    }
+    
     private void loadCustomerAccounts() {
-        try {
-            fromAccountComboBox.getItems().clear();
-            
-            List<Account> accounts = accountService.getAccountsByCustomer(customer.getCustomerId());
-            if (accounts != null && !accounts.isEmpty()) {
-                fromAccountComboBox.getItems().addAll(accounts);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            // Show error in the message label
-            messageLabel.setText("Error loading accounts: " + e.getMessage());
-        }
+        fromAccountComboBox.getItems().clear();
+        backgroundTasks.submit(() -> accountService.getAccountsByCustomer(session.getToken(), customer.getCustomerId()),
+                accounts -> {
+                    if (accounts != null && !accounts.isEmpty()) {
+                        fromAccountComboBox.getItems().addAll(accounts);
+                    }
+                }, e -> {
+                    if (e instanceof AuthorizationException authorizationFailure) {
+                        closeAfterAuthorizationFailure(authorizationFailure);
+                        return;
+                    }
+                    e.printStackTrace();
+                    // Show error in the message label
+                    messageLabel.setText("Error loading accounts: " + e.getMessage());
+                });
     }
     
     @FXML
@@ -102,10 +125,10 @@ public class TransferFundsController {
             return;
         }
         
-        BigDecimal amount;
+        Money amount;
         try {
-            amount = new BigDecimal(amountText);
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            amount = Money.parse(amountText);
+            if (!amount.isPositive()) {
                 messageLabel.setText("Amount must be positive");
                 return;
             }
@@ -115,52 +138,59 @@ public class TransferFundsController {
         }
         
         // Perform the transfer
-        try {
-            // First, we need to find the destination account by its account number
-            Account toAccount = accountService.getAccountByAccountNumber(toAccountNumber);
-            if (toAccount == null) {
-                messageLabel.setText("Destination account not found");
-                return;
-            }
-            
-            // Check if source and destination accounts are the same
-            if (fromAccount.getAccountId() == toAccount.getAccountId()) {
-                messageLabel.setText("Source and destination accounts must be different");
-                return;
-            }
-            
+        messageLabel.setText("Processing transfer...");
+        backgroundTasks.submit(() -> {
+            // The destination is resolved by its account number; an unknown or identical account is an IllegalArgumentException
             boolean success = accountService.transfer(
+                    session.getToken(),
                     fromAccount.getAccountId(), 
-                    toAccount.getAccountId(), 
+                    toAccountNumber, 
                     amount, 
                     description.isEmpty() ? "Transfer" : description);
+            return success ? null : "Transfer failed. Please try again.";
+        }, error -> {
+            if (error != null) {
+                messageLabel.setText(error);
+                return;
+            }
+            
+            messageLabel.setText("Transfer successful!");
+            // Clear the form
+            fromAccountComboBox.getSelectionModel().clearSelection();
+            toAccountNumberField.clear();
+            amountField.clear();
+            descriptionField.clear();
             
-            if (success) {
-                messageLabel.setText("Transfer successful!");
-                // Clear the form
-                fromAccountComboBox.getSelectionModel().clearSelection();
-                toAccountNumberField.clear();
-                amountField.clear();
-                descriptionField.clear();
-                
-                // Reload accounts to reflect updated balances
-                loadCustomerAccounts();
-                
-                // Notify the parent controller
-                if (onTransferSuccess != null) {
-                    onTransferSuccess.run();
-                }
+            // Reload accounts to reflect updated balances
+            loadCustomerAccounts();
+            
+            // Notify the parent controller
+            if (onTransferSuccess != null) {
+                onTransferSuccess.run();
+            }
+        }, e -> {
+            if (e instanceof AuthorizationException authorizationFailure) {
+                closeAfterAuthorizationFailure(authorizationFailure);
+            } else if (e instanceof InsufficientFundsException || e instanceof IllegalArgumentException) {
+                messageLabel.setText(e.getMessage());
             } else {
+                e.printStackTrace();
                 messageLabel.setText("Transfer failed. Please try again.");
             }
-        } catch (InsufficientFundsException e) {
-            messageLabel.setText(e.getMessage());
-        }
+        });
     }
     
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         Stage stage = (Stage) cancelButton.getScene().getWindow();
         stage.close();
     }
+    
+    private void closeAfterAuthorizationFailure(AuthorizationException e) {
+        handleCancel(null);
+        if (onAuthorizationFailure != null) {
+            onAuthorizationFailure.accept(e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.bankz.controllers;
 
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import com.bankz.models.Customer;
 import com.bankz.services.AccountService;
 import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthorizationException;
+import com.bankz.services.SecuredAccountService;
+import com.bankz.services.SessionManager;
+import com.bankz.util.BackgroundTasks;
+import com.bankz.util.Instrumented;
 import com.bankz.services.InsufficientFundsException;
 import com.bankz.dao.AccountDao;
-import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
 import com.bankz.dao.TransactionDao;
 import com.bankz.dao.TransactionDaoImpl;
 import javafx.event.ActionEvent;
@@ -14,8 +20,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.math.BigDecimal;
-import java.util.List;
+import java.util.function.Consumer;
+
 
 /**
  * Controller class for the withdraw dialog
@@ -40,20 +46,27 @@ public class WithdrawController {
     @FXML
     private Label messageLabel;
     
+    private SessionManager.Session session;
     private Customer customer;
-    private AccountService accountService;
+    private SecuredAccountService accountService;
     private Runnable onWithdrawSuccess;
+    private Consumer<AuthorizationException> onAuthorizationFailure;
+    private final BackgroundTasks backgroundTasks = new BackgroundTasks();
     
     @FXML
     public void initialize() {
         // Initialize the account service
-        AccountDao accountDao = new AccountDaoImpl();
-        TransactionDao transactionDao = new TransactionDaoImpl();
-        accountService = new AccountServiceImpl(accountDao, transactionDao);
+        AccountDao accountDao = Instrumented.wrap(AccountDao.class, CachingAccountDao.getShared());
+        TransactionDao transactionDao = Instrumented.wrap(TransactionDao.class, new TransactionDaoImpl());
+        accountService = new SecuredAccountService(
+                Instrumented.wrap(AccountService.class, new AccountServiceImpl(accountDao, transactionDao)), accountDao);
+        
+        withdrawButton.disableProperty().bind(backgroundTasks.busyProperty());
     }
     
-    public void setCustomer(Customer customer) {
-        this.customer = customer;
+    public void setSession(SessionManager.Session session) {
+        this.session = session;
+        this.customer = (Customer) session.getPrincipal();
         loadCustomerAccounts();
     }
     
@@ -61,19 +74,29 @@ public class WithdrawController {
         this.onWithdrawSuccess = onWithdrawSuccess;
     }
     
+    /**
+     * Called after the dialog closes itself because the session was refused
+     */
+    public void setOnAuthorizationFailure(Consumer<AuthorizationException> onAuthorizationFailure) {
+        this.onAuthorizationFailure = onAuthorizationFailure;
+    }
+    
     private void loadCustomerAccounts() {
-        try {
-            accountComboBox.getItems().clear();
-            
-            List<Account> accounts = accountService.getAccountsByCustomer(customer.getCustomerId());
-            if (accounts != null && !accounts.isEmpty()) {
-                accountComboBox.getItems().addAll(accounts);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            // Show error in the message label
-            messageLabel.setText("Error loading accounts: " + e.getMessage());
-        }
+        accountComboBox.getItems().clear();
+        backgroundTasks.submit(() -> accountService.getAccountsByCustomer(session.getToken(), customer.getCustomerId()),
+                accounts -> {
+                    if (accounts != null && !accounts.isEmpty()) {
+                        accountComboBox.getItems().addAll(accounts);
+                    }
+                }, e -> {
+                    if (e instanceof AuthorizationException authorizationFailure) {
+                        closeAfterAuthorizationFailure(authorizationFailure);
+                        return;
+                    }
+                    e.printStackTrace();
+                    // Show error in the message label
+                    messageLabel.setText("Error loading accounts: " + e.getMessage());
+                });
     }
     
     @FXML
@@ -93,10 +116,10 @@ public class WithdrawController {
             return;
         }
         
-        BigDecimal amount;
+        Money amount;
         try {
-            amount = new BigDecimal(amountText);
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            amount = Money.parse(amountText);
+            if (!amount.isPositive()) {
                 messageLabel.setText("Amount must be positive");
                 return;
             }
@@ -106,37 +129,53 @@ public class WithdrawController {
         }
         
         // Perform the withdrawal
-        try {
-            Account updatedAccount = accountService.withdraw(
-                    account.getAccountId(), 
-                    amount, 
-                    description.isEmpty() ? "Withdrawal" : description);
-            
-            if (updatedAccount != null) {
-                messageLabel.setText("Withdrawal successful!");
-                // Clear the form
-                accountComboBox.getSelectionModel().clearSelection();
-                amountField.clear();
-                descriptionField.clear();
-                
-                // Reload accounts to reflect updated balance
-                loadCustomerAccounts();
-                
-                // Notify the parent controller
-                if (onWithdrawSuccess != null) {
-                    onWithdrawSuccess.run();
-                }
-            } else {
-                messageLabel.setText("Withdrawal failed. Please try again.");
-            }
-        } catch (InsufficientFundsException e) {
-            messageLabel.setText(e.getMessage());
-        }
+        messageLabel.setText("Processing withdrawal...");
+        backgroundTasks.submit(() -> accountService.withdraw(
+                session.getToken(),
+                account.getAccountId(), 
+                amount, 
+                description.isEmpty() ? "Withdrawal" : description),
+                updatedAccount -> {
+                    if (updatedAccount != null) {
+                        messageLabel.setText("Withdrawal successful!");
+                        // Clear the form
+                        accountComboBox.getSelectionModel().clearSelection();
+                        amountField.clear();
+                        descriptionField.clear();
+                        
+                        // Reload accounts to reflect updated balance
+                        loadCustomerAccounts();
+                        
+                        // Notify the parent controller
+                        if (onWithdrawSuccess != null) {
+                            onWithdrawSuccess.run();
+                        }
+                    } else {
+                        messageLabel.setText("Withdrawal failed. Please try again.");
+                    }
+                }, e -> {
+                    if (e instanceof AuthorizationException authorizationFailure) {
+                        closeAfterAuthorizationFailure(authorizationFailure);
+                    } else if (e instanceof InsufficientFundsException || e instanceof IllegalArgumentException) {
+                        messageLabel.setText(e.getMessage());
+                    } else {
+                        e.printStackTrace();
+                        messageLabel.setText("Withdrawal failed. Please try again.");
+                    }
+                });
     }
     
     @FXML
     private void handleCancel(ActionEvent event) {
+        backgroundTasks.cancelAll();
         Stage stage = (Stage) cancelButton.getScene().getWindow();
         stage.close();
     }
+    
+    private void closeAfterAuthorizationFailure(AuthorizationException e) {
+        handleCancel(null);
+        if (onAuthorizationFailure != null) {
+            onAuthorizationFailure.accept(e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.bankz.dao;
 
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -32,5 +33,23 @@ public interface AccountDao extends Dao<Account, Integer> {
      * @return true if the update was successful, false otherwise
      * @throws SQLException if a database access error occurs
      */
-    boolean updateBalance(int accountId, double newBalance) throws SQLException;
+    boolean updateBalance(int accountId, Money newBalance) throws SQLException;
+    
+    /**
+     * Subtracts an amount from an account's balance, but only if the balance covers it
+     * @param accountId The ID of the account
+     * @param amount The amount to subtract
+     * @return true if the account was debited, false if it does not exist or has insufficient funds
+     * @throws SQLException if a database access error occurs
+     */
+    boolean debit(int accountId, Money amount) throws SQLException;
+    
+    /**
+     * Adds an amount to an account's balance
+     * @param accountId The ID of the account
+     * @param amount The amount to add
+     * @return true if the account was credited, false if it does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    boolean credit(int accountId, Money amount) throws SQLException;
 }
\ No newline at end of file
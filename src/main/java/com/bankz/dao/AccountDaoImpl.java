@@ -1,6 +1,7 @@
 package com.bankz.dao;
 
 import com.bankz.models.Account;
+import com.bankz.models.Money;
 import com.bankz.util.DatabaseManager;
 
 import java.sql.*;
@@ -20,7 +21,7 @@ public class AccountDaoImpl implements AccountDao {
             stmt.setInt(1, account.getCustomerId());
             stmt.setString(2, account.getAccountNumber());
             stmt.setString(3, account.getAccountType());
-            stmt.setBigDecimal(4, account.getBalance());
+            stmt.setLong(4, account.getBalance().getCents());
             stmt.setString(5, account.getDateOpened().toString());
             stmt.setString(6, account.getStatus());
 
@@ -88,7 +89,7 @@ public class AccountDaoImpl implements AccountDao {
             stmt.setInt(1, account.getCustomerId());
             stmt.setString(2, account.getAccountNumber());
             stmt.setString(3, account.getAccountType());
-            stmt.setBigDecimal(4, account.getBalance());
+            stmt.setLong(4, account.getBalance().getCents());
             stmt.setString(5, account.getDateOpened().toString());
             stmt.setString(6, account.getStatus());
             stmt.setInt(7, account.getAccountId());
@@ -152,13 +153,13 @@ public class AccountDaoImpl implements AccountDao {
     }
 
     @Override
-    public boolean updateBalance(int accountId, double newBalance) throws SQLException {
+    public boolean updateBalance(int accountId, Money newBalance) throws SQLException {
         String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
 
         try (Connection conn = DatabaseManager.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setDouble(1, newBalance);
+            stmt.setLong(1, newBalance.getCents());
             stmt.setInt(2, accountId);
 
             int affectedRows = stmt.executeUpdate();
@@ -166,13 +167,44 @@ public class AccountDaoImpl implements AccountDao {
         }
     }
 
-    private Account mapResultSetToAccount(ResultSet rs) throws SQLException {
+    @Override
+    public boolean debit(int accountId, Money amount) throws SQLException {
+        String sql = "UPDATE accounts SET balance = balance - ? WHERE account_id = ? AND balance >= ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, amount.getCents());
+            stmt.setInt(2, accountId);
+            stmt.setLong(3, amount.getCents());
+
+            int affectedRows = stmt.executeUpdate();
+            return affectedRows > 0;
+        }
+    }
+
+    @Override
+    public boolean credit(int accountId, Money amount) throws SQLException {
+        String sql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, amount.getCents());
+            stmt.setInt(2, accountId);
+
+            int affectedRows = stmt.executeUpdate();
+            return affectedRows > 0;
+        }
+    }
+
+    static Account mapResultSetToAccount(ResultSet rs) throws SQLException {
         Account account = new Account();
         account.setAccountId(rs.getInt("account_id"));
         account.setCustomerId(rs.getInt("customer_id"));
         account.setAccountNumber(rs.getString("account_number"));
         account.setAccountType(rs.getString("account_type"));
-        account.setBalance(rs.getBigDecimal("balance"));
+        account.setBalance(Money.ofCents(rs.getLong("balance")));
         account.setDateOpened(LocalDateTime.parse(rs.getString("date_opened")));
         account.setStatus(rs.getString("status"));
         return account;
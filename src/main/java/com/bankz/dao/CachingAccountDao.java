@@ -0,0 +1,300 @@
+package com.bankz.dao;
+
+import com.bankz.models.Account;
+import com.bankz.models.Money;
+import com.bankz.util.DatabaseManager;
+import com.bankz.util.MetricsRegistry;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache in front of another {@link AccountDao}, keyed by account ID and account number.
+ * Holds at most {@code maxSize} accounts and evicts the least recently used one when full.
+ * Callers always receive their own copy, so changing a returned account never changes the cache.
+ * <p>
+ * Every write evicts the accounts it touches, and evicts them again once the enclosing
+ * transaction has committed or rolled back. A read that raced with a write is not cached.
+ * Inside a transaction, accounts the transaction has written are read from the database.
+ * <p>
+ * The shared instance is sized with the {@code account.cache.maxSize} system property; a size of 0 disables caching.
+ */
+public class CachingAccountDao implements AccountDao {
+
+    private static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static CachingAccountDao shared;
+
+    private final AccountDao delegate;
+    private final int maxSize;
+    private final LinkedHashMap<Integer, Account> byId;
+    private final Map<String, Integer> idsByNumber = new HashMap<>();
+    private final ThreadLocal<Set<Integer>> writtenInTransaction = new ThreadLocal<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long writeSequence;
+
+    public CachingAccountDao(AccountDao delegate, int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Account> eldest) {
+                if (size() <= CachingAccountDao.this.maxSize) {
+                    return false;
+                }
+                idsByNumber.remove(eldest.getValue().getAccountNumber());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the process-wide cache in front of {@link AccountDaoImpl}
+     */
+    public static synchronized CachingAccountDao getShared() {
+        if (shared == null) {
+            shared = new CachingAccountDao(new AccountDaoImpl(),
+                    Integer.getInteger("account.cache.maxSize", DEFAULT_MAX_SIZE));
+            if (MetricsRegistry.isEnabled()) {
+                CachingAccountDao cache = shared;
+                MetricsRegistry metrics = MetricsRegistry.getShared();
+                metrics.gauge("accountCache.size", cache::size);
+                metrics.gauge("accountCache.hits", () -> cache.getStats().getHits());
+                metrics.gauge("accountCache.misses", () -> cache.getStats().getMisses());
+            }
+        }
+        return shared;
+    }
+
+    @Override
+    public Account findById(Integer id) throws SQLException {
+        if (id == null || isWrittenInTransaction(id)) {
+            return delegate.findById(id);
+        }
+        long sequence;
+        synchronized (this) {
+            Account cached = byId.get(id);
+            if (cached != null) {
+                hits.increment();
+                return copy(cached);
+            }
+            sequence = writeSequence;
+        }
+        misses.increment();
+        Account account = delegate.findById(id);
+        cacheIfUnchanged(account, sequence);
+        return account;
+    }
+
+    @Override
+    public Account findByAccountNumber(String accountNumber) throws SQLException {
+        long sequence;
+        synchronized (this) {
+            Integer id = idsByNumber.get(accountNumber);
+            if (id != null && !isWrittenInTransaction(id)) {
+                Account cached = byId.get(id);
+                if (cached != null) {
+                    hits.increment();
+                    return copy(cached);
+                }
+            }
+            sequence = writeSequence;
+        }
+        misses.increment();
+        Account account = delegate.findByAccountNumber(accountNumber);
+        if (account != null && !isWrittenInTransaction(account.getAccountId())) {
+            cacheIfUnchanged(account, sequence);
+        }
+        return account;
+    }
+
+    @Override
+    public List<Account> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Account> findByCustomerId(int customerId) throws SQLException {
+        return delegate.findByCustomerId(customerId);
+    }
+
+    @Override
+    public Account save(Account account) throws SQLException {
+        return delegate.save(account);
+    }
+
+    @Override
+    public boolean update(Account account) throws SQLException {
+        return write(account.getAccountId(), () -> delegate.update(account));
+    }
+
+    @Override
+    public boolean delete(Integer id) throws SQLException {
+        return write(id, () -> delegate.delete(id));
+    }
+
+    @Override
+    public boolean updateBalance(int accountId, Money newBalance) throws SQLException {
+        return write(accountId, () -> delegate.updateBalance(accountId, newBalance));
+    }
+
+    @Override
+    public boolean debit(int accountId, Money amount) throws SQLException {
+        return write(accountId, () -> delegate.debit(accountId, amount));
+    }
+
+    @Override
+    public boolean credit(int accountId, Money amount) throws SQLException {
+        return write(accountId, () -> delegate.credit(accountId, amount));
+    }
+
+    /**
+     * Drops every cached account, e.g. after the database has been changed behind the cache
+     */
+    public synchronized void invalidateAll() {
+        writeSequence++;
+        byId.clear();
+        idsByNumber.clear();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size());
+    }
+
+    private void cacheIfUnchanged(Account account, long sequence) {
+        if (account == null || maxSize == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (writeSequence != sequence) {
+                return;
+            }
+            Account previous = byId.put(account.getAccountId(), copy(account));
+            if (previous != null) {
+                idsByNumber.remove(previous.getAccountNumber());
+            }
+            idsByNumber.put(account.getAccountNumber(), account.getAccountId());
+        }
+    }
+
+    /**
+     * Evicts the account before and after a write so a read racing with it cannot cache the old row.
+     * Inside a transaction the second eviction waits for the transaction to finish.
+     */
+    private boolean write(int accountId, AccountWrite write) throws SQLException {
+        invalidate(accountId);
+        if (!DatabaseManager.isInTransaction()) {
+            try {
+                return write.run();
+            } finally {
+                invalidate(accountId);
+            }
+        }
+        Set<Integer> written = writtenInTransaction.get();
+        if (written == null) {
+            written = new HashSet<>();
+            writtenInTransaction.set(written);
+            DatabaseManager.afterCompletion(writtenInTransaction::remove);
+        }
+        if (written.add(accountId)) {
+            DatabaseManager.afterCompletion(() -> invalidate(accountId));
+        }
+        return write.run();
+    }
+
+    private synchronized void invalidate(int accountId) {
+        writeSequence++;
+        Account removed = byId.remove(accountId);
+        if (removed != null) {
+            idsByNumber.remove(removed.getAccountNumber());
+            invalidations.increment();
+        }
+    }
+
+    private boolean isWrittenInTransaction(int accountId) {
+        Set<Integer> written = writtenInTransaction.get();
+        return written != null && written.contains(accountId);
+    }
+
+    private static Account copy(Account account) {
+        return new Account(account.getAccountId(), account.getCustomerId(), account.getAccountNumber(),
+                account.getAccountType(), account.getBalance(), account.getDateOpened(), account.getStatus());
+    }
+
+    @FunctionalInterface
+    private interface AccountWrite {
+        boolean run() throws SQLException;
+    }
+
+    /**
+     * Cache counters at a point in time
+     */
+    public static final class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+
+        CacheStats(long hits, long misses, long evictions, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", evictions=" + evictions +
+                    ", invalidations=" + invalidations +
+                    ", size=" + size +
+                    '}';
+        }
+    }
+}
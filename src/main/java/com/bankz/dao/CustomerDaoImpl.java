@@ -10,6 +10,19 @@ import java.util.List;
 
 
 public class CustomerDaoImpl implements CustomerDao {
+
+    private final UsernameFilter usernameFilter;
+
+    public CustomerDaoImpl() {
+        this(UsernameFilter.forCustomers());
+    }
+
+    /**
+     * @param usernameFilter Answers {@link #usernameExists(String)} and is told about every saved username
+     */
+    public CustomerDaoImpl(UsernameFilter usernameFilter) {
+        this.usernameFilter = usernameFilter;
+    }
     
     @Override
     public Customer save(Customer customer) throws SQLException {
@@ -37,8 +50,15 @@ public class CustomerDaoImpl implements CustomerDao {
                     throw new SQLException("Creating customer failed, no ID obtained.");
                 }
             }
+        } catch (SQLException e) {
+            if (UsernameFilter.isDuplicateUsername(e)) {
+                // Taken by a writer the filter has not seen, e.g. another process
+                usernameFilter.add(customer.getUsername());
+            }
+            throw e;
         }
-        
+
+        usernameFilter.add(customer.getUsername());
         return customer;
     }
     
@@ -93,7 +113,28 @@ public class CustomerDaoImpl implements CustomerDao {
             stmt.setInt(6, customer.getCustomerId());
             
             int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+            if (affectedRows == 0) {
+                return false;
+            }
+        }
+
+        // The username may have changed
+        usernameFilter.add(customer.getUsername());
+        return true;
+    }
+    
+    @Override
+    public boolean updatePasswordHash(int customerId, String expectedHash, String newHash) throws SQLException {
+        String sql = "UPDATE customers SET password_hash = ? WHERE customer_id = ? AND password_hash = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, newHash);
+            stmt.setInt(2, customerId);
+            stmt.setString(3, expectedHash);
+
+            return stmt.executeUpdate() > 0;
         }
     }
     
@@ -132,24 +173,10 @@ public class CustomerDaoImpl implements CustomerDao {
     
     @Override
     public boolean usernameExists(String username) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM customers WHERE username = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, username);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-        
-        return false;
+        return usernameFilter.exists(username);
     }
     
-    private Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
+    static Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
         Customer customer = new Customer();
         customer.setCustomerId(rs.getInt("customer_id"));
         customer.setFirstName(rs.getString("first_name"));
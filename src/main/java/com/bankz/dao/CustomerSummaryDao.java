@@ -0,0 +1,43 @@
+package com.bankz.dao;
+
+import com.bankz.models.CustomerSummary;
+import com.bankz.models.Transaction;
+import java.sql.SQLException;
+import java.time.YearMonth;
+
+/**
+ * DAO for the materialized per-customer dashboard summary.
+ * A customer's summary is built once from the ledger and then kept up to date by
+ * {@link #recordTransaction(Transaction, Integer, Integer)} in the same database transaction
+ * that posts each ledger row.
+ */
+public interface CustomerSummaryDao {
+
+    /**
+     * Reads a customer's summary
+     * @param customerId The ID of the customer
+     * @param month The month to report inflow and outflow for, normally the current one
+     * @return The summary, or null if it has not been built for this customer yet
+     * @throws SQLException if a database access error occurs
+     */
+    CustomerSummary findByCustomerId(int customerId, YearMonth month) throws SQLException;
+
+    /**
+     * Builds a customer's summary from the ledger, replacing any existing one.
+     * Must be called inside a transaction so no posting is missed while it runs.
+     * @param customerId The ID of the customer
+     * @param month The month to total inflow and outflow for
+     * @throws SQLException if a database access error occurs
+     */
+    void rebuild(int customerId, YearMonth month) throws SQLException;
+
+    /**
+     * Applies a newly posted ledger row to the summaries of the customers it touches.
+     * Customers whose summary has not been built yet are skipped; it will include the row when it is.
+     * @param transaction The saved transaction
+     * @param sourceCustomerId The owner of the source account, or null if there is none
+     * @param destinationCustomerId The owner of the destination account, or null if there is none
+     * @throws SQLException if a database access error occurs
+     */
+    void recordTransaction(Transaction transaction, Integer sourceCustomerId, Integer destinationCustomerId) throws SQLException;
+}
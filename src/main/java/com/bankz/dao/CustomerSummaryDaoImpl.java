@@ -0,0 +1,237 @@
+package com.bankz.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bankz.models.Account;
+import com.bankz.models.CustomerSummary;
+import com.bankz.models.Money;
+import com.bankz.models.Transaction;
+import com.bankz.util.DatabaseManager;
+
+/**
+ * Stores each customer's month-to-date totals in {@code customer_summaries} and the IDs of their newest
+ * transactions in {@code customer_recent_transactions}, so the dashboard reads a few rows by primary key
+ * instead of walking the history of every account.
+ */
+public class CustomerSummaryDaoImpl implements CustomerSummaryDao {
+
+    private static final int DEFAULT_RECENT_LIMIT = 10;
+
+    private final int recentLimit;
+
+    public CustomerSummaryDaoImpl() {
+        this(DEFAULT_RECENT_LIMIT);
+    }
+
+    /**
+     * @param recentLimit How many recent transactions to keep per customer
+     */
+    public CustomerSummaryDaoImpl(int recentLimit) {
+        if (recentLimit < 1) {
+            throw new IllegalArgumentException("Recent transaction limit must be positive");
+        }
+        this.recentLimit = recentLimit;
+    }
+
+    @Override
+    public CustomerSummary findByCustomerId(int customerId, YearMonth month) throws SQLException {
+        String summarySql = "SELECT summary_month, month_inflow, month_outflow FROM customer_summaries WHERE customer_id = ?";
+        String accountsSql = "SELECT * FROM accounts WHERE customer_id = ?";
+        String recentSql = "SELECT t.* FROM customer_recent_transactions r "
+                + "JOIN transactions t ON t.transaction_id = r.transaction_id "
+                + "WHERE r.customer_id = ? ORDER BY r.timestamp DESC, r.transaction_id DESC";
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            Money inflow = Money.ZERO;
+            Money outflow = Money.ZERO;
+            try (PreparedStatement stmt = conn.prepareStatement(summarySql)) {
+                stmt.setInt(1, customerId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    // Totals from an earlier month do not count towards this one
+                    if (month.toString().equals(rs.getString("summary_month"))) {
+                        inflow = Money.ofCents(rs.getLong("month_inflow"));
+                        outflow = Money.ofCents(rs.getLong("month_outflow"));
+                    }
+                }
+            }
+
+            List<Account> accounts = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(accountsSql)) {
+                stmt.setInt(1, customerId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        accounts.add(AccountDaoImpl.mapResultSetToAccount(rs));
+                    }
+                }
+            }
+
+            List<Transaction> recent = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(recentSql)) {
+                stmt.setInt(1, customerId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        recent.add(TransactionDaoImpl.mapResultSetToTransaction(rs));
+                    }
+                }
+            }
+
+            return new CustomerSummary(customerId, accounts, recent, month, inflow, outflow);
+        }
+    }
+
+    @Override
+    public void rebuild(int customerId, YearMonth month) throws SQLException {
+        String customerAccounts = "SELECT account_id FROM accounts WHERE customer_id = ?";
+        String recentSql = "INSERT INTO customer_recent_transactions (customer_id, timestamp, transaction_id) "
+                + "SELECT ?, timestamp, transaction_id FROM ("
+                + "SELECT transaction_id, timestamp FROM transactions WHERE source_account_id IN (" + customerAccounts + ") "
+                + "UNION "
+                + "SELECT transaction_id, timestamp FROM transactions WHERE destination_account_id IN (" + customerAccounts + ") "
+                + "ORDER BY timestamp DESC, transaction_id DESC LIMIT ?)";
+        // Only rows touching the customer's accounts in the month are read, found through the per-account indexes
+        String totalsSql = "SELECT "
+                + "COALESCE(SUM(CASE WHEN d.customer_id = ? AND (s.customer_id IS NULL OR s.customer_id <> ?) THEN t.amount END), 0), "
+                + "COALESCE(SUM(CASE WHEN s.customer_id = ? AND (d.customer_id IS NULL OR d.customer_id <> ?) THEN t.amount END), 0) "
+                + "FROM transactions t "
+                + "LEFT JOIN accounts s ON s.account_id = t.source_account_id "
+                + "LEFT JOIN accounts d ON d.account_id = t.destination_account_id "
+                + "WHERE t.transaction_id IN ("
+                + "SELECT transaction_id FROM transactions WHERE source_account_id IN (" + customerAccounts + ") AND timestamp >= ? AND timestamp < ? "
+                + "UNION "
+                + "SELECT transaction_id FROM transactions WHERE destination_account_id IN (" + customerAccounts + ") AND timestamp >= ? AND timestamp < ?)";
+        String insertSummarySql = "INSERT INTO customer_summaries (customer_id, summary_month, month_inflow, month_outflow) VALUES (?, ?, ?, ?)";
+
+        String monthStart = month.atDay(1).atStartOfDay().toString();
+        String monthEnd = month.plusMonths(1).atDay(1).atStartOfDay().toString();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            deleteSummary(conn, customerId);
+
+            try (PreparedStatement stmt = conn.prepareStatement(recentSql)) {
+                stmt.setInt(1, customerId);
+                stmt.setInt(2, customerId);
+                stmt.setInt(3, customerId);
+                stmt.setInt(4, recentLimit);
+                stmt.executeUpdate();
+            }
+
+            long inflow;
+            long outflow;
+            try (PreparedStatement stmt = conn.prepareStatement(totalsSql)) {
+                stmt.setInt(1, customerId);
+                stmt.setInt(2, customerId);
+                stmt.setInt(3, customerId);
+                stmt.setInt(4, customerId);
+                stmt.setInt(5, customerId);
+                stmt.setString(6, monthStart);
+                stmt.setString(7, monthEnd);
+                stmt.setInt(8, customerId);
+                stmt.setString(9, monthStart);
+                stmt.setString(10, monthEnd);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    inflow = rs.getLong(1);
+                    outflow = rs.getLong(2);
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(insertSummarySql)) {
+                stmt.setInt(1, customerId);
+                stmt.setString(2, month.toString());
+                stmt.setLong(3, inflow);
+                stmt.setLong(4, outflow);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    @Override
+    public void recordTransaction(Transaction transaction, Integer sourceCustomerId, Integer destinationCustomerId) throws SQLException {
+        long amount = transaction.getAmount().getCents();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (sourceCustomerId != null) {
+                boolean internal = sourceCustomerId.equals(destinationCustomerId);
+                apply(conn, sourceCustomerId, transaction, 0L, internal ? 0L : amount);
+            }
+            if (destinationCustomerId != null && !destinationCustomerId.equals(sourceCustomerId)) {
+                apply(conn, destinationCustomerId, transaction, amount, 0L);
+            }
+        }
+    }
+
+    private void apply(Connection conn, int customerId, Transaction transaction, long inflow, long outflow) throws SQLException {
+        String selectSql = "SELECT summary_month, month_inflow, month_outflow FROM customer_summaries WHERE customer_id = ?";
+        String updateSql = "UPDATE customer_summaries SET summary_month = ?, month_inflow = ?, month_outflow = ? WHERE customer_id = ?";
+        String insertRecentSql = "INSERT OR IGNORE INTO customer_recent_transactions (customer_id, timestamp, transaction_id) VALUES (?, ?, ?)";
+        String trimRecentSql = "DELETE FROM customer_recent_transactions WHERE customer_id = ? AND transaction_id NOT IN ("
+                + "SELECT transaction_id FROM customer_recent_transactions WHERE customer_id = ? "
+                + "ORDER BY timestamp DESC, transaction_id DESC LIMIT ?)";
+
+        YearMonth summaryMonth;
+        long monthInflow;
+        long monthOutflow;
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                summaryMonth = YearMonth.parse(rs.getString("summary_month"));
+                monthInflow = rs.getLong("month_inflow");
+                monthOutflow = rs.getLong("month_outflow");
+            }
+        }
+
+        YearMonth transactionMonth = YearMonth.from(transaction.getTimestamp());
+        if (transactionMonth.isAfter(summaryMonth)) {
+            summaryMonth = transactionMonth;
+            monthInflow = inflow;
+            monthOutflow = outflow;
+        } else if (transactionMonth.equals(summaryMonth)) {
+            monthInflow += inflow;
+            monthOutflow += outflow;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            stmt.setString(1, summaryMonth.toString());
+            stmt.setLong(2, monthInflow);
+            stmt.setLong(3, monthOutflow);
+            stmt.setInt(4, customerId);
+            stmt.executeUpdate();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(insertRecentSql)) {
+            stmt.setInt(1, customerId);
+            stmt.setString(2, transaction.getTimestamp().toString());
+            stmt.setInt(3, transaction.getTransactionId());
+            stmt.executeUpdate();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(trimRecentSql)) {
+            stmt.setInt(1, customerId);
+            stmt.setInt(2, customerId);
+            stmt.setInt(3, recentLimit);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void deleteSummary(Connection conn, int customerId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM customer_recent_transactions WHERE customer_id = ?")) {
+            stmt.setInt(1, customerId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM customer_summaries WHERE customer_id = ?")) {
+            stmt.setInt(1, customerId);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -23,4 +23,15 @@ public interface EmployeeDao extends Dao<Employee, Integer> {
      * @throws SQLException if a database access error occurs
      */
     boolean usernameExists(String username) throws SQLException;
+
+    /**
+     * Replaces a employee's password hash, but only if it still holds the expected value,
+     * so a password changed in the meantime is not overwritten
+     * @param employeeId The employee to update
+     * @param expectedHash The hash the caller read
+     * @param newHash The hash to store
+     * @return true if the hash was replaced, false if the employee is gone or its hash has changed
+     * @throws SQLException if a database access error occurs
+     */
+    boolean updatePasswordHash(int employeeId, String expectedHash, String newHash) throws SQLException;
 }
\ No newline at end of file
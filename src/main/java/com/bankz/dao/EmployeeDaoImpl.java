@@ -10,6 +10,19 @@ import java.util.List;
 
 
 public class EmployeeDaoImpl implements EmployeeDao {
+
+    private final UsernameFilter usernameFilter;
+
+    public EmployeeDaoImpl() {
+        this(UsernameFilter.forEmployees());
+    }
+
+    /**
+     * @param usernameFilter Answers {@link #usernameExists(String)} and is told about every saved username
+     */
+    public EmployeeDaoImpl(UsernameFilter usernameFilter) {
+        this.usernameFilter = usernameFilter;
+    }
     
     @Override
     public Employee save(Employee employee) throws SQLException {
@@ -38,8 +51,15 @@ public class EmployeeDaoImpl implements EmployeeDao {
                     throw new SQLException("Creating employee failed, no ID obtained.");
                 }
             }
+        } catch (SQLException e) {
+            if (UsernameFilter.isDuplicateUsername(e)) {
+                // Taken by a writer the filter has not seen, e.g. another process
+                usernameFilter.add(employee.getUsername());
+            }
+            throw e;
         }
-        
+
+        usernameFilter.add(employee.getUsername());
         return employee;
     }
     
@@ -95,7 +115,28 @@ public class EmployeeDaoImpl implements EmployeeDao {
             stmt.setInt(7, employee.getEmployeeId());
             
             int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+            if (affectedRows == 0) {
+                return false;
+            }
+        }
+
+        // The username may have changed
+        usernameFilter.add(employee.getUsername());
+        return true;
+    }
+    
+    @Override
+    public boolean updatePasswordHash(int employeeId, String expectedHash, String newHash) throws SQLException {
+        String sql = "UPDATE employees SET password_hash = ? WHERE employee_id = ? AND password_hash = ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, newHash);
+            stmt.setInt(2, employeeId);
+            stmt.setString(3, expectedHash);
+
+            return stmt.executeUpdate() > 0;
         }
     }
     
@@ -134,24 +175,10 @@ public class EmployeeDaoImpl implements EmployeeDao {
     
     @Override
     public boolean usernameExists(String username) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM employees WHERE username = ?";
-        
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, username);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-        
-        return false;
+        return usernameFilter.exists(username);
     }
     
-    private Employee mapResultSetToEmployee(ResultSet rs) throws SQLException {
+    static Employee mapResultSetToEmployee(ResultSet rs) throws SQLException {
         Employee employee = new Employee();
         employee.setEmployeeId(rs.getInt("employee_id"));
         employee.setFirstName(rs.getString("first_name"));
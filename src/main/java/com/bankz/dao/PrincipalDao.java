@@ -0,0 +1,21 @@
+package com.bankz.dao;
+
+import com.bankz.models.Principal;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * DAO for looking up anyone who can log in, customer or employee, by username
+ */
+public interface PrincipalDao {
+
+    /**
+     * Finds the customer and the employee with a username.
+     * Usernames are only unique within each table, so there can be one of each.
+     * @param username The username to search for
+     * @return The matching {@link com.bankz.models.Customer} first, then the matching
+     *         {@link com.bankz.models.Employee}; empty if neither exists
+     * @throws SQLException if a database access error occurs
+     */
+    List<Principal> findByUsername(String username) throws SQLException;
+}
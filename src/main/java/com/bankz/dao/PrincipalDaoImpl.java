@@ -0,0 +1,51 @@
+package com.bankz.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bankz.models.Principal;
+import com.bankz.util.DatabaseManager;
+
+/**
+ * Resolves a username against {@code customers} and {@code employees} in one statement.
+ * Each half of the {@code UNION ALL} is a lookup on that table's unique username index, and the
+ * columns are named as in the tables so the customer and employee mappers can read the rows.
+ */
+public class PrincipalDaoImpl implements PrincipalDao {
+
+    private static final String FIND_BY_USERNAME_SQL =
+            "SELECT 'customer' AS principal_type, customer_id, NULL AS employee_id, first_name, last_name, username, "
+            + "password_hash, date_created, NULL AS role, NULL AS date_hired FROM customers WHERE username = ? "
+            + "UNION ALL "
+            + "SELECT 'employee', NULL, employee_id, first_name, last_name, username, "
+            + "password_hash, NULL, role, date_hired FROM employees WHERE username = ? "
+            + "ORDER BY principal_type";
+
+    @Override
+    public List<Principal> findByUsername(String username) throws SQLException {
+        List<Principal> principals = new ArrayList<>(1);
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_USERNAME_SQL)) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, username);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if ("customer".equals(rs.getString("principal_type"))) {
+                        principals.add(CustomerDaoImpl.mapResultSetToCustomer(rs));
+                    } else {
+                        principals.add(EmployeeDaoImpl.mapResultSetToEmployee(rs));
+                    }
+                }
+            }
+        }
+
+        return principals;
+    }
+}
@@ -1,6 +1,8 @@
 package com.bankz.dao;
 
 import com.bankz.models.Transaction;
+import com.bankz.models.TransactionCursor;
+import com.bankz.models.TransactionPage;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -17,6 +19,24 @@ public interface TransactionDao extends Dao<Transaction, Integer> {
      */
     List<Transaction> findByAccountId(int accountId) throws SQLException;
     
+    /**
+     * Finds one page of an account's transactions, newest first
+     * @param accountId The ID of the account
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param pageSize The maximum number of transactions to return
+     * @return The page and the cursor for the next one
+     * @throws SQLException if a database access error occurs
+     */
+    TransactionPage findPageByAccountId(int accountId, TransactionCursor after, int pageSize) throws SQLException;
+    
+    /**
+     * Saves a batch of transactions in a single database transaction and assigns their generated IDs
+     * @param transactions The transactions to save
+     * @return The saved transactions, in the same order
+     * @throws SQLException if a database access error occurs; no transaction in the batch is saved
+     */
+    List<Transaction> saveAll(List<Transaction> transactions) throws SQLException;
+    
     /**
      * Finds all transactions between two accounts
      * @param sourceAccountId The ID of the source account
@@ -32,4 +52,21 @@ public interface TransactionDao extends Dao<Transaction, Integer> {
      * @throws SQLException if a database access error occurs
      */
     List<Transaction> findAll() throws SQLException;
+    
+    /**
+     * Finds the highest transaction ID in the system
+     * @return The highest ID, or 0 if there are no transactions
+     * @throws SQLException if a database access error occurs
+     */
+    int findMaxId() throws SQLException;
+    
+    /**
+     * Finds transactions older than the given one, newest (highest ID) first
+     * @param transactionId Only transactions with a lower ID are returned, or null for no bound
+     * @param offset The number of matching transactions to skip
+     * @param limit The maximum number of transactions to return
+     * @return The matching transactions
+     * @throws SQLException if a database access error occurs
+     */
+    List<Transaction> findOlderThan(Integer transactionId, int offset, int limit) throws SQLException;
 }
\ No newline at end of file
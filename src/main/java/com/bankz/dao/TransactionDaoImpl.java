@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.bankz.models.Money;
 import com.bankz.models.Transaction;
+import com.bankz.models.TransactionCursor;
+import com.bankz.models.TransactionPage;
 import com.bankz.util.DatabaseManager;
 
 
@@ -26,7 +29,7 @@ public class TransactionDaoImpl implements TransactionDao {
             stmt.setObject(1, transaction.getSourceAccountId(), Types.INTEGER);
             stmt.setObject(2, transaction.getDestinationAccountId(), Types.INTEGER);
             stmt.setString(3, transaction.getType());
-            stmt.setBigDecimal(4, transaction.getAmount());
+            stmt.setLong(4, transaction.getAmount().getCents());
             stmt.setString(5, transaction.getTimestamp().toString());
             stmt.setString(6, transaction.getDescription());
 
@@ -48,6 +51,52 @@ public class TransactionDaoImpl implements TransactionDao {
         return transaction;
     }
 
+    @Override
+    public List<Transaction> saveAll(List<Transaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+
+        String sql = "INSERT INTO transactions (source_account_id, destination_account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)";
+
+        return DatabaseManager.inTransaction(() -> {
+            try (Connection conn = DatabaseManager.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                for (Transaction transaction : transactions) {
+                    stmt.setObject(1, transaction.getSourceAccountId(), Types.INTEGER);
+                    stmt.setObject(2, transaction.getDestinationAccountId(), Types.INTEGER);
+                    stmt.setString(3, transaction.getType());
+                    stmt.setLong(4, transaction.getAmount().getCents());
+                    stmt.setString(5, transaction.getTimestamp().toString());
+                    stmt.setString(6, transaction.getDescription());
+                    stmt.addBatch();
+                }
+
+                int[] results = stmt.executeBatch();
+                for (int affectedRows : results) {
+                    if (affectedRows == 0) {
+                        throw new SQLException("Creating transactions failed, no rows affected.");
+                    }
+                }
+
+                // The batch runs under the write lock of one transaction, so its AUTOINCREMENT
+                // IDs are consecutive and end at last_insert_rowid().
+                try (Statement idStmt = conn.createStatement();
+                        ResultSet rs = idStmt.executeQuery("SELECT last_insert_rowid()")) {
+                    if (!rs.next()) {
+                        throw new SQLException("Creating transactions failed, no ID obtained.");
+                    }
+                    int firstId = rs.getInt(1) - transactions.size() + 1;
+                    for (int i = 0; i < transactions.size(); i++) {
+                        transactions.get(i).setTransactionId(firstId + i);
+                    }
+                }
+            }
+            return transactions;
+        });
+    }
+
     @Override
     public Transaction findById(Integer id) throws SQLException {
         String sql = "SELECT * FROM transactions WHERE transaction_id = ?";
@@ -84,6 +133,48 @@ public class TransactionDaoImpl implements TransactionDao {
         return transactions;
     }
 
+    @Override
+    public int findMaxId() throws SQLException {
+        // Read from the end of the rowid B-tree, so this does not scan the table
+        String sql = "SELECT COALESCE(MAX(transaction_id), 0) FROM transactions";
+
+        try (Connection conn = DatabaseManager.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Transaction> findOlderThan(Integer transactionId, int offset, int limit) throws SQLException {
+        List<Transaction> transactions = new ArrayList<>();
+        // Walks the rowid B-tree backwards from the bound, so a page next to one already
+        // loaded costs the same however deep into the ledger it is
+        String sql = transactionId == null
+                ? "SELECT * FROM transactions ORDER BY transaction_id DESC LIMIT ? OFFSET ?"
+                : "SELECT * FROM transactions WHERE transaction_id < ? ORDER BY transaction_id DESC LIMIT ? OFFSET ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (transactionId != null) {
+                stmt.setInt(index++, transactionId);
+            }
+            stmt.setInt(index++, limit);
+            stmt.setInt(index, offset);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapResultSetToTransaction(rs));
+                }
+            }
+        }
+
+        return transactions;
+    }
+
     @Override
     public boolean update(Transaction transaction) throws SQLException {
         String sql = "UPDATE transactions SET source_account_id = ?, destination_account_id = ?, type = ?, amount = ?, timestamp = ?, description = ? WHERE transaction_id = ?";
@@ -94,7 +185,7 @@ public class TransactionDaoImpl implements TransactionDao {
             stmt.setObject(1, transaction.getSourceAccountId(), Types.INTEGER);
             stmt.setObject(2, transaction.getDestinationAccountId(), Types.INTEGER);
             stmt.setString(3, transaction.getType());
-            stmt.setBigDecimal(4, transaction.getAmount());
+            stmt.setLong(4, transaction.getAmount().getCents());
             stmt.setString(5, transaction.getTimestamp().toString());
             stmt.setString(6, transaction.getDescription());
             stmt.setInt(7, transaction.getTransactionId());
@@ -121,13 +212,18 @@ public class TransactionDaoImpl implements TransactionDao {
     @Override
     public List<Transaction> findByAccountId(int accountId) throws SQLException {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE source_account_id = ? OR destination_account_id = ?";
+        // Two index range scans instead of an OR that forces a full table scan.
+        // The second branch skips rows already returned by the first (self-transfers).
+        String sql = "SELECT * FROM transactions WHERE source_account_id = ? "
+                + "UNION ALL "
+                + "SELECT * FROM transactions WHERE destination_account_id = ? AND source_account_id IS NOT ?";
 
         try (Connection conn = DatabaseManager.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, accountId);
             stmt.setInt(2, accountId);
+            stmt.setInt(3, accountId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -139,10 +235,66 @@ public class TransactionDaoImpl implements TransactionDao {
         return transactions;
     }
 
+    @Override
+    public TransactionPage findPageByAccountId(int accountId, TransactionCursor after, int pageSize) throws SQLException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        // Keyset pagination: each branch walks its (account, timestamp) index backwards from the
+        // cursor and stops after one page, so the cost does not depend on how deep the page is.
+        // One extra row is fetched to tell whether another page follows.
+        String keyset = after == null ? "" : "AND (timestamp, transaction_id) < (?, ?) ";
+        String sql = "SELECT * FROM ("
+                + "SELECT * FROM (SELECT * FROM transactions WHERE source_account_id = ? " + keyset
+                + "ORDER BY timestamp DESC, transaction_id DESC LIMIT ?) "
+                + "UNION ALL "
+                + "SELECT * FROM (SELECT * FROM transactions WHERE destination_account_id = ? AND source_account_id IS NOT ? " + keyset
+                + "ORDER BY timestamp DESC, transaction_id DESC LIMIT ?)"
+                + ") ORDER BY timestamp DESC, transaction_id DESC LIMIT ?";
+
+        List<Transaction> transactions = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, accountId);
+            if (after != null) {
+                stmt.setString(index++, after.getTimestamp().toString());
+                stmt.setInt(index++, after.getTransactionId());
+            }
+            stmt.setInt(index++, pageSize + 1);
+            stmt.setInt(index++, accountId);
+            stmt.setInt(index++, accountId);
+            if (after != null) {
+                stmt.setString(index++, after.getTimestamp().toString());
+                stmt.setInt(index++, after.getTransactionId());
+            }
+            stmt.setInt(index++, pageSize + 1);
+            stmt.setInt(index, pageSize + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapResultSetToTransaction(rs));
+                }
+            }
+        }
+
+        TransactionCursor nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions.remove(pageSize);
+            nextCursor = TransactionCursor.of(transactions.get(pageSize - 1));
+        }
+        return new TransactionPage(transactions, nextCursor);
+    }
+
     @Override
     public List<Transaction> findByAccounts(int sourceAccountId, int destinationAccountId) throws SQLException {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE (source_account_id = ? AND destination_account_id = ?) OR (source_account_id = ? AND destination_account_id = ?)";
+        String sql = "SELECT * FROM transactions WHERE source_account_id = ? AND destination_account_id = ? "
+                + "UNION ALL "
+                + "SELECT * FROM transactions WHERE source_account_id = ? AND destination_account_id = ? "
+                + "AND source_account_id <> destination_account_id";
 
         try (Connection conn = DatabaseManager.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -162,7 +314,7 @@ public class TransactionDaoImpl implements TransactionDao {
         return transactions;
     }
 
-    private Transaction mapResultSetToTransaction(ResultSet rs) throws SQLException {
+    static Transaction mapResultSetToTransaction(ResultSet rs) throws SQLException {
         Transaction transaction = new Transaction();
         transaction.setTransactionId(rs.getInt("transaction_id"));
 
@@ -191,7 +343,7 @@ public class TransactionDaoImpl implements TransactionDao {
         }
 
         transaction.setType(rs.getString("type"));
-        transaction.setAmount(rs.getBigDecimal("amount"));
+        transaction.setAmount(Money.ofCents(rs.getLong("amount")));
         transaction.setTimestamp(LocalDateTime.parse(rs.getString("timestamp")));
         transaction.setDescription(rs.getString("description"));
         return transaction;
@@ -0,0 +1,259 @@
+package com.bankz.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bankz.util.BloomFilter;
+import com.bankz.util.ConnectionPool;
+import com.bankz.util.DatabaseManager;
+import com.bankz.util.MetricsRegistry;
+
+/**
+ * A {@link BloomFilter} of the usernames in one table, so a username that is definitely free is
+ * answered without a query. Only a possible match goes to the database.
+ * <p>
+ * The filter is built from the table on first use and again whenever the connection pool is replaced
+ * (i.e. the database changed), it has been {@link #invalidate() invalidated}, or more usernames
+ * have been added than it was sized for. The DAO adds each username it saves. Deleted or renamed
+ * usernames stay in the filter and only cost an extra query until the next rebuild. The table's
+ * UNIQUE constraint remains the real guard against duplicates.
+ * <p>
+ * The filter assumes this process is the only writer. A username inserted by another process is not
+ * in it, so {@code usernameExists} can wrongly report that name as free until the next rebuild. The
+ * insert then fails on the UNIQUE constraint; {@link #isDuplicateUsername(SQLException)} recognises
+ * that failure so callers can report the name as taken.
+ */
+public class UsernameFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static UsernameFilter customers;
+    private static UsernameFilter employees;
+
+    private final String table;
+    private BloomFilter filter;
+    private ConnectionPool builtFor;
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder possibleHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    /**
+     * @param table The table whose {@code username} column to track
+     */
+    UsernameFilter(String table) {
+        this.table = table;
+    }
+
+    public static synchronized UsernameFilter forCustomers() {
+        if (customers == null) {
+            customers = new UsernameFilter("customers");
+            customers.registerGauges("usernameFilter.customers");
+        }
+        return customers;
+    }
+
+    public static synchronized UsernameFilter forEmployees() {
+        if (employees == null) {
+            employees = new UsernameFilter("employees");
+            employees.registerGauges("usernameFilter.employees");
+        }
+        return employees;
+    }
+
+    /**
+     * Checks whether a username is taken, querying only when the filter cannot rule it out
+     */
+    public boolean exists(String username) throws SQLException {
+        if (!current().mightContain(username)) {
+            definiteMisses.increment();
+            return false;
+        }
+        possibleHits.increment();
+        boolean exists = existsInTable(username);
+        if (!exists) {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Records a username that has just been saved
+     */
+    public synchronized void add(String username) throws SQLException {
+        BloomFilter target = current();
+        if (target.mightContain(username)) {
+            // Already present, or indistinguishable from a present one; either way nothing to add
+            return;
+        }
+        target.put(username);
+        if (target.getInsertions() > target.getExpectedInsertions()) {
+            // Past its size the false positive rate climbs quickly
+            filter = null;
+        }
+    }
+
+    /**
+     * True if a statement was refused by a table's UNIQUE constraint on {@code username}
+     */
+    public static boolean isDuplicateUsername(SQLException e) {
+        String message = e.getMessage();
+        return message != null && message.contains("UNIQUE constraint failed") && message.contains(".username");
+    }
+
+    /**
+     * Marks the filter stale, e.g. after rows were written without going through the DAO; it is rebuilt on next use
+     */
+    public synchronized void invalidate() {
+        filter = null;
+    }
+
+    /**
+     * Builds the filter from the table now
+     */
+    public synchronized void rebuild() throws SQLException {
+        ConnectionPool pool = DatabaseManager.getPool();
+        List<String> usernames = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT username FROM " + table);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                usernames.add(rs.getString(1));
+            }
+        }
+
+        // Room to grow to twice the current size before the next rebuild
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, usernames.size() * 2L), FALSE_POSITIVE_RATE);
+        for (String username : usernames) {
+            rebuilt.put(username);
+        }
+        filter = rebuilt;
+        builtFor = pool;
+        rebuilds.increment();
+    }
+
+    public Stats getStats() {
+        BloomFilter current;
+        synchronized (this) {
+            current = filter;
+        }
+        return new Stats(definiteMisses.sum(), possibleHits.sum(), falsePositives.sum(), rebuilds.sum(),
+                current == null ? 0 : current.getInsertions(),
+                current == null ? 0.0 : current.getEstimatedFalsePositiveRate());
+    }
+
+    private synchronized BloomFilter current() throws SQLException {
+        if (filter == null || builtFor != DatabaseManager.getPool()) {
+            rebuild();
+        }
+        return filter;
+    }
+
+    private boolean existsInTable(String username) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM " + table + " WHERE username = ?)";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void registerGauges(String prefix) {
+        if (!MetricsRegistry.isEnabled()) {
+            return;
+        }
+        MetricsRegistry metrics = MetricsRegistry.getShared();
+        metrics.gauge(prefix + ".definiteMisses", definiteMisses::sum);
+        metrics.gauge(prefix + ".possibleHits", possibleHits::sum);
+        metrics.gauge(prefix + ".falsePositives", falsePositives::sum);
+        metrics.gauge(prefix + ".rebuilds", rebuilds::sum);
+        metrics.gauge(prefix + ".size", () -> getStats().getSize());
+        // Gauges are whole numbers, so rates are in parts per million
+        metrics.gauge(prefix + ".observedFalsePositivePpm", () -> Math.round(getStats().getObservedFalsePositiveRate() * 1_000_000));
+        metrics.gauge(prefix + ".estimatedFalsePositivePpm", () -> Math.round(getStats().getEstimatedFalsePositiveRate() * 1_000_000));
+    }
+
+    /**
+     * Counters since start-up
+     */
+    public static class Stats {
+        private final long definiteMisses;
+        private final long possibleHits;
+        private final long falsePositives;
+        private final long rebuilds;
+        private final long size;
+        private final double estimatedFalsePositiveRate;
+
+        Stats(long definiteMisses, long possibleHits, long falsePositives, long rebuilds, long size,
+                double estimatedFalsePositiveRate) {
+            this.definiteMisses = definiteMisses;
+            this.possibleHits = possibleHits;
+            this.falsePositives = falsePositives;
+            this.rebuilds = rebuilds;
+            this.size = size;
+            this.estimatedFalsePositiveRate = estimatedFalsePositiveRate;
+        }
+
+        /**
+         * Checks answered without a query
+         */
+        public long getDefiniteMisses() {
+            return definiteMisses;
+        }
+
+        /**
+         * Checks that went to the database
+         */
+        public long getPossibleHits() {
+            return possibleHits;
+        }
+
+        /**
+         * Checks that went to the database and found the username free
+         */
+        public long getFalsePositives() {
+            return falsePositives;
+        }
+
+        public long getRebuilds() {
+            return rebuilds;
+        }
+
+        /**
+         * Usernames added to the current filter
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Share of checks for free usernames that still went to the database
+         */
+        public double getObservedFalsePositiveRate() {
+            long free = definiteMisses + falsePositives;
+            return free == 0 ? 0.0 : (double) falsePositives / free;
+        }
+
+        public double getEstimatedFalsePositiveRate() {
+            return estimatedFalsePositiveRate;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{definiteMisses=" + definiteMisses + ", possibleHits=" + possibleHits
+                    + ", falsePositives=" + falsePositives + ", rebuilds=" + rebuilds + ", size=" + size
+                    + ", estimatedFalsePositiveRate=" + estimatedFalsePositiveRate + "}";
+        }
+    }
+}
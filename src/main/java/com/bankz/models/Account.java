@@ -1,6 +1,5 @@
 package com.bankz.models;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class Account {
@@ -8,12 +7,12 @@ public class Account {
     private int customerId;
     private String accountNumber;
     private String accountType;
-    private BigDecimal balance;
+    private Money balance;
     private LocalDateTime dateOpened;
     private String status;
     
     public Account() {
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
         this.status = "ACTIVE";
     }
     
@@ -21,13 +20,13 @@ public class Account {
         this.customerId = customerId;
         this.accountNumber = accountNumber;
         this.accountType = accountType;
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
         this.dateOpened = LocalDateTime.now();
         this.status = "ACTIVE";
     }
     
     public Account(int accountId, int customerId, String accountNumber, String accountType, 
-                  BigDecimal balance, LocalDateTime dateOpened, String status) {
+                  Money balance, LocalDateTime dateOpened, String status) {
         this.accountId = accountId;
         this.customerId = customerId;
         this.accountNumber = accountNumber;
@@ -70,11 +69,11 @@ public class Account {
         this.accountType = accountType;
     }
     
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
     
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
     
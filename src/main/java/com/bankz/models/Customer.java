@@ -2,7 +2,7 @@ package com.bankz.models;
 
 import java.time.LocalDateTime;
 
-public class Customer {
+public class Customer implements Principal {
     private int customerId;
     private String firstName;
     private String lastName;
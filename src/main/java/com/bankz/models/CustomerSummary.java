@@ -0,0 +1,76 @@
+package com.bankz.models;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything the customer dashboard shows at a glance: the customer's accounts, their most recent
+ * transactions across all of them, and money moved in and out of the customer's accounts this month.
+ * Transfers between two of the customer's own accounts count as neither inflow nor outflow.
+ */
+public class CustomerSummary {
+    private final int customerId;
+    private final List<Account> accounts;
+    private final List<Transaction> recentTransactions;
+    private final YearMonth month;
+    private final Money monthInflow;
+    private final Money monthOutflow;
+
+    public CustomerSummary(int customerId, List<Account> accounts, List<Transaction> recentTransactions,
+                           YearMonth month, Money monthInflow, Money monthOutflow) {
+        this.customerId = customerId;
+        this.accounts = Collections.unmodifiableList(accounts);
+        this.recentTransactions = Collections.unmodifiableList(recentTransactions);
+        this.month = month;
+        this.monthInflow = monthInflow;
+        this.monthOutflow = monthOutflow;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Returns the newest transactions across all of the customer's accounts, newest first
+     */
+    public List<Transaction> getRecentTransactions() {
+        return recentTransactions;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public Money getMonthInflow() {
+        return monthInflow;
+    }
+
+    public Money getMonthOutflow() {
+        return monthOutflow;
+    }
+
+    public Money getTotalBalance() {
+        Money total = Money.ZERO;
+        for (Account account : accounts) {
+            total = total.plus(account.getBalance());
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerSummary{" +
+                "customerId=" + customerId +
+                ", accounts=" + accounts.size() +
+                ", totalBalance=" + getTotalBalance() +
+                ", month=" + month +
+                ", monthInflow=" + monthInflow +
+                ", monthOutflow=" + monthOutflow +
+                '}';
+    }
+}
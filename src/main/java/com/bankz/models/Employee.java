@@ -2,7 +2,7 @@ package com.bankz.models;
 
 import java.time.LocalDateTime;
 
-public class Employee {
+public class Employee implements Principal {
     private int employeeId;
     private String firstName;
     private String lastName;
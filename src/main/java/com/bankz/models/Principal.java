@@ -0,0 +1,17 @@
+package com.bankz.models;
+
+/**
+ * Someone who can log in: a {@link Customer} or an {@link Employee}
+ */
+public interface Principal {
+
+    String getUsername();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getPasswordHash();
+
+    void setPasswordHash(String passwordHash);
+}
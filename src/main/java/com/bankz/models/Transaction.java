@@ -1,6 +1,5 @@
 package com.bankz.models;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class Transaction {
@@ -8,7 +7,7 @@ public class Transaction {
     private Integer sourceAccountId;  // Can be null for deposits
     private Integer destinationAccountId;  // Can be null for withdrawals
     private String type;  // DEPOSIT, WITHDRAWAL, TRANSFER
-    private BigDecimal amount;
+    private Money amount;
     private LocalDateTime timestamp;
     private String description;
     
@@ -18,7 +17,7 @@ public class Transaction {
     }
     
     public Transaction(Integer sourceAccountId, Integer destinationAccountId, String type, 
-                      BigDecimal amount, String description) {
+                      Money amount, String description) {
         this.sourceAccountId = sourceAccountId;
         this.destinationAccountId = destinationAccountId;
         this.type = type;
@@ -28,7 +27,7 @@ public class Transaction {
     }
     
     public Transaction(int transactionId, Integer sourceAccountId, Integer destinationAccountId, 
-                      String type, BigDecimal amount, LocalDateTime timestamp, String description) {
+                      String type, Money amount, LocalDateTime timestamp, String description) {
         this.transactionId = transactionId;
         this.sourceAccountId = sourceAccountId;
         this.destinationAccountId = destinationAccountId;
@@ -71,11 +70,11 @@ public class Transaction {
         this.type = type;
     }
     
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
     
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
     
@@ -0,0 +1,54 @@
+package com.bankz.models;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Position in a transaction history ordered newest first.
+ * A page requested with a cursor starts at the first transaction strictly older than it.
+ */
+public class TransactionCursor {
+    private final LocalDateTime timestamp;
+    private final int transactionId;
+    
+    public TransactionCursor(LocalDateTime timestamp, int transactionId) {
+        this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+        this.transactionId = transactionId;
+    }
+    
+    /**
+     * Returns the cursor positioned at the given transaction
+     */
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getTimestamp(), transaction.getTransactionId());
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getTransactionId() {
+        return transactionId;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransactionCursor)) return false;
+        TransactionCursor that = (TransactionCursor) o;
+        return transactionId == that.transactionId && timestamp.equals(that.timestamp);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, transactionId);
+    }
+    
+    @Override
+    public String toString() {
+        return "TransactionCursor{" +
+                "timestamp=" + timestamp +
+                ", transactionId=" + transactionId +
+                '}';
+    }
+}
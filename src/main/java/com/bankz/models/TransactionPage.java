@@ -0,0 +1,40 @@
+package com.bankz.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a transaction history, newest first, with the cursor for the page after it
+ */
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final TransactionCursor nextCursor;
+    
+    public TransactionPage(List<Transaction> transactions, TransactionCursor nextCursor) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+    
+    /**
+     * Returns the cursor for the next page, or null if this is the last page
+     */
+    public TransactionCursor getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+    
+    @Override
+    public String toString() {
+        return "TransactionPage{" +
+                "size=" + transactions.size() +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
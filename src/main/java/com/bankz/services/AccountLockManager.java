@@ -0,0 +1,196 @@
+package com.bankz.services;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by account ID.
+ * Operations on accounts that map to different stripes never block each other, and
+ * two-account operations always lock their stripes in ascending order so they cannot deadlock.
+ * The stripe count is set with the {@code account.lock.stripes} system property and rounded up to a power of two.
+ */
+public class AccountLockManager {
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final AccountLockManager SHARED =
+            new AccountLockManager(Integer.getInteger("account.lock.stripes", DEFAULT_STRIPES));
+
+    private final ReentrantLock[] locks;
+    private final LongAdder[] acquisitions;
+    private final LongAdder[] contended;
+    private final LongAdder[] waitNanos;
+    private final int mask;
+
+    public AccountLockManager(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be at least 1");
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.locks = new ReentrantLock[size];
+        this.acquisitions = new LongAdder[size];
+        this.contended = new LongAdder[size];
+        this.waitNanos = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+            acquisitions[i] = new LongAdder();
+            contended[i] = new LongAdder();
+            waitNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the process-wide lock manager shared by all account services
+     */
+    public static AccountLockManager getShared() {
+        return SHARED;
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+
+    /**
+     * Locks the stripe guarding a single account
+     * @param accountId The ID of the account
+     * @return A handle that releases the lock when closed
+     */
+    public LockHandle lock(int accountId) {
+        int stripe = stripeFor(accountId);
+        acquire(stripe);
+        return new LockHandle(this, stripe, -1);
+    }
+
+    /**
+     * Locks the stripes guarding two accounts in a deterministic order
+     * @param firstAccountId The ID of one account
+     * @param secondAccountId The ID of the other account
+     * @return A handle that releases both locks when closed
+     */
+    public LockHandle lockBoth(int firstAccountId, int secondAccountId) {
+        int first = stripeFor(firstAccountId);
+        int second = stripeFor(secondAccountId);
+        if (first == second) {
+            acquire(first);
+            return new LockHandle(this, first, -1);
+        }
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        acquire(low);
+        try {
+            acquire(high);
+        } catch (RuntimeException | Error e) {
+            locks[low].unlock();
+            throw e;
+        }
+        return new LockHandle(this, high, low);
+    }
+
+    /**
+     * Returns per-stripe acquisition and contention counters
+     */
+    public StripeStats[] getStats() {
+        StripeStats[] stats = new StripeStats[locks.length];
+        for (int i = 0; i < locks.length; i++) {
+            stats[i] = new StripeStats(i, acquisitions[i].sum(), contended[i].sum(), waitNanos[i].sum());
+        }
+        return stats;
+    }
+
+    int stripeFor(int accountId) {
+        // Spread sequential IDs across stripes
+        int h = accountId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void acquire(int stripe) {
+        ReentrantLock lock = locks[stripe];
+        acquisitions[stripe].increment();
+        if (lock.tryLock()) {
+            return;
+        }
+        contended[stripe].increment();
+        long start = System.nanoTime();
+        lock.lock();
+        waitNanos[stripe].add(System.nanoTime() - start);
+    }
+
+    private void release(int stripe) {
+        locks[stripe].unlock();
+    }
+
+    /**
+     * Releases the stripes taken by {@link #lock(int)} or {@link #lockBoth(int, int)}
+     */
+    public static final class LockHandle implements AutoCloseable {
+        private final AccountLockManager manager;
+        private final int first;
+        private final int second;
+        private boolean released;
+
+        private LockHandle(AccountLockManager manager, int first, int second) {
+            this.manager = manager;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            manager.release(first);
+            if (second >= 0) {
+                manager.release(second);
+            }
+        }
+    }
+
+    /**
+     * Counters for one stripe
+     */
+    public static final class StripeStats {
+        private final int stripe;
+        private final long acquisitions;
+        private final long contended;
+        private final long waitNanos;
+
+        StripeStats(int stripe, long acquisitions, long contended, long waitNanos) {
+            this.stripe = stripe;
+            this.acquisitions = acquisitions;
+            this.contended = contended;
+            this.waitNanos = waitNanos;
+        }
+
+        public int getStripe() {
+            return stripe;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getContended() {
+            return contended;
+        }
+
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        public double getContentionRatio() {
+            return acquisitions == 0 ? 0.0 : (double) contended / acquisitions;
+        }
+
+        @Override
+        public String toString() {
+            return "StripeStats{" +
+                    "stripe=" + stripe +
+                    ", acquisitions=" + acquisitions +
+                    ", contended=" + contended +
+                    ", waitNanos=" + waitNanos +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankz.services;
+
+import com.bankz.models.Money;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one deposit, withdrawal or transfer, from the service call to its commit.
+ * Amounts are recorded as a bucket rather than the exact value so recordings can be shared.
+ * When the event is disabled, {@link #start} and {@link #finish} cost next to nothing.
+ */
+@Name("com.bankz.AccountOperation")
+@Label("Account Operation")
+@Category({ "Bank-Z", "Accounts" })
+@Description("A deposit, withdrawal or transfer through AccountService")
+@StackTrace(false)
+class AccountOperationEvent extends Event {
+
+    static final String OK = "OK";
+    static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+    static final String REJECTED = "REJECTED";
+    static final String FAILED = "FAILED";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Source Account ID")
+    @Description("0 for a deposit")
+    int sourceAccountId;
+
+    @Label("Destination Account ID")
+    @Description("0 for a withdrawal")
+    int destinationAccountId;
+
+    @Label("Amount Bucket")
+    @Description("Order of magnitude of the amount in dollars")
+    String amountBucket;
+
+    @Label("Outcome")
+    @Description("OK, INSUFFICIENT_FUNDS, REJECTED (invalid request) or FAILED (database error)")
+    String outcome;
+
+    static AccountOperationEvent start(String operation, int sourceAccountId, int destinationAccountId, Money amount) {
+        AccountOperationEvent event = new AccountOperationEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.sourceAccountId = sourceAccountId;
+            event.destinationAccountId = destinationAccountId;
+            event.amountBucket = amount == null ? null : bucketOf(amount);
+            event.begin();
+        }
+        return event;
+    }
+
+    void finish(String outcome) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    /**
+     * Finishes the event with the outcome matching an exception the operation threw
+     */
+    void fail(Throwable error) {
+        if (error instanceof InsufficientFundsException) {
+            finish(INSUFFICIENT_FUNDS);
+        } else if (error instanceof IllegalArgumentException) {
+            finish(REJECTED);
+        } else {
+            finish(FAILED);
+        }
+    }
+
+    static String bucketOf(Money amount) {
+        long dollars = amount.getCents() / 100;
+        if (dollars < 1) {
+            return "<1";
+        }
+        if (dollars < 10) {
+            return "1-10";
+        }
+        if (dollars < 100) {
+            return "10-100";
+        }
+        if (dollars < 1_000) {
+            return "100-1k";
+        }
+        if (dollars < 10_000) {
+            return "1k-10k";
+        }
+        if (dollars < 100_000) {
+            return "10k-100k";
+        }
+        return ">=100k";
+    }
+}
@@ -1,9 +1,12 @@
 package com.bankz.services;
 
 import com.bankz.models.Account;
+import com.bankz.models.CustomerSummary;
+import com.bankz.models.Money;
 import com.bankz.models.Transaction;
+import com.bankz.models.TransactionCursor;
+import com.bankz.models.TransactionPage;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -33,7 +36,7 @@ public interface AccountService {
      * @param description Optional description of the deposit
      * @return The updated account
      */
-    Account deposit(int accountId, BigDecimal amount, String description);
+    Account deposit(int accountId, Money amount, String description);
     
     /**
      * Withdraws money from an account
@@ -43,7 +46,7 @@ public interface AccountService {
      * @return The updated account
      * @throws InsufficientFundsException if the account has insufficient funds
      */
-    Account withdraw(int accountId, BigDecimal amount, String description) throws InsufficientFundsException;
+    Account withdraw(int accountId, Money amount, String description) throws InsufficientFundsException;
     
     /**
      * Transfers money between accounts
@@ -54,7 +57,7 @@ public interface AccountService {
      * @return true if the transfer was successful, false otherwise
      * @throws InsufficientFundsException if the source account has insufficient funds
      */
-    boolean transfer(int sourceAccountId, int destinationAccountId, BigDecimal amount, String description) throws InsufficientFundsException;
+    boolean transfer(int sourceAccountId, int destinationAccountId, Money amount, String description) throws InsufficientFundsException;
     
     /**
      * Gets transaction history for an account
@@ -63,6 +66,22 @@ public interface AccountService {
      */
     List<Transaction> getTransactionHistory(int accountId);
     
+    /**
+     * Gets one page of transaction history for an account, newest first
+     * @param accountId The ID of the account
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param pageSize The maximum number of transactions to return
+     * @return The page and the cursor for the next one
+     */
+    TransactionPage getTransactionHistoryPage(int accountId, TransactionCursor after, int pageSize);
+    
+    /**
+     * Gets the dashboard summary for a customer, building it on the first request
+     * @param customerId The ID of the customer
+     * @return The customer's accounts, recent transactions and month-to-date inflow and outflow
+     */
+    CustomerSummary getCustomerSummary(int customerId);
+    
     /**
      * Gets an account by its account number
      * @param accountNumber The account number
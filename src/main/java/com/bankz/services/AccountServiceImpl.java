@@ -1,23 +1,62 @@
 package com.bankz.services;
 
 import com.bankz.dao.AccountDao;
+import com.bankz.dao.CustomerSummaryDao;
+import com.bankz.dao.CustomerSummaryDaoImpl;
 import com.bankz.dao.TransactionDao;
 import com.bankz.models.Account;
+import com.bankz.models.CustomerSummary;
+import com.bankz.models.Money;
 import com.bankz.models.Transaction;
+import com.bankz.models.TransactionCursor;
+import com.bankz.models.TransactionPage;
+import com.bankz.util.DatabaseManager;
+import com.bankz.util.Instrumented;
 
-import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class AccountServiceImpl implements AccountService {
     
     private final AccountDao accountDao;
     private final TransactionDao transactionDao;
+    private final CustomerSummaryDao customerSummaryDao;
+    private final AccountLockManager lockManager;
+    private final GroupCommitWriter groupCommitWriter;
     
     public AccountServiceImpl(AccountDao accountDao, TransactionDao transactionDao) {
+        this(accountDao, transactionDao, AccountLockManager.getShared(), GroupCommitWriter.getSharedIfEnabled());
+    }
+    
+    public AccountServiceImpl(AccountDao accountDao, TransactionDao transactionDao, AccountLockManager lockManager) {
+        this(accountDao, transactionDao, lockManager, null);
+    }
+    
+    /**
+     * @param groupCommitWriter Writer that deposits and withdrawals are routed through, or null to commit each one individually
+     */
+    public AccountServiceImpl(AccountDao accountDao, TransactionDao transactionDao, AccountLockManager lockManager,
+                              GroupCommitWriter groupCommitWriter) {
+        this(accountDao, transactionDao, Instrumented.wrap(CustomerSummaryDao.class, new CustomerSummaryDaoImpl()), lockManager, groupCommitWriter);
+    }
+    
+    /**
+     * @param customerSummaryDao Summaries updated in the same transaction as every posting
+     * @param groupCommitWriter Writer that deposits and withdrawals are routed through, or null to commit each one individually
+     */
+    public AccountServiceImpl(AccountDao accountDao, TransactionDao transactionDao, CustomerSummaryDao customerSummaryDao,
+                              AccountLockManager lockManager, GroupCommitWriter groupCommitWriter) {
         this.accountDao = accountDao;
         this.transactionDao = transactionDao;
+        this.customerSummaryDao = customerSummaryDao;
+        this.lockManager = lockManager;
+        this.groupCommitWriter = groupCommitWriter;
     }
     
     @Override
@@ -44,55 +83,48 @@ public class AccountServiceImpl implements AccountService {
     }
     
     @Override
-    public Account deposit(int accountId, BigDecimal amount, String description) {
+    public Account deposit(int accountId, Money amount, String description) {
+        AccountOperationEvent event = AccountOperationEvent.start("DEPOSIT", 0, accountId, amount);
         try {
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Deposit amount must be positive");
-            }
-            
-            Account account = accountDao.findById(accountId);
-            if (account == null) {
-                throw new IllegalArgumentException("Account not found");
-            }
-            
-            BigDecimal newBalance = account.getBalance().add(amount);
-            account.setBalance(newBalance);
-            accountDao.update(account);
-            
-            Transaction transaction = new Transaction(null, accountId, "DEPOSIT", amount, description);
-            transactionDao.save(transaction);
-            
+            Account account = executeDeposit(accountId, amount, description);
+            event.finish(account != null ? AccountOperationEvent.OK : AccountOperationEvent.FAILED);
             return account;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
+        } catch (RuntimeException e) {
+            event.fail(e);
+            throw e;
         }
     }
     
     @Override
-    public Account withdraw(int accountId, BigDecimal amount, String description) throws InsufficientFundsException {
+    public Account withdraw(int accountId, Money amount, String description) throws InsufficientFundsException {
+        AccountOperationEvent event = AccountOperationEvent.start("WITHDRAWAL", accountId, 0, amount);
         try {
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Withdrawal amount must be positive");
-            }
-            
-            Account account = accountDao.findById(accountId);
-            if (account == null) {
-                throw new IllegalArgumentException("Account not found");
-            }
-            
-            if (account.getBalance().compareTo(amount) < 0) {
-                throw new InsufficientFundsException("Insufficient funds in account. Available balance: $" + account.getBalance());
-            }
-            
-            BigDecimal newBalance = account.getBalance().subtract(amount);
-            account.setBalance(newBalance);
-            accountDao.update(account);
-            
-            Transaction transaction = new Transaction(accountId, null, "WITHDRAWAL", amount, description);
-            transactionDao.save(transaction);
-            
+            Account account = executeWithdrawal(accountId, amount, description);
+            event.finish(account != null ? AccountOperationEvent.OK : AccountOperationEvent.FAILED);
             return account;
+        } catch (InsufficientFundsException | RuntimeException e) {
+            event.fail(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public boolean transfer(int sourceAccountId, int destinationAccountId, Money amount, String description) throws InsufficientFundsException {
+        AccountOperationEvent event = AccountOperationEvent.start("TRANSFER", sourceAccountId, destinationAccountId, amount);
+        try {
+            boolean transferred = executeTransfer(sourceAccountId, destinationAccountId, amount, description);
+            event.finish(transferred ? AccountOperationEvent.OK : AccountOperationEvent.FAILED);
+            return transferred;
+        } catch (InsufficientFundsException | RuntimeException e) {
+            event.fail(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId) {
+        try {
+            return transactionDao.findByAccountId(accountId);
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
@@ -100,46 +132,29 @@ public class AccountServiceImpl implements AccountService {
     }
     
     @Override
-    public boolean transfer(int sourceAccountId, int destinationAccountId, BigDecimal amount, String description) throws InsufficientFundsException {
+    public TransactionPage getTransactionHistoryPage(int accountId, TransactionCursor after, int pageSize) {
         try {
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Transfer amount must be positive");
-            }
-            
-            Account sourceAccount = accountDao.findById(sourceAccountId);
-            Account destinationAccount = accountDao.findById(destinationAccountId);
-            
-            if (sourceAccount == null || destinationAccount == null) {
-                throw new IllegalArgumentException("One or both accounts not found");
-            }
-            
-            if (sourceAccount.getBalance().compareTo(amount) < 0) {
-                throw new InsufficientFundsException("Insufficient funds in source account. Available balance: $" + sourceAccount.getBalance());
-            }
-            
-            BigDecimal newSourceBalance = sourceAccount.getBalance().subtract(amount);
-            BigDecimal newDestinationBalance = destinationAccount.getBalance().add(amount);
-            
-            sourceAccount.setBalance(newSourceBalance);
-            destinationAccount.setBalance(newDestinationBalance);
-            
-            accountDao.update(sourceAccount);
-            accountDao.update(destinationAccount);
-            
-            Transaction transaction = new Transaction(sourceAccountId, destinationAccountId, "TRANSFER", amount, description);
-            transactionDao.save(transaction);
-            
-            return true;
+            return transactionDao.findPageByAccountId(accountId, after, pageSize);
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
     
     @Override
-    public List<Transaction> getTransactionHistory(int accountId) {
+    public CustomerSummary getCustomerSummary(int customerId) {
         try {
-            return transactionDao.findByAccountId(accountId);
+            YearMonth month = YearMonth.now();
+            CustomerSummary summary = customerSummaryDao.findByCustomerId(customerId, month);
+            if (summary != null) {
+                return summary;
+            }
+            
+            // First visit: build it from the ledger under the write lock so no posting is missed
+            return DatabaseManager.inTransaction(() -> {
+                customerSummaryDao.rebuild(customerId, month);
+                return customerSummaryDao.findByCustomerId(customerId, month);
+            });
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
@@ -158,14 +173,17 @@ public class AccountServiceImpl implements AccountService {
     
     @Override
     public boolean freezeAccount(int accountId) {
-        try {
-            Account account = accountDao.findById(accountId);
-            if (account == null) {
-                return false;
-            }
-            
-            account.setStatus("FROZEN");
-            return accountDao.update(account);
+        try (AccountLockManager.LockHandle lock = lockManager.lock(accountId)) {
+            // Read and rewrite the row under the write lock so a queued deposit cannot be overwritten
+            return DatabaseManager.inTransaction(() -> {
+                Account account = accountDao.findById(accountId);
+                if (account == null) {
+                    return false;
+                }
+                
+                account.setStatus("FROZEN");
+                return accountDao.update(account);
+            });
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -174,20 +192,163 @@ public class AccountServiceImpl implements AccountService {
     
     @Override
     public boolean closeAccount(int accountId) {
+        try (AccountLockManager.LockHandle lock = lockManager.lock(accountId)) {
+            return DatabaseManager.inTransaction(() -> {
+                Account account = accountDao.findById(accountId);
+                if (account == null) {
+                    return false;
+                }
+                
+                account.setStatus("CLOSED");
+                return accountDao.update(account);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    private Account executeDeposit(int accountId, Money amount, String description) {
         try {
-            Account account = accountDao.findById(accountId);
-            if (account == null) {
-                return false;
+            if (!amount.isPositive()) {
+                throw new IllegalArgumentException("Deposit amount must be positive");
+            }
+            
+            if (groupCommitWriter != null) {
+                return await(groupCommitWriter.submit(() -> applyDeposit(accountId, amount, description)));
+            }
+            
+            try (AccountLockManager.LockHandle lock = lockManager.lock(accountId)) {
+                return DatabaseManager.inTransaction(() -> applyDeposit(accountId, amount, description));
+            }
+        } catch (InsufficientFundsException e) {
+            // A deposit never debits the account
+            throw new IllegalStateException(e);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    private Account executeWithdrawal(int accountId, Money amount, String description) throws InsufficientFundsException {
+        try {
+            if (!amount.isPositive()) {
+                throw new IllegalArgumentException("Withdrawal amount must be positive");
             }
             
-            account.setStatus("CLOSED");
-            return accountDao.update(account);
+            if (groupCommitWriter != null) {
+                return await(groupCommitWriter.submit(() -> applyWithdrawal(accountId, amount, description)));
+            }
+            
+            try (AccountLockManager.LockHandle lock = lockManager.lock(accountId)) {
+                return DatabaseManager.inTransaction(() -> applyWithdrawal(accountId, amount, description));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    private boolean executeTransfer(int sourceAccountId, int destinationAccountId, Money amount, String description) throws InsufficientFundsException {
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        
+        // Debit, credit and ledger row commit together or not at all. The guarded debit
+        // checks and updates the balance in one statement, so concurrent transfers cannot
+        // overdraw the source account.
+        try (AccountLockManager.LockHandle lock = lockManager.lockBoth(sourceAccountId, destinationAccountId)) {
+            return DatabaseManager.inTransaction(() -> {
+                if (!accountDao.debit(sourceAccountId, amount)) {
+                    Account sourceAccount = accountDao.findById(sourceAccountId);
+                    if (sourceAccount == null) {
+                        throw new IllegalArgumentException("One or both accounts not found");
+                    }
+                    throw new InsufficientFundsException("Insufficient funds in source account. Available balance: $" + sourceAccount.getBalance());
+                }
+                
+                if (!accountDao.credit(destinationAccountId, amount)) {
+                    throw new IllegalArgumentException("One or both accounts not found");
+                }
+                
+                Transaction transaction = new Transaction(sourceAccountId, destinationAccountId, "TRANSFER", amount, description);
+                transactionDao.save(transaction);
+                
+                Account source = accountDao.findById(sourceAccountId);
+                Account destination = accountDao.findById(destinationAccountId);
+                customerSummaryDao.recordTransaction(transaction, source.getCustomerId(), destination.getCustomerId());
+                
+                return true;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
     
+    private Account applyDeposit(int accountId, Money amount, String description) throws SQLException {
+        if (!accountDao.credit(accountId, amount)) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        
+        Transaction transaction = new Transaction(null, accountId, "DEPOSIT", amount, description);
+        transactionDao.save(transaction);
+        
+        Account account = accountDao.findById(accountId);
+        customerSummaryDao.recordTransaction(transaction, null, account.getCustomerId());
+        return account;
+    }
+    
+    private Account applyWithdrawal(int accountId, Money amount, String description) throws SQLException, InsufficientFundsException {
+        if (!accountDao.debit(accountId, amount)) {
+            Account account = accountDao.findById(accountId);
+            if (account == null) {
+                throw new IllegalArgumentException("Account not found");
+            }
+            throw new InsufficientFundsException("Insufficient funds in account. Available balance: $" + account.getBalance());
+        }
+        
+        Transaction transaction = new Transaction(accountId, null, "WITHDRAWAL", amount, description);
+        transactionDao.save(transaction);
+        
+        Account account = accountDao.findById(accountId);
+        customerSummaryDao.recordTransaction(transaction, account.getCustomerId(), null);
+        return account;
+    }
+    
+    private Account await(CompletableFuture<Account> result) throws SQLException, InsufficientFundsException {
+        try {
+            try {
+                return result.get(groupCommitWriter.getResultTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (result.cancel(false)) {
+                    throw new SQLException("Timed out waiting for group commit; the operation was not applied", e);
+                }
+                // The writer is already applying it, so wait for its group to commit or roll back
+                // rather than report a failure for an operation that may succeed
+                return result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (result.cancel(false)) {
+                throw new SQLException("Interrupted while waiting for group commit; the operation was not applied", e);
+            }
+            throw new SQLException("Interrupted while waiting for group commit; the operation may still be applied", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InsufficientFundsException insufficientFunds) {
+                throw insufficientFunds;
+            }
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException(cause);
+        }
+    }
+    
     private String generateAccountNumber() {
         return "ACC" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
     }
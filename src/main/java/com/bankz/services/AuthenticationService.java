@@ -2,12 +2,34 @@ package com.bankz.services;
 
 import com.bankz.models.Customer;
 import com.bankz.models.Employee;
+import com.bankz.models.Principal;
 
 /**
  * Service interface for authentication operations
  */
 public interface AuthenticationService {
 
+    /**
+     * Authenticates a customer or an employee with one lookup across both
+     * 
+     * @param username The username
+     * @param password The password
+     * @return The authenticated {@link Customer} or {@link Employee}, or null if authentication failed.
+     *         A customer is tried before an employee with the same username.
+     */
+    Principal authenticate(String username, String password);
+
+    /**
+     * Authenticates a customer or an employee, throttling attempts per username and per source
+     * 
+     * @param username The username
+     * @param password The password
+     * @param source   Where the attempt comes from, e.g. a client address or installation id; null skips the per-source limit
+     * @return The authenticated {@link Customer} or {@link Employee}, or null if authentication failed
+     * @throws LoginThrottledException If there have been too many recent attempts
+     */
+    Principal authenticate(String username, String password, String source);
+
     /**
      * Authenticates a customer
      * 
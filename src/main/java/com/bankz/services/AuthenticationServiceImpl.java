@@ -4,25 +4,92 @@ import java.sql.SQLException;
 
 import com.bankz.dao.CustomerDao;
 import com.bankz.dao.EmployeeDao;
+import com.bankz.dao.PrincipalDao;
+import com.bankz.dao.PrincipalDaoImpl;
+import com.bankz.dao.UsernameFilter;
 import com.bankz.models.Customer;
 import com.bankz.models.Employee;
+import com.bankz.models.Principal;
+import com.bankz.util.PasswordHashingPool;
 import com.bankz.util.PasswordUtils;
 
+/**
+ * Password checks and hashing run on a {@link PasswordHashingPool}, which throws
+ * {@link java.util.concurrent.RejectedExecutionException} when too many are already waiting.
+ * A successful login with a hash from an older scheme or a lower work factor stores a fresh hash.
+ * Every login attempt first passes a {@link LoginThrottle}, before any lookup or hashing.
+ */
 public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final CustomerDao customerDao;
     private final EmployeeDao employeeDao;
+    private final PrincipalDao principalDao;
+    private final PasswordHashingPool hashingPool;
+    private final LoginThrottle loginThrottle;
 
     public AuthenticationServiceImpl(CustomerDao customerDao, EmployeeDao employeeDao) {
+        this(customerDao, employeeDao, new PrincipalDaoImpl());
+    }
+
+    public AuthenticationServiceImpl(CustomerDao customerDao, EmployeeDao employeeDao, PrincipalDao principalDao) {
+        this(customerDao, employeeDao, principalDao, PasswordHashingPool.getShared(), LoginThrottle.getShared());
+    }
+
+    public AuthenticationServiceImpl(CustomerDao customerDao, EmployeeDao employeeDao, PrincipalDao principalDao,
+            PasswordHashingPool hashingPool, LoginThrottle loginThrottle) {
         this.customerDao = customerDao;
         this.employeeDao = employeeDao;
+        this.principalDao = principalDao;
+        this.hashingPool = hashingPool;
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    public Principal authenticate(String username, String password) {
+        return authenticate(username, password, null);
+    }
+
+    @Override
+    public Principal authenticate(String username, String password, String source) {
+        loginThrottle.check(username, source);
+        try {
+            // Normally one row; a username used by both a customer and an employee falls through in order
+            for (Principal principal : principalDao.findByUsername(username)) {
+                String storedHash = principal.getPasswordHash();
+                String currentHash = verifyAndUpgrade(password, storedHash);
+                if (currentHash != null) {
+                    if (!currentHash.equals(storedHash)) {
+                        if (principal instanceof Customer customer) {
+                            storeRehash(() -> customerDao.updatePasswordHash(customer.getCustomerId(), storedHash, currentHash));
+                        } else if (principal instanceof Employee employee) {
+                            storeRehash(() -> employeeDao.updatePasswordHash(employee.getEmployeeId(), storedHash, currentHash));
+                        }
+                        principal.setPasswordHash(currentHash);
+                    }
+                    return principal;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
     }
 
     @Override
     public Customer authenticateCustomer(String username, String password) {
+        loginThrottle.check(username, null);
         try {
             Customer customer = customerDao.findByUsername(username);
-            if (customer != null && PasswordUtils.verifyPassword(password, customer.getPasswordHash())) {
+            if (customer == null) {
+                return null;
+            }
+            String storedHash = customer.getPasswordHash();
+            String currentHash = verifyAndUpgrade(password, storedHash);
+            if (currentHash != null) {
+                if (!currentHash.equals(storedHash)) {
+                    storeRehash(() -> customerDao.updatePasswordHash(customer.getCustomerId(), storedHash, currentHash));
+                    customer.setPasswordHash(currentHash);
+                }
                 return customer;
             }
         } catch (SQLException e) {
@@ -33,9 +100,19 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     @Override
     public Employee authenticateEmployee(String username, String password) {
+        loginThrottle.check(username, null);
         try {
             Employee employee = employeeDao.findByUsername(username);
-            if (employee != null && PasswordUtils.verifyPassword(password, employee.getPasswordHash())) {
+            if (employee == null) {
+                return null;
+            }
+            String storedHash = employee.getPasswordHash();
+            String currentHash = verifyAndUpgrade(password, storedHash);
+            if (currentHash != null) {
+                if (!currentHash.equals(storedHash)) {
+                    storeRehash(() -> employeeDao.updatePasswordHash(employee.getEmployeeId(), storedHash, currentHash));
+                    employee.setPasswordHash(currentHash);
+                }
                 return employee;
             }
         } catch (SQLException e) {
@@ -51,11 +128,15 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 throw new IllegalArgumentException("Username already exists");
             }
 
-            String hashedPassword = PasswordUtils.hashPassword(password);
+            String hashedPassword = hashingPool.run(() -> PasswordUtils.hashPassword(password));
 
             Customer customer = new Customer(firstName, lastName, username, hashedPassword);
             return customerDao.save(customer);
         } catch (SQLException e) {
+            // The username filter only knows this process's writes, so the constraint has the final say
+            if (UsernameFilter.isDuplicateUsername(e)) {
+                throw new IllegalArgumentException("Username already exists");
+            }
             e.printStackTrace();
             return null;
         }
@@ -68,13 +149,48 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 throw new IllegalArgumentException("Username already exists");
             }
             
-            String hashedPassword = PasswordUtils.hashPassword(password);
+            String hashedPassword = hashingPool.run(() -> PasswordUtils.hashPassword(password));
             
             Employee employee = new Employee(firstName, lastName, username, hashedPassword, role);
             return employeeDao.save(employee);
         } catch (SQLException e) {
+            // The username filter only knows this process's writes, so the constraint has the final say
+            if (UsernameFilter.isDuplicateUsername(e)) {
+                throw new IllegalArgumentException("Username already exists");
+            }
             e.printStackTrace();
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies a password and, if it matches a hash that needs upgrading, hashes it again in the same pool task
+     * @return Null if the password is wrong, otherwise the hash to keep, which is the stored one unless it was upgraded
+     */
+    private String verifyAndUpgrade(String password, String storedHash) {
+        return hashingPool.run(() -> {
+            if (!PasswordUtils.verifyPassword(password, storedHash)) {
+                return null;
+            }
+            return PasswordUtils.needsRehash(storedHash) ? PasswordUtils.hashPassword(password) : storedHash;
+        });
+    }
+
+    /**
+     * Saves an upgraded hash. Only the hash column is written, and only while it still holds the hash that was
+     * verified, so a concurrent password change wins. A failure is only logged; the login still succeeds and the
+     * upgrade is retried next time.
+     */
+    private void storeRehash(SqlAction update) {
+        try {
+            update.run();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        boolean run() throws SQLException;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bankz.services;
+
+/**
+ * Exception thrown when a session token is unknown or expired, or its session lacks a permission
+ */
+public class AuthorizationException extends RuntimeException {
+    public AuthorizationException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,9 @@
 package com.bankz.services;
 
 import com.bankz.dao.CustomerDao;
+import com.bankz.dao.UsernameFilter;
 import com.bankz.models.Customer;
+import com.bankz.util.PasswordHashingPool;
 import com.bankz.util.PasswordUtils;
 
 import java.sql.SQLException;
@@ -23,11 +25,15 @@ public class CustomerServiceImpl implements CustomerService {
                 throw new IllegalArgumentException("Username already exists");
             }
             
-            String hashedPassword = PasswordUtils.hashPassword(password);
+            String hashedPassword = PasswordHashingPool.getShared().run(() -> PasswordUtils.hashPassword(password));
             
             Customer customer = new Customer(firstName, lastName, username, hashedPassword);
             return customerDao.save(customer);
         } catch (SQLException e) {
+            // The username filter only knows this process's writes, so the constraint has the final say
+            if (UsernameFilter.isDuplicateUsername(e)) {
+                throw new IllegalArgumentException("Username already exists");
+            }
             e.printStackTrace();
             return null;
         }
@@ -0,0 +1,256 @@
+package com.bankz.services;
+
+import com.bankz.models.Account;
+import com.bankz.util.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies money operations from many callers on a single writer thread.
+ * The writer drains up to {@code maxBatchSize} queued operations, or whatever arrives within
+ * {@code maxDelayMicros} of the first one, and applies them in one database transaction so the
+ * whole group shares a single commit. Each operation runs under its own savepoint, so a failing
+ * operation is rolled back and reported to its caller without affecting the rest of the group.
+ * Callers' futures complete only after the group has committed. A caller that stops waiting can
+ * cancel its future; the writer claims each operation just before applying it, so a cancelled
+ * operation is either skipped or the cancel fails because it is already being applied.
+ * <p>
+ * Enabled with the {@code account.groupCommit.enabled} system property; the batch limits are read from
+ * {@code account.groupCommit.maxBatchSize} (default 64) and {@code account.groupCommit.maxDelayMicros} (default 500),
+ * and callers cancel an operation the writer has not started after {@code account.groupCommit.resultTimeoutMillis} (default 30000).
+ */
+public class GroupCommitWriter implements AutoCloseable {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    private static final long DEFAULT_MAX_DELAY_MICROS = 500L;
+    private static final long DEFAULT_RESULT_TIMEOUT_MILLIS = 30_000L;
+
+    private static GroupCommitWriter shared;
+
+    private final BlockingQueue<PendingOperation> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long resultTimeoutMillis;
+    private final Thread writer;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private volatile boolean running = true;
+
+    public GroupCommitWriter(int maxBatchSize, long maxDelayMicros) {
+        this(maxBatchSize, maxDelayMicros, DEFAULT_RESULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param resultTimeoutMillis How long callers wait for their operation's group to commit
+     */
+    public GroupCommitWriter(int maxBatchSize, long maxDelayMicros, long resultTimeoutMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        if (resultTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Result timeout must be at least 1 ms");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0L, maxDelayMicros));
+        this.resultTimeoutMillis = resultTimeoutMillis;
+        this.writer = new Thread(this::run, "bankz-group-commit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Returns the process-wide writer, or null when group commit is disabled
+     */
+    public static synchronized GroupCommitWriter getSharedIfEnabled() {
+        if (!Boolean.getBoolean("account.groupCommit.enabled")) {
+            return null;
+        }
+        if (shared == null) {
+            shared = new GroupCommitWriter(
+                    Integer.getInteger("account.groupCommit.maxBatchSize", DEFAULT_MAX_BATCH_SIZE),
+                    Long.getLong("account.groupCommit.maxDelayMicros", DEFAULT_MAX_DELAY_MICROS),
+                    Long.getLong("account.groupCommit.resultTimeoutMillis", DEFAULT_RESULT_TIMEOUT_MILLIS));
+        }
+        return shared;
+    }
+
+    /**
+     * Queues an operation for the next group
+     * @param operation The operation to apply inside the group's transaction
+     * @return A future completed with the operation's result once the group commits. Cancelling it
+     *         succeeds only while the operation is still queued, and then it is never applied.
+     */
+    public CompletableFuture<Account> submit(MoneyOperation operation) {
+        PendingOperation pending = new PendingOperation(operation);
+        if (!running) {
+            pending.future.completeExceptionally(new SQLException("Group commit writer is closed"));
+            return pending.future;
+        }
+        queue.add(pending);
+        // close() may have drained the queue between the check and the add; if so nothing
+        // will ever take this operation, so fail it here unless someone else already did
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(new SQLException("Group commit writer is closed"));
+        }
+        return pending.future;
+    }
+
+    public long getResultTimeoutMillis() {
+        return resultTimeoutMillis;
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getOperationCount() {
+        return operations.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) operations.sum() / count;
+    }
+
+    /**
+     * Stops the writer thread and fails any operations still queued
+     */
+    @Override
+    public void close() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingOperation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingOperation pending : remaining) {
+            pending.future.completeExceptionally(new SQLException("Group commit writer is closed"));
+        }
+    }
+
+    private void run() {
+        List<PendingOperation> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOperation next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+            if (!batch.isEmpty()) {
+                applyBatch(batch);
+                batch.clear();
+            }
+        }
+        for (PendingOperation pending : batch) {
+            pending.future.completeExceptionally(new SQLException("Group commit writer is closed"));
+        }
+    }
+
+    private void applyBatch(List<PendingOperation> batch) {
+        int[] applied = new int[1];
+        try {
+            DatabaseManager.inTransaction(() -> {
+                try (Connection conn = DatabaseManager.getConnection()) {
+                    for (PendingOperation pending : batch) {
+                        if (!pending.claim()) {
+                            // Cancelled by a caller that stopped waiting
+                            continue;
+                        }
+                        applied[0]++;
+                        Savepoint savepoint = conn.setSavepoint();
+                        try {
+                            pending.result = pending.operation.apply();
+                            conn.releaseSavepoint(savepoint);
+                        } catch (InsufficientFundsException | SQLException | RuntimeException e) {
+                            conn.rollback(savepoint);
+                            conn.releaseSavepoint(savepoint);
+                            pending.failure = e;
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (Throwable t) {
+            // Anything escaping the transaction, Errors included, fails the whole group;
+            // the writer thread carries on so later callers are not left waiting forever
+            for (PendingOperation pending : batch) {
+                pending.future.completeExceptionally(t);
+            }
+            return;
+        }
+
+        if (applied[0] > 0) {
+            batches.increment();
+            operations.add(applied[0]);
+        }
+        for (PendingOperation pending : batch) {
+            if (pending.failure != null) {
+                pending.future.completeExceptionally(pending.failure);
+            } else {
+                pending.future.complete(pending.result);
+            }
+        }
+    }
+
+    /**
+     * A money operation applied on the writer thread inside the group's transaction
+     */
+    @FunctionalInterface
+    public interface MoneyOperation {
+        Account apply() throws SQLException, InsufficientFundsException;
+    }
+
+    private static final class PendingOperation {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        private final MoneyOperation operation;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CompletableFuture<Account> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return state.compareAndSet(QUEUED, CANCELLED) && super.cancel(mayInterruptIfRunning);
+            }
+        };
+        private Account result;
+        private Exception failure;
+
+        private PendingOperation(MoneyOperation operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Marks the operation as being applied, or returns false if its caller cancelled it first
+         */
+        private boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bankz.services;
+
+import java.time.Duration;
+
+import com.bankz.util.MetricsRegistry;
+import com.bankz.util.SlidingWindowRateLimiter;
+
+/**
+ * Limits login attempts per username and per source (e.g. a client address) so a brute-force or
+ * credential-stuffing burst is refused before it costs a database lookup or a password hash.
+ * Every attempt counts, successful or not.
+ * <p>
+ * The shared throttle allows {@code login.throttle.usernameLimit} attempts per username in
+ * {@code login.throttle.usernameWindowSeconds} (default 10 in 300) and {@code login.throttle.sourceLimit}
+ * per source in {@code login.throttle.sourceWindowSeconds} (default 100 in 60).
+ */
+public class LoginThrottle {
+
+    private static LoginThrottle shared;
+
+    private final SlidingWindowRateLimiter usernameLimiter;
+    private final SlidingWindowRateLimiter sourceLimiter;
+
+    /**
+     * @param usernameLimiter Limits attempts per username, or null for no limit
+     * @param sourceLimiter Limits attempts per source, or null for no limit
+     */
+    public LoginThrottle(SlidingWindowRateLimiter usernameLimiter, SlidingWindowRateLimiter sourceLimiter) {
+        this.usernameLimiter = usernameLimiter;
+        this.sourceLimiter = sourceLimiter;
+    }
+
+    public static synchronized LoginThrottle getShared() {
+        if (shared == null) {
+            SlidingWindowRateLimiter usernames = new SlidingWindowRateLimiter(
+                    Integer.getInteger("login.throttle.usernameLimit", 10),
+                    Duration.ofSeconds(Long.getLong("login.throttle.usernameWindowSeconds", 300L)));
+            SlidingWindowRateLimiter sources = new SlidingWindowRateLimiter(
+                    Integer.getInteger("login.throttle.sourceLimit", 100),
+                    Duration.ofSeconds(Long.getLong("login.throttle.sourceWindowSeconds", 60L)));
+            shared = new LoginThrottle(usernames, sources);
+            if (MetricsRegistry.isEnabled()) {
+                MetricsRegistry metrics = MetricsRegistry.getShared();
+                metrics.gauge("loginThrottle.username.allowed", usernames::getAllowedCount);
+                metrics.gauge("loginThrottle.username.rejected", usernames::getRejectedCount);
+                metrics.gauge("loginThrottle.username.tracked", usernames::size);
+                metrics.gauge("loginThrottle.source.allowed", sources::getAllowedCount);
+                metrics.gauge("loginThrottle.source.rejected", sources::getRejectedCount);
+                metrics.gauge("loginThrottle.source.tracked", sources::size);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * A throttle that allows every attempt, for load tests
+     */
+    public static LoginThrottle unlimited() {
+        return new LoginThrottle(null, null);
+    }
+
+    /**
+     * Records a login attempt
+     * @param username The username being tried
+     * @param source Where the attempt comes from, or null if unknown
+     * @throws LoginThrottledException If the username or source has made too many recent attempts
+     */
+    public void check(String username, String source) {
+        // The source is checked first so one client cycling through usernames is stopped without
+        // using up the budget of the accounts it targets
+        if (source != null && sourceLimiter != null && !sourceLimiter.tryAcquire(source)) {
+            throw new LoginThrottledException("Too many login attempts from this source, try again later");
+        }
+        if (usernameLimiter != null && !usernameLimiter.tryAcquire(username == null ? "" : username)) {
+            throw new LoginThrottledException("Too many login attempts for this user, try again later");
+        }
+    }
+}
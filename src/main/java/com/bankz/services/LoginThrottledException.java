@@ -0,0 +1,10 @@
+package com.bankz.services;
+
+/**
+ * Exception thrown when a login attempt is refused because of too many recent attempts
+ */
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bankz.services;
+
+/**
+ * What a logged-in session may do
+ */
+public enum Permission {
+    /** See one's own accounts and their history */
+    VIEW_OWN_ACCOUNTS,
+    /** Deposit, withdraw and transfer on one's own accounts */
+    TRANSACT_OWN_ACCOUNTS,
+    /** Create and look up customers */
+    MANAGE_CUSTOMERS,
+    /** Open, freeze and close any customer's accounts */
+    MANAGE_ACCOUNTS,
+    /** See the transactions of every account */
+    VIEW_ALL_TRANSACTIONS,
+    /** See the slow query log and other diagnostics */
+    VIEW_DIAGNOSTICS
+}
@@ -0,0 +1,156 @@
+package com.bankz.services;
+
+import com.bankz.dao.AccountDao;
+import com.bankz.models.Account;
+import com.bankz.models.CustomerSummary;
+import com.bankz.models.Money;
+import com.bankz.models.TransactionCursor;
+import com.bankz.models.TransactionPage;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The account operations the controllers call, each taking the caller's session token.
+ * Every call is checked with {@link SessionManager#authorize} before it reaches the {@link AccountService},
+ * so an expired session or a customer reaching for someone else's account fails with
+ * {@link AuthorizationException} instead of running.
+ */
+public class SecuredAccountService {
+
+    // Customer ids start at 1, so an unknown account is never owned by the caller
+    private static final int NO_CUSTOMER = -1;
+
+    private final AccountService accountService;
+    private final AccountDao accountDao;
+    private final SessionManager sessionManager;
+
+    public SecuredAccountService(AccountService accountService, AccountDao accountDao) {
+        this(accountService, accountDao, SessionManager.getShared());
+    }
+
+    /**
+     * @param accountDao Used to find who owns an account before acting on it
+     */
+    public SecuredAccountService(AccountService accountService, AccountDao accountDao, SessionManager sessionManager) {
+        this.accountService = accountService;
+        this.accountDao = accountDao;
+        this.sessionManager = sessionManager;
+    }
+
+    public CustomerSummary getCustomerSummary(String token, int customerId) {
+        sessionManager.authorize(token, Permission.VIEW_OWN_ACCOUNTS, customerId);
+        return accountService.getCustomerSummary(customerId);
+    }
+
+    public List<Account> getAccountsByCustomer(String token, int customerId) {
+        sessionManager.authorize(token, Permission.VIEW_OWN_ACCOUNTS, customerId);
+        return accountService.getAccountsByCustomer(customerId);
+    }
+
+    public TransactionPage getTransactionHistoryPage(String token, int accountId, TransactionCursor after, int pageSize) {
+        try {
+            authorizeAccount(token, Permission.VIEW_OWN_ACCOUNTS, accountId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return accountService.getTransactionHistoryPage(accountId, after, pageSize);
+    }
+
+    public Account openAccount(String token, int customerId, String accountType) {
+        sessionManager.authorize(token, Permission.TRANSACT_OWN_ACCOUNTS, customerId);
+        return accountService.openAccount(customerId, accountType);
+    }
+
+    public Account deposit(String token, int accountId, Money amount, String description) {
+        try {
+            authorizeAccount(token, Permission.TRANSACT_OWN_ACCOUNTS, accountId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return accountService.deposit(accountId, amount, description);
+    }
+
+    public Account withdraw(String token, int accountId, Money amount, String description) throws InsufficientFundsException {
+        try {
+            authorizeAccount(token, Permission.TRANSACT_OWN_ACCOUNTS, accountId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return accountService.withdraw(accountId, amount, description);
+    }
+
+    /**
+     * Transfers from one of the caller's accounts to any account, identified by its number so that
+     * the caller never sees the destination account itself
+     * @throws IllegalArgumentException if the destination does not exist or is the source account
+     */
+    public boolean transfer(String token, int sourceAccountId, String destinationAccountNumber, Money amount,
+                            String description) throws InsufficientFundsException {
+        try {
+            authorizeAccount(token, Permission.TRANSACT_OWN_ACCOUNTS, sourceAccountId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        Account destination = accountService.getAccountByAccountNumber(destinationAccountNumber);
+        if (destination == null) {
+            throw new IllegalArgumentException("Destination account not found");
+        }
+        if (destination.getAccountId() == sourceAccountId) {
+            throw new IllegalArgumentException("Source and destination accounts must be different");
+        }
+        return accountService.transfer(sourceAccountId, destination.getAccountId(), amount, description);
+    }
+
+    public List<Account> getAllAccounts(String token) {
+        sessionManager.authorize(token, Permission.MANAGE_ACCOUNTS);
+        try {
+            return accountDao.findAll();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public Account getAccount(String token, int accountId) {
+        sessionManager.authorize(token, Permission.MANAGE_ACCOUNTS);
+        try {
+            return accountDao.findById(accountId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public Account getAccountByAccountNumber(String token, String accountNumber) {
+        sessionManager.authorize(token, Permission.MANAGE_ACCOUNTS);
+        return accountService.getAccountByAccountNumber(accountNumber);
+    }
+
+    public boolean freezeAccount(String token, int accountId) {
+        sessionManager.authorize(token, Permission.MANAGE_ACCOUNTS);
+        return accountService.freezeAccount(accountId);
+    }
+
+    public boolean closeAccount(String token, int accountId) {
+        sessionManager.authorize(token, Permission.MANAGE_ACCOUNTS);
+        return accountService.closeAccount(accountId);
+    }
+
+    /**
+     * Checks the session against the account's owner. An unknown account is treated like someone else's,
+     * so a customer cannot probe which account ids exist.
+     * @throws IllegalArgumentException if the account does not exist and the caller may see any account
+     */
+    private void authorizeAccount(String token, Permission permission, int accountId) throws SQLException {
+        Account account = accountDao.findById(accountId);
+        sessionManager.authorize(token, permission, account == null ? NO_CUSTOMER : account.getCustomerId());
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bankz.services;
+
+import com.bankz.models.Customer;
+
+import java.util.List;
+
+/**
+ * The customer lookups the employee dashboard makes, each taking the caller's session token and
+ * requiring {@link Permission#MANAGE_CUSTOMERS}
+ */
+public class SecuredCustomerService {
+
+    private final CustomerService customerService;
+    private final SessionManager sessionManager;
+
+    public SecuredCustomerService(CustomerService customerService) {
+        this(customerService, SessionManager.getShared());
+    }
+
+    public SecuredCustomerService(CustomerService customerService, SessionManager sessionManager) {
+        this.customerService = customerService;
+        this.sessionManager = sessionManager;
+    }
+
+    public List<Customer> getAllCustomers(String token) {
+        sessionManager.authorize(token, Permission.MANAGE_CUSTOMERS);
+        return customerService.getAllCustomers();
+    }
+
+    public Customer findCustomerById(String token, int customerId) {
+        sessionManager.authorize(token, Permission.MANAGE_CUSTOMERS);
+        return customerService.findCustomerById(customerId);
+    }
+
+    public Customer findCustomerByUsername(String token, String username) {
+        sessionManager.authorize(token, Permission.MANAGE_CUSTOMERS);
+        return customerService.findCustomerByUsername(username);
+    }
+}
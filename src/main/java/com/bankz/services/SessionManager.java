@@ -0,0 +1,245 @@
+package com.bankz.services;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bankz.models.Account;
+import com.bankz.models.Customer;
+import com.bankz.models.Employee;
+import com.bankz.models.Principal;
+
+/**
+ * Issues opaque tokens for authenticated principals and keeps the principal and its permissions in memory,
+ * so later calls can be authorized by token without reading {@code customers} or {@code employees}.
+ * <p>
+ * A session ends when it has not been used for the idle timeout or when it reaches the absolute timeout,
+ * whichever comes first. Expired sessions are dropped when next looked up and swept periodically as new
+ * ones are opened. The shared manager is configured with {@code session.idleTimeoutMinutes} (default 15)
+ * and {@code session.absoluteTimeoutMinutes} (default 480).
+ */
+public class SessionManager {
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 15L;
+    private static final long DEFAULT_ABSOLUTE_TIMEOUT_MINUTES = 8 * 60L;
+    private static final int TOKEN_BYTES = 32;
+    private static final int OPENS_PER_SWEEP = 256;
+
+    private static final Set<Permission> CUSTOMER_PERMISSIONS = Collections.unmodifiableSet(
+            EnumSet.of(Permission.VIEW_OWN_ACCOUNTS, Permission.TRANSACT_OWN_ACCOUNTS));
+    private static final Set<Permission> EMPLOYEE_PERMISSIONS = Collections.unmodifiableSet(
+            EnumSet.of(Permission.MANAGE_CUSTOMERS, Permission.MANAGE_ACCOUNTS,
+                    Permission.VIEW_ALL_TRANSACTIONS, Permission.VIEW_DIAGNOSTICS));
+
+    private static SessionManager shared;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicInteger opensSinceSweep = new AtomicInteger();
+    private final long idleTimeoutMillis;
+    private final long absoluteTimeoutMillis;
+    private final Clock clock;
+
+    public SessionManager(Duration idleTimeout, Duration absoluteTimeout) {
+        this(idleTimeout, absoluteTimeout, Clock.systemUTC());
+    }
+
+    public SessionManager(Duration idleTimeout, Duration absoluteTimeout, Clock clock) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero() || absoluteTimeout.compareTo(idleTimeout) < 0) {
+            throw new IllegalArgumentException("Idle timeout must be positive and no longer than the absolute timeout");
+        }
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.absoluteTimeoutMillis = absoluteTimeout.toMillis();
+        this.clock = clock;
+    }
+
+    public static synchronized SessionManager getShared() {
+        if (shared == null) {
+            shared = new SessionManager(
+                    Duration.ofMinutes(Long.getLong("session.idleTimeoutMinutes", DEFAULT_IDLE_TIMEOUT_MINUTES)),
+                    Duration.ofMinutes(Long.getLong("session.absoluteTimeoutMinutes", DEFAULT_ABSOLUTE_TIMEOUT_MINUTES)));
+        }
+        return shared;
+    }
+
+    /**
+     * Starts a session for a principal that has just been authenticated
+     * @param principal The customer or employee returned by {@link AuthenticationService}
+     * @return The new session, whose token identifies it in later calls
+     */
+    public Session open(Principal principal) {
+        if (opensSinceSweep.incrementAndGet() >= OPENS_PER_SWEEP) {
+            opensSinceSweep.set(0);
+            purgeExpired();
+        }
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, principal, permissionsOf(principal), clock.millis());
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * Looks up a live session and marks it as used
+     * @return The session, or null if the token is unknown or its session has expired
+     */
+    public Session validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = clock.millis();
+        if (isExpired(session, now)) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.lastAccessMillis = now;
+        return session;
+    }
+
+    /**
+     * Checks that a token belongs to a live session holding a permission
+     * @return The session
+     * @throws AuthorizationException If the session is unknown, expired or lacks the permission
+     */
+    public Session authorize(String token, Permission permission) {
+        Session session = validate(token);
+        if (session == null) {
+            throw new AuthorizationException("Session is not valid or has expired");
+        }
+        if (!session.hasPermission(permission)) {
+            throw new AuthorizationException("Not permitted: " + permission);
+        }
+        return session;
+    }
+
+    /**
+     * Checks that a token belongs to a live session that may act on a customer's accounts.
+     * Staff holding {@link Permission#MANAGE_ACCOUNTS} may act on any customer's accounts;
+     * anyone else needs the permission and must be that customer.
+     * @return The session
+     * @throws AuthorizationException If the session is unknown, expired, lacks the permission or belongs to someone else
+     */
+    public Session authorize(String token, Permission permission, int customerId) {
+        Session session = validate(token);
+        if (session == null) {
+            throw new AuthorizationException("Session is not valid or has expired");
+        }
+        if (!session.hasPermission(permission) && !session.hasPermission(Permission.MANAGE_ACCOUNTS)) {
+            throw new AuthorizationException("Not permitted: " + permission);
+        }
+        if (!session.canAccessCustomer(customerId)) {
+            throw new AuthorizationException("Not permitted to access another customer's accounts");
+        }
+        return session;
+    }
+
+    /**
+     * Ends a session, e.g. on logout. Unknown tokens are ignored.
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Removes every expired session
+     * @return How many were removed
+     */
+    public int purgeExpired() {
+        long now = clock.millis();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> isExpired(session, now));
+        return Math.max(0, before - sessions.size());
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.lastAccessMillis >= idleTimeoutMillis
+                || now - session.createdMillis >= absoluteTimeoutMillis;
+    }
+
+    private static Set<Permission> permissionsOf(Principal principal) {
+        if (principal instanceof Customer) {
+            return CUSTOMER_PERMISSIONS;
+        }
+        if (principal instanceof Employee) {
+            return EMPLOYEE_PERMISSIONS;
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * An authenticated principal and what it may do
+     */
+    public static class Session {
+        private final String token;
+        private final Principal principal;
+        private final Set<Permission> permissions;
+        private final long createdMillis;
+        private volatile long lastAccessMillis;
+
+        private Session(String token, Principal principal, Set<Permission> permissions, long createdMillis) {
+            this.token = token;
+            this.principal = principal;
+            this.permissions = permissions;
+            this.createdMillis = createdMillis;
+            this.lastAccessMillis = createdMillis;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public Principal getPrincipal() {
+            return principal;
+        }
+
+        public Set<Permission> getPermissions() {
+            return permissions;
+        }
+
+        public boolean hasPermission(Permission permission) {
+            return permissions.contains(permission);
+        }
+
+        /**
+         * True if this session may act on an account: staff may act on any, customers only on their own
+         */
+        public boolean canAccess(Account account) {
+            return canAccessCustomer(account.getCustomerId());
+        }
+
+        /**
+         * True if this session may act on a customer's accounts: staff may act on anyone's, customers only on their own
+         */
+        public boolean canAccessCustomer(int customerId) {
+            if (hasPermission(Permission.MANAGE_ACCOUNTS)) {
+                return true;
+            }
+            return principal instanceof Customer customer && customerId == customer.getCustomerId();
+        }
+
+        @Override
+        public String toString() {
+            // The token is a credential and is left out
+            return "Session{principal=" + principal.getUsername() + ", permissions=" + permissions + "}";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bankz.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
+
+/**
+ * Runs database and hashing work off the JavaFX Application Thread.
+ * Work is submitted as a {@link Task} to a shared executor that starts one virtual thread per task;
+ * the success and failure callbacks run back on the FX thread. Each controller owns one instance
+ * and calls {@link #cancelAll()} when the user navigates away, after which no callback from
+ * earlier work is delivered.
+ * <p>
+ * All methods except {@link #shutdown()} must be called on the FX thread.
+ */
+public class BackgroundTasks {
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("bankz-background-", 0).factory());
+
+    private final Set<Task<?>> active = new HashSet<>();
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(this, "busy", false);
+
+    /**
+     * Runs work in the background
+     * @param work The work to run
+     * @param onSuccess Receives the result on the FX thread
+     * @param onFailure Receives the exception thrown by the work on the FX thread
+     * @return The task, which may be cancelled
+     */
+    public <T> Task<T> submit(Callable<T> work, Consumer<? super T> onSuccess, Consumer<? super Throwable> onFailure) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (finish(task)) {
+                onSuccess.accept(task.getValue());
+            }
+        });
+        task.setOnFailed(event -> {
+            if (finish(task)) {
+                onFailure.accept(task.getException());
+            }
+        });
+        task.setOnCancelled(event -> finish(task));
+
+        active.add(task);
+        busy.set(true);
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * Cancels all running work; their callbacks are dropped even if the work has already finished
+     */
+    public void cancelAll() {
+        for (Task<?> task : active) {
+            task.cancel(true);
+        }
+        active.clear();
+        busy.set(false);
+    }
+
+    /**
+     * True while any submitted work has not yet delivered its callback
+     */
+    public ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    public boolean isBusy() {
+        return busy.get();
+    }
+
+    /**
+     * Stops accepting work and interrupts work still running; called once when the application exits
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    private boolean finish(Task<?> task) {
+        boolean delivered = active.remove(task);
+        busy.set(!active.isEmpty());
+        return delivered;
+    }
+}
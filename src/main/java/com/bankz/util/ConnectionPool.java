@@ -0,0 +1,580 @@
+package com.bankz.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of pre-opened JDBC connections.
+ * Leased connections are returned to the pool when {@code close()} is called on them,
+ * so callers keep using try-with-resources exactly as with a plain connection.
+ * <p>
+ * Each physical connection can also keep up to {@code statementCacheSize} prepared statements keyed by
+ * their SQL text. Preparing the same SQL again reuses the statement instead of re-parsing it, and
+ * closing a cached statement clears its parameters and keeps it for the next caller. Cached statements
+ * are closed together with their connection.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Initializer initializer;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private int openCount;
+    private boolean closed;
+
+    private final AtomicInteger leasedCount = new AtomicInteger();
+    private final LongAdder totalLeases = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile long maxWaitNanos;
+
+    public ConnectionPool(String url, int maxSize, int minIdle, long acquireTimeoutMillis,
+                          long validationIntervalMillis) throws SQLException {
+        this(url, null, maxSize, minIdle, acquireTimeoutMillis, validationIntervalMillis);
+    }
+
+    public ConnectionPool(String url, Initializer initializer, int maxSize, int minIdle, long acquireTimeoutMillis,
+                          long validationIntervalMillis) throws SQLException {
+        this(url, initializer, maxSize, minIdle, acquireTimeoutMillis, validationIntervalMillis, 0);
+    }
+
+    /**
+     * @param statementCacheSize Prepared statements kept per connection, or 0 to disable statement caching
+     */
+    public ConnectionPool(String url, Initializer initializer, int maxSize, int minIdle, long acquireTimeoutMillis,
+                          long validationIntervalMillis, int statementCacheSize) throws SQLException {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.initializer = initializer;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+
+        int prefill = Math.min(Math.max(minIdle, 0), maxSize);
+        for (int i = 0; i < prefill; i++) {
+            idle.push(openPhysical());
+            openCount++;
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Initializer getInitializer() {
+        return initializer;
+    }
+
+    /**
+     * Leases a connection from the pool, waiting up to the configured timeout if all are in use
+     * @return A connection whose {@code close()} returns it to the pool
+     * @throws SQLException if no connection could be obtained
+     */
+    public Connection acquire() throws SQLException {
+        long start = System.nanoTime();
+        PhysicalConnection physical = null;
+        boolean openNew = false;
+
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+            while (physical == null && !openNew) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    physical = idle.pop();
+                } else if (openCount < maxSize) {
+                    openCount++;
+                    openNew = true;
+                } else {
+                    if (remaining <= 0L) {
+                        timeouts.increment();
+                        throw new SQLException("Timed out waiting for a database connection after "
+                                + acquireTimeoutMillis + " ms");
+                    }
+                    try {
+                        remaining = available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (openNew) {
+            try {
+                physical = openPhysical();
+            } catch (SQLException e) {
+                discard(null);
+                throw e;
+            }
+        } else if (!validate(physical)) {
+            validationFailures.increment();
+            physical.close();
+            try {
+                physical = openPhysical();
+            } catch (SQLException e) {
+                discard(null);
+                throw e;
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        if (waited > maxWaitNanos) {
+            maxWaitNanos = waited;
+        }
+        totalLeases.increment();
+        leasedCount.incrementAndGet();
+        return lease(physical);
+    }
+
+    /**
+     * Closes all idle connections and rejects further leases.
+     * Connections still leased are closed when they are returned.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            closed = true;
+            while (!idle.isEmpty()) {
+                idle.pop().close();
+                openCount--;
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            long leases = totalLeases.sum();
+            long waitNanos = totalWaitNanos.sum();
+            return new PoolStats(maxSize, openCount, idle.size(), leasedCount.get(), leases,
+                    leases == 0 ? 0L : waitNanos / leases, maxWaitNanos, timeouts.sum(),
+                    validationFailures.sum(), statementCacheHits.sum(), statementCacheMisses.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PhysicalConnection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        if (initializer != null) {
+            try {
+                initializer.initialize(connection);
+            } catch (SQLException e) {
+                closeQuietly(connection);
+                throw e;
+            }
+        }
+        return new PhysicalConnection(connection, statementCacheSize);
+    }
+
+    private boolean validate(PhysicalConnection physical) {
+        long idleFor = System.currentTimeMillis() - physical.lastReturned;
+        if (idleFor < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return !physical.connection.isClosed() && physical.connection.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PhysicalConnection physical) {
+        leasedCount.decrementAndGet();
+        boolean healthy = reset(physical.connection);
+
+        lock.lock();
+        try {
+            if (closed || !healthy) {
+                physical.close();
+                openCount--;
+            } else {
+                physical.lastReturned = System.currentTimeMillis();
+                idle.push(physical);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PhysicalConnection physical) {
+        if (physical != null) {
+            physical.close();
+        }
+        lock.lock();
+        try {
+            openCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean reset(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private Connection lease(PhysicalConnection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LeaseHandler(physical));
+    }
+
+    /**
+     * Hook run once on every physical connection right after it is opened
+     */
+    @FunctionalInterface
+    public interface Initializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    private static final class PhysicalConnection {
+        private final Connection connection;
+        private final Map<String, CachedStatement> statements;
+        private volatile long lastReturned;
+
+        private PhysicalConnection(Connection connection, int statementCacheSize) {
+            this.connection = connection;
+            this.lastReturned = System.currentTimeMillis();
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    eldest.getValue().evict();
+                    return true;
+                }
+            };
+        }
+
+        private void close() {
+            for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+                it.next().evict();
+                it.remove();
+            }
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * A prepared statement owned by the connection's cache.
+     * It is handed to one caller at a time; a second request for the same SQL while it is
+     * in use gets an ordinary uncached statement.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private void release() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                statement.close();
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // Statement is being discarded anyway
+                }
+            }
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private boolean returned;
+
+        private LeaseHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Returns a cached statement for {@code prepareStatement(String)} and
+         * {@code prepareStatement(String, int)}, or null to prepare the statement normally
+         */
+        private PreparedStatement prepareCached(Object proxy, Method method, Object[] args) throws SQLException {
+            if (statementCacheSize == 0 || !"prepareStatement".equals(method.getName())) {
+                return null;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            int autoGeneratedKeys;
+            if (types.length == 1) {
+                autoGeneratedKeys = Statement.NO_GENERATED_KEYS;
+            } else if (types.length == 2 && types[1] == int.class) {
+                autoGeneratedKeys = (Integer) args[1];
+            } else {
+                return null;
+            }
+            String sql = (String) args[0];
+            String key = autoGeneratedKeys + ":" + sql;
+
+            CachedStatement cached = physical.statements.get(key);
+            if (cached != null && cached.inUse) {
+                statementCacheMisses.increment();
+                return null;
+            }
+            if (cached == null) {
+                statementCacheMisses.increment();
+                cached = new CachedStatement(physical.connection.prepareStatement(sql, autoGeneratedKeys));
+                physical.statements.put(key, cached);
+            } else {
+                statementCacheHits.increment();
+            }
+            cached.inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new StatementHandler((Connection) proxy, cached));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + url + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            PreparedStatement cached = prepareCached(proxy, method, args);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                return method.invoke(physical.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A caller's view of a cached statement; closing it hands the statement back to the cache
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final CachedStatement cached;
+        private boolean closed;
+
+        private StatementHandler(Connection connection, CachedStatement cached) {
+            this.connection = connection;
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time view of pool utilisation
+     */
+    public static final class PoolStats {
+        private final int maxSize;
+        private final int openConnections;
+        private final int idleConnections;
+        private final int leasedConnections;
+        private final long totalLeases;
+        private final long averageWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeouts;
+        private final long validationFailures;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        PoolStats(int maxSize, int openConnections, int idleConnections, int leasedConnections,
+                  long totalLeases, long averageWaitNanos, long maxWaitNanos, long timeouts,
+                  long validationFailures, long statementCacheHits, long statementCacheMisses) {
+            this.maxSize = maxSize;
+            this.openConnections = openConnections;
+            this.idleConnections = idleConnections;
+            this.leasedConnections = leasedConnections;
+            this.totalLeases = totalLeases;
+            this.averageWaitNanos = averageWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeouts = timeouts;
+            this.validationFailures = validationFailures;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getOpenConnections() {
+            return openConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getLeasedConnections() {
+            return leasedConnections;
+        }
+
+        public long getTotalLeases() {
+            return totalLeases;
+        }
+
+        public long getAverageWaitNanos() {
+            return averageWaitNanos;
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getStatementCacheHits() {
+            return statementCacheHits;
+        }
+
+        public long getStatementCacheMisses() {
+            return statementCacheMisses;
+        }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" +
+                    "maxSize=" + maxSize +
+                    ", open=" + openConnections +
+                    ", idle=" + idleConnections +
+                    ", leased=" + leasedConnections +
+                    ", totalLeases=" + totalLeases +
+                    ", avgWaitNanos=" + averageWaitNanos +
+                    ", maxWaitNanos=" + maxWaitNanos +
+                    ", timeouts=" + timeouts +
+                    ", validationFailures=" + validationFailures +
+                    ", statementCacheHits=" + statementCacheHits +
+                    ", statementCacheMisses=" + statementCacheMisses +
+                    '}';
+        }
+    }
+}
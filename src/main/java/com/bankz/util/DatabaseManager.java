@@ -1,20 +1,167 @@
 package com.bankz.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
 
 public class DatabaseManager {
     private static final String DEFAULT_DB_URL = "jdbc:sqlite:bankz.db";
-    private static Connection connection;
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_POOL_MIN_IDLE = 1;
+    private static final long DEFAULT_POOL_TIMEOUT_MILLIS = 30_000L;
+    private static final long DEFAULT_POOL_VALIDATION_INTERVAL_MILLIS = 30_000L;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private static final ThreadLocal<Connection> TRANSACTION_CONNECTION = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> COMPLETION_CALLBACKS = new ThreadLocal<>();
+
+    private static volatile ConnectionPool pool;
+    private static PoolSettings poolSettings;
     
+    /**
+     * Leases a connection from the shared pool. Closing the returned connection
+     * hands it back to the pool instead of closing the underlying database handle.
+     * Inside {@link #inTransaction(TransactionWork)} this returns the transaction's connection,
+     * and closing it has no effect.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            String dbUrl = System.getProperty("db.url", DEFAULT_DB_URL);
-            connection = DriverManager.getConnection(dbUrl);
+        Connection bound = TRANSACTION_CONNECTION.get();
+        if (bound != null) {
+            return StatementTracer.trace(nonClosing(bound));
+        }
+        return StatementTracer.trace(getPool().acquire());
+    }
+
+    /**
+     * Runs work in a single database transaction. Every DAO call made by the work on this thread
+     * shares the transaction's connection; the transaction commits when the work returns and rolls
+     * back if it throws. Nested calls join the enclosing transaction.
+     * @param work The work to run
+     * @return The value returned by the work
+     * @throws SQLException if a database access error occurs
+     * @throws E if the work throws it; the transaction is rolled back
+     */
+    public static <T, E extends Exception> T inTransaction(TransactionWork<T, E> work) throws SQLException, E {
+        if (TRANSACTION_CONNECTION.get() != null) {
+            return work.execute();
+        }
+
+        try (Connection conn = getPool().acquire()) {
+            // Take the write lock up front so concurrent writers queue on busy_timeout
+            // instead of failing when a read is upgraded to a write
+            SQLiteConnection sqlite = conn.unwrap(SQLiteConnection.class);
+            sqlite.setCurrentTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+            conn.setAutoCommit(false);
+            TRANSACTION_CONNECTION.set(conn);
+            try {
+                T result = work.execute();
+                conn.commit();
+                return result;
+            } catch (Throwable t) {
+                conn.rollback();
+                throw t;
+            } finally {
+                TRANSACTION_CONNECTION.remove();
+                conn.setAutoCommit(true);
+                sqlite.setCurrentTransactionMode(SQLiteConfig.TransactionMode.DEFERRED);
+                runCompletionCallbacks();
+            }
+        }
+    }
+
+    /**
+     * Runs a callback once the current transaction has committed or rolled back,
+     * or straight away when no transaction is bound to this thread
+     */
+    public static void afterCompletion(Runnable callback) {
+        if (TRANSACTION_CONNECTION.get() == null) {
+            callback.run();
+            return;
+        }
+        List<Runnable> callbacks = COMPLETION_CALLBACKS.get();
+        if (callbacks == null) {
+            callbacks = new ArrayList<>();
+            COMPLETION_CALLBACKS.set(callbacks);
         }
-        return connection;
+        callbacks.add(callback);
+    }
+
+    public static boolean isInTransaction() {
+        return TRANSACTION_CONNECTION.get() != null;
+    }
+
+    /**
+     * Returns the shared pool, opening it from the {@code db.*} system properties on first use.
+     * Once open the pool is returned without a lock or any property lookups; call
+     * {@link #reconfigure()} or {@link #closeConnection()} after changing those properties.
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        return reconfigure();
+    }
+
+    /**
+     * Re-reads the {@code db.*} system properties, including {@code db.profile} and
+     * {@code db.pragma.*} overrides, and replaces the pool if any of them changed
+     */
+    public static synchronized ConnectionPool reconfigure() throws SQLException {
+        PoolSettings settings = PoolSettings.fromSystemProperties();
+        if (pool == null || !settings.equals(poolSettings)) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+            ConnectionPool opened = new ConnectionPool(
+                    settings.url,
+                    settings.profile,
+                    settings.size,
+                    settings.minIdle,
+                    settings.timeoutMillis,
+                    settings.validationIntervalMillis,
+                    settings.statementCacheSize);
+            poolSettings = settings;
+            pool = opened;
+            registerPoolGauges();
+        }
+        return pool;
+    }
+
+    private static void registerPoolGauges() {
+        if (!MetricsRegistry.isEnabled()) {
+            return;
+        }
+        // Gauges read whichever pool is current, so registering again after a URL change is harmless
+        MetricsRegistry metrics = MetricsRegistry.getShared();
+        metrics.gauge("db.pool.leased", () -> currentPoolStats().getLeasedConnections());
+        metrics.gauge("db.pool.open", () -> currentPoolStats().getOpenConnections());
+        metrics.gauge("db.pool.timeouts", () -> currentPoolStats().getTimeouts());
+        metrics.gauge("db.pool.maxWaitMicros", () -> currentPoolStats().getMaxWaitNanos() / 1_000L);
+        metrics.gauge("db.statementCache.hits", () -> currentPoolStats().getStatementCacheHits());
+        metrics.gauge("db.statementCache.misses", () -> currentPoolStats().getStatementCacheMisses());
+    }
+
+    private static ConnectionPool.PoolStats currentPoolStats() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            throw new IllegalStateException("Connection pool is closed");
+        }
+        return current.getStats();
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() throws SQLException {
+        return getPool().getStats();
     }
     
     public static void initializeDatabase() throws SQLException {
@@ -52,7 +199,7 @@ public class DatabaseManager {
                     customer_id INTEGER NOT NULL,
                     account_number TEXT NOT NULL UNIQUE,
                     account_type TEXT NOT NULL,
-                    balance REAL NOT NULL DEFAULT 0.0,
+                    balance INTEGER NOT NULL DEFAULT 0,
                     date_opened TEXT NOT NULL,
                     status TEXT NOT NULL DEFAULT 'ACTIVE',
                     FOREIGN KEY(customer_id) REFERENCES customers(customer_id)
@@ -66,7 +213,7 @@ public class DatabaseManager {
                     source_account_id INTEGER,
                     destination_account_id INTEGER,
                     type TEXT NOT NULL,
-                    amount REAL NOT NULL,
+                    amount INTEGER NOT NULL,
                     timestamp TEXT NOT NULL,
                     description TEXT,
                     FOREIGN KEY(source_account_id) REFERENCES accounts(account_id),
@@ -74,12 +221,118 @@ public class DatabaseManager {
                 );
                 """;
             stmt.execute(createTransactionsTable);
+
+            SchemaMigrator.migrate(conn);
         }
     }
     
-    public static void closeConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
+    public static synchronized void closeConnection() throws SQLException {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            poolSettings = null;
+        }
+    }
+
+    private static void runCompletionCallbacks() {
+        List<Runnable> callbacks = COMPLETION_CALLBACKS.get();
+        if (callbacks == null) {
+            return;
+        }
+        COMPLETION_CALLBACKS.remove();
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static Connection nonClosing(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Unit of work run by {@link #inTransaction(TransactionWork)}
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T, E extends Exception> {
+        T execute() throws SQLException, E;
+    }
+
+    /**
+     * The configuration a pool was opened with, compared to decide whether {@link #reconfigure()} must replace it
+     */
+    private static final class PoolSettings {
+        private final String url;
+        private final SqlitePragmaProfile profile;
+        private final Map<String, String> pragmas;
+        private final int size;
+        private final int minIdle;
+        private final long timeoutMillis;
+        private final long validationIntervalMillis;
+        private final int statementCacheSize;
+
+        private PoolSettings(String url, SqlitePragmaProfile profile, Map<String, String> pragmas, int size,
+                             int minIdle, long timeoutMillis, long validationIntervalMillis, int statementCacheSize) {
+            this.url = url;
+            this.profile = profile;
+            this.pragmas = pragmas;
+            this.size = size;
+            this.minIdle = minIdle;
+            this.timeoutMillis = timeoutMillis;
+            this.validationIntervalMillis = validationIntervalMillis;
+            this.statementCacheSize = statementCacheSize;
+        }
+
+        static PoolSettings fromSystemProperties() {
+            SqlitePragmaProfile profile = SqlitePragmaProfile.fromSystemProperties();
+            return new PoolSettings(
+                    System.getProperty("db.url", DEFAULT_DB_URL),
+                    profile,
+                    profile.getPragmas(),
+                    Integer.getInteger("db.pool.size", DEFAULT_POOL_SIZE),
+                    Integer.getInteger("db.pool.minIdle", DEFAULT_POOL_MIN_IDLE),
+                    Long.getLong("db.pool.timeoutMillis", DEFAULT_POOL_TIMEOUT_MILLIS),
+                    Long.getLong("db.pool.validationIntervalMillis", DEFAULT_POOL_VALIDATION_INTERVAL_MILLIS),
+                    Integer.getInteger("db.pool.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PoolSettings other)) {
+                return false;
+            }
+            return url.equals(other.url)
+                    && profile == other.profile
+                    && pragmas.equals(other.pragmas)
+                    && size == other.size
+                    && minIdle == other.minIdle
+                    && timeoutMillis == other.timeoutMillis
+                    && validationIntervalMillis == other.validationIntervalMillis
+                    && statementCacheSize == other.statementCacheSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, profile, pragmas, size, minIdle, timeoutMillis, validationIntervalMillis,
+                    statementCacheSize);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package com.bankz.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps a service or DAO so every interface method records its latency in a
+ * {@link MetricsRegistry.Timer} named {@code <name>.<method>} and every exception it throws in a
+ * counter named {@code <name>.<method>.errors}. Overloads share metrics.
+ * <p>
+ * The metrics are looked up once when wrapping, so a call only pays for the proxy dispatch and the recording.
+ */
+public final class Instrumented {
+
+    private Instrumented() {
+    }
+
+    /**
+     * Wraps a target using the interface's simple name and the shared registry
+     * @return The instrumented target, or the target itself if metrics are disabled
+     */
+    public static <T> T wrap(Class<T> type, T target) {
+        if (!MetricsRegistry.isEnabled()) {
+            return target;
+        }
+        return wrap(type, target, type.getSimpleName(), MetricsRegistry.getShared());
+    }
+
+    public static <T> T wrap(Class<T> type, T target, String name, MetricsRegistry registry) {
+        if (target == null || Proxy.isProxyClass(target.getClass())) {
+            return target;
+        }
+        Map<Method, MethodMetrics> metrics = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            String metricName = name + "." + method.getName();
+            metrics.put(method, new MethodMetrics(registry.timer(metricName), registry.counter(metricName + ".errors")));
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new Handler(target, metrics)));
+    }
+
+    private static final class MethodMetrics {
+        private final MetricsRegistry.Timer timer;
+        private final MetricsRegistry.Counter errors;
+
+        private MethodMetrics(MetricsRegistry.Timer timer, MetricsRegistry.Counter errors) {
+            this.timer = timer;
+            this.errors = errors;
+        }
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Object target;
+        private final Map<Method, MethodMetrics> metrics;
+
+        private Handler(Object target, Map<Method, MethodMetrics> metrics) {
+            this.target = target;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodMetrics methodMetrics = metrics.get(method);
+            if (methodMetrics == null) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return invokeTarget(method, args);
+                }
+            }
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(method, args);
+            } catch (Throwable e) {
+                methodMetrics.errors.increment();
+                throw e;
+            } finally {
+                methodMetrics.timer.record(System.nanoTime() - start);
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
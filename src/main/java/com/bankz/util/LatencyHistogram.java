@@ -0,0 +1,119 @@
+package com.bankz.util;
+
+/**
+ * Fixed-size histogram of latencies in nanoseconds with about 3% precision at any magnitude.
+ * Values below 64 get a bucket each; above that every power of two is split into 32 buckets,
+ * so recording is a few shifts and an array increment, and percentiles never need the raw samples.
+ * <p>
+ * Not thread-safe. Give each thread its own histogram and {@link #merge} them at the end.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int FIRST_EXPONENT = 6;
+    static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Creates a histogram from bucket counts taken elsewhere, e.g. a copy of a concurrent recorder
+     */
+    LatencyHistogram(long[] bucketCounts, long sum, long max) {
+        System.arraycopy(bucketCounts, 0, counts, 0, BUCKETS);
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Records one latency
+     * @param nanos The latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return max;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the smallest bucket bound that at least the given fraction of values fall at or below
+     * @param percentile Between 0 and 100, e.g. 99.9
+     * @return The latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The top bucket holds the maximum, so never report more than was recorded
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = FIRST_EXPONENT + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long upper = ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        // The last bucket's bound would overflow
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
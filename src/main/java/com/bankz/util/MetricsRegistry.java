@@ -0,0 +1,252 @@
+package com.bankz.util;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Named counters, gauges and latency timers for the services and DAOs.
+ * <p>
+ * Metrics are created on first lookup; callers keep the returned object and record into it directly,
+ * so recording is a few atomic increments with no allocation or map lookup. {@link #snapshot()} copies
+ * everything for reporting.
+ * <p>
+ * The shared registry is published over JMX as {@code com.bankz:type=Metrics} and, if
+ * {@code metrics.logIntervalSeconds} is set, printed to standard output on that interval.
+ * {@code -Dmetrics.enabled=false} turns off {@link Instrumented} wrapping entirely.
+ */
+public class MetricsRegistry {
+
+    public static final String OBJECT_NAME = "com.bankz:type=Metrics";
+
+    private static MetricsRegistry shared;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    /**
+     * Returns the process-wide registry, registering it with JMX and starting the log reporter on first use
+     */
+    public static synchronized MetricsRegistry getShared() {
+        if (shared == null) {
+            shared = new MetricsRegistry();
+            if (Boolean.parseBoolean(System.getProperty("metrics.jmx.enabled", "true"))) {
+                shared.registerMBean(ManagementFactory.getPlatformMBeanServer());
+            }
+            long interval = Long.getLong("metrics.logIntervalSeconds", 0L);
+            if (interval > 0) {
+                shared.startReporter(interval, System.out);
+            }
+        }
+        return shared;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new Timer());
+    }
+
+    /**
+     * Registers a gauge read at snapshot time, replacing any gauge with the same name
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.get()));
+
+        Map<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                gaugeValues.put(name, gauge.getAsLong());
+            } catch (RuntimeException e) {
+                // A gauge over a component that has been shut down should not break the report
+                gaugeValues.put(name, -1L);
+            }
+        });
+
+        Map<String, LatencyHistogram> timerValues = new TreeMap<>();
+        timers.forEach((name, timer) -> timerValues.put(name, timer.snapshot()));
+
+        return new Snapshot(counterValues, gaugeValues, timerValues);
+    }
+
+    /**
+     * Prints a snapshot to the stream every interval on a daemon thread
+     */
+    public synchronized void startReporter(long intervalSeconds, PrintStream out) {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> out.println("Metrics at " + LocalDateTime.now() + System.lineSeparator() + snapshot()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private void registerMBean(MBeanServer server) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(this), name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A monotonically increasing count
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * A thread-safe latency histogram using the same buckets as {@link LatencyHistogram}
+     */
+    public static final class Timer {
+        private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        /**
+         * Records one call's latency
+         * @param nanos Elapsed nanoseconds, usually a difference of {@link System#nanoTime()} readings
+         */
+        public void record(long nanos) {
+            long value = Math.max(0L, nanos);
+            buckets.incrementAndGet(LatencyHistogram.bucketOf(value));
+            sum.add(value);
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        /**
+         * Copies the recorded values. Calls recorded while copying may be partly included.
+         */
+        public LatencyHistogram snapshot() {
+            long[] counts = new long[LatencyHistogram.BUCKETS];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new LatencyHistogram(counts, sum.sum(), max.get());
+        }
+    }
+
+    /**
+     * A point-in-time copy of every metric, sorted by name
+     */
+    public static class Snapshot {
+        private final Map<String, Long> counters;
+        private final Map<String, Long> gauges;
+        private final Map<String, LatencyHistogram> timers;
+
+        Snapshot(Map<String, Long> counters, Map<String, Long> gauges, Map<String, LatencyHistogram> timers) {
+            this.counters = Collections.unmodifiableMap(counters);
+            this.gauges = Collections.unmodifiableMap(gauges);
+            this.timers = Collections.unmodifiableMap(timers);
+        }
+
+        public Map<String, Long> getCounters() {
+            return counters;
+        }
+
+        public Map<String, Long> getGauges() {
+            return gauges;
+        }
+
+        public Map<String, LatencyHistogram> getTimers() {
+            return timers;
+        }
+
+        /**
+         * Flattens the snapshot into single values, e.g. {@code AccountService.deposit.p99Micros}
+         */
+        public Map<String, Number> toAttributes() {
+            Map<String, Number> attributes = new TreeMap<>();
+            attributes.putAll(counters);
+            attributes.putAll(gauges);
+            timers.forEach((name, histogram) -> {
+                attributes.put(name + ".count", histogram.getCount());
+                attributes.put(name + ".meanMicros", histogram.getMeanNanos() / 1_000.0);
+                attributes.put(name + ".p50Micros", histogram.getPercentileNanos(50.0) / 1_000L);
+                attributes.put(name + ".p99Micros", histogram.getPercentileNanos(99.0) / 1_000L);
+                attributes.put(name + ".p999Micros", histogram.getPercentileNanos(99.9) / 1_000L);
+                attributes.put(name + ".maxMicros", histogram.getMaxNanos() / 1_000L);
+            });
+            return attributes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            timers.forEach((name, histogram) -> {
+                if (histogram.getCount() > 0) {
+                    out.append(String.format(Locale.ROOT, "%-50s count=%d p50=%dus p99=%dus p999=%dus max=%dus%n", name,
+                            histogram.getCount(), histogram.getPercentileNanos(50.0) / 1_000L,
+                            histogram.getPercentileNanos(99.0) / 1_000L, histogram.getPercentileNanos(99.9) / 1_000L,
+                            histogram.getMaxNanos() / 1_000L));
+                }
+            });
+            counters.forEach((name, value) -> {
+                if (value != 0) {
+                    out.append(String.format(Locale.ROOT, "%-50s %d%n", name, value));
+                }
+            });
+            gauges.forEach((name, value) -> out.append(String.format(Locale.ROOT, "%-50s %d%n", name, value)));
+            return out.toString();
+        }
+    }
+}
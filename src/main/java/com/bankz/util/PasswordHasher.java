@@ -0,0 +1,30 @@
+package com.bankz.util;
+
+/**
+ * One way of turning passwords into stored hashes. Each hasher writes a format it can recognise again,
+ * so hashes from older schemes can still be verified after the default changes.
+ */
+public interface PasswordHasher {
+
+    /**
+     * Hashes a password with a fresh random salt
+     * @return The text to store, including everything needed to verify it later
+     */
+    String hash(String password);
+
+    /**
+     * Checks a password against a hash this hasher produced
+     */
+    boolean verify(String password, String storedHash);
+
+    /**
+     * True if the stored hash is in this hasher's format
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * True if a hash in this hasher's format is weaker than what {@link #hash(String)} produces now,
+     * e.g. because the work factor has since been raised
+     */
+    boolean needsRehash(String storedHash);
+}
@@ -0,0 +1,98 @@
+package com.bankz.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small fixed set of platform threads for password hashing. A deliberately slow KDF would otherwise
+ * take every core during a login storm; here at most {@code threads} hashes run at once, a bounded number
+ * wait, and the rest are refused straight away so the caller can report that the system is busy.
+ * Because the threads are long-lived, the per-thread digests and key factories in the hashers are reused.
+ * <p>
+ * The shared pool is sized by {@code password.hashing.threads} (default: half the processors, at least one)
+ * and {@code password.hashing.queueCapacity} (default 256).
+ */
+public class PasswordHashingPool {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private static PasswordHashingPool shared;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    public PasswordHashingPool(int threads, int queueCapacity) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static synchronized PasswordHashingPool getShared() {
+        if (shared == null) {
+            int defaultThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            shared = new PasswordHashingPool(
+                    Integer.getInteger("password.hashing.threads", defaultThreads),
+                    Integer.getInteger("password.hashing.queueCapacity", DEFAULT_QUEUE_CAPACITY));
+            if (MetricsRegistry.isEnabled()) {
+                PasswordHashingPool pool = shared;
+                MetricsRegistry metrics = MetricsRegistry.getShared();
+                metrics.gauge("passwordHashing.active", pool::getActiveCount);
+                metrics.gauge("passwordHashing.queued", pool::getQueuedCount);
+                metrics.gauge("passwordHashing.rejected", pool::getRejectedCount);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Runs hashing work on the pool and waits for its result
+     * @throws RejectedExecutionException If the pool and its queue are full
+     */
+    public <T> T run(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Too many password checks in progress, try again shortly", e);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getRejectedCount() {
+        return rejected.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
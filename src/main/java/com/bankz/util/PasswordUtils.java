@@ -1,68 +1,84 @@
 package com.bankz.util;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.List;
 
+/**
+ * Hashes new passwords with the current {@link PasswordHasher} and verifies stored hashes with whichever
+ * hasher wrote them. {@link #needsRehash(String)} tells callers when a verified password should be
+ * hashed again, which is how legacy SHA-256 hashes are upgraded as users log in.
+ * <p>
+ * These methods do the hashing on the calling thread; services run them on the {@link PasswordHashingPool}.
+ */
 public class PasswordUtils {
-    
-    private static final String HASHING_ALGORITHM = "SHA-256";
-    private static final int SALT_LENGTH = 16;
-    
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private static volatile PasswordHasher current = new Pbkdf2PasswordHasher();
+    private static final PasswordHasher LEGACY = new Sha256PasswordHasher();
+
     public static String hashPassword(String password) {
-        try {
-            SecureRandom random = new SecureRandom();
-            byte[] salt = new byte[SALT_LENGTH];
-            random.nextBytes(salt);
-            
-            MessageDigest md = MessageDigest.getInstance(HASHING_ALGORITHM);
-            md.update(salt);
-            byte[] hashedPassword = md.digest(password.getBytes());
-            
-            byte[] saltedHash = new byte[salt.length + hashedPassword.length];
-            System.arraycopy(salt, 0, saltedHash, 0, salt.length);
-            System.arraycopy(hashedPassword, 0, saltedHash, salt.length, hashedPassword.length);
-            
-            return bytesToHex(saltedHash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing password", e);
-        }
+        return current.hash(password);
     }
-    
+
+    /**
+     * @return True if the password matches; false if it does not or the stored hash is in no known format
+     */
     public static boolean verifyPassword(String password, String hashedPassword) {
+        PasswordHasher hasher = hasherFor(hashedPassword);
+        if (hasher == null) {
+            return false;
+        }
         try {
-            byte[] saltedHash = hexToBytes(hashedPassword);
-            
-            byte[] salt = new byte[SALT_LENGTH];
-            byte[] originalHash = new byte[saltedHash.length - SALT_LENGTH];
-            System.arraycopy(saltedHash, 0, salt, 0, SALT_LENGTH);
-            System.arraycopy(saltedHash, SALT_LENGTH, originalHash, 0, originalHash.length);
-            
-            MessageDigest md = MessageDigest.getInstance(HASHING_ALGORITHM);
-            md.update(salt);
-            byte[] hashedPasswordToCheck = md.digest(password.getBytes());
-            
-            return MessageDigest.isEqual(originalHash, hashedPasswordToCheck);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error verifying password", e);
+            return hasher.verify(password, hashedPassword);
+        } catch (IllegalArgumentException e) {
+            // A corrupt stored hash is a failed login, not an error
+            return false;
         }
     }
-    
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
+
+    /**
+     * True if the stored hash was not written by the current hasher with its current work factor
+     */
+    public static boolean needsRehash(String hashedPassword) {
+        PasswordHasher hasher = current;
+        if (!hasher.supports(hashedPassword)) {
+            return true;
+        }
+        try {
+            return hasher.needsRehash(hashedPassword);
+        } catch (IllegalArgumentException e) {
+            return true;
         }
-        return result.toString();
     }
-    
-    private static byte[] hexToBytes(String hex) {
-        int len = hex.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
-                    + Character.digit(hex.charAt(i+1), 16));
+
+    public static PasswordHasher getHasher() {
+        return current;
+    }
+
+    /**
+     * Changes the hasher used for new hashes. Hashes from the previous hasher are still verified if it is
+     * the SHA-256 scheme or the same type, and are reported by {@link #needsRehash(String)}.
+     */
+    public static void setHasher(PasswordHasher hasher) {
+        current = hasher;
+    }
+
+    static byte[] newSalt(int length) {
+        byte[] salt = new byte[length];
+        RANDOM.get().nextBytes(salt);
+        return salt;
+    }
+
+    private static PasswordHasher hasherFor(String hashedPassword) {
+        if (hashedPassword == null) {
+            return null;
+        }
+        for (PasswordHasher hasher : List.of(current, LEGACY)) {
+            if (hasher.supports(hashedPassword)) {
+                return hasher;
+            }
         }
-        return data;
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.bankz.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PBKDF2 with HMAC-SHA512. Hashes are stored as {@code $pbkdf2-sha512$<iterations>$<salt hex>$<hash hex>},
+ * so raising the iteration count only affects new hashes and old ones are flagged by {@link #needsRehash(String)}.
+ * <p>
+ * The default work factor follows the OWASP recommendation for PBKDF2-HMAC-SHA512 and can be changed
+ * with {@code password.pbkdf2.iterations}.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "$pbkdf2-sha512$";
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_LENGTH_BITS = 512;
+
+    private static final ThreadLocal<SecretKeyFactory> KEY_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    });
+
+    private final int iterations;
+
+    /**
+     * Creates a hasher with the iteration count from {@code password.pbkdf2.iterations}
+     */
+    public Pbkdf2PasswordHasher() {
+        this(Integer.getInteger("password.pbkdf2.iterations", DEFAULT_ITERATIONS));
+    }
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = PasswordUtils.newSalt(SALT_LENGTH);
+        return PREFIX + iterations + "$" + Hex.encode(salt) + "$" + Hex.encode(derive(password, salt, iterations));
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        String[] parts = split(storedHash);
+        byte[] expected = Hex.decode(parts[2]);
+        byte[] actual = derive(password, Hex.decode(parts[1]), Integer.parseInt(parts[0]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return Integer.parseInt(split(storedHash)[0]) < iterations;
+    }
+
+    /**
+     * Splits a stored hash into iterations, salt and hash
+     */
+    private static String[] split(String storedHash) {
+        String[] parts = storedHash.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed PBKDF2 hash");
+        }
+        return parts;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_LENGTH_BITS);
+        try {
+            return KEY_FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalStateException("Error hashing password", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
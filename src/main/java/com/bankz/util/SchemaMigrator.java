@@ -0,0 +1,195 @@
+package com.bankz.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies versioned schema migrations on top of the base tables created by {@link DatabaseManager}.
+ * Each migration runs in its own transaction together with the row recording it in {@code schema_version},
+ * so a database is always at a well-defined version.
+ */
+public class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Secondary indexes for account and transaction lookups", conn -> execute(conn,
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_source_ts ON transactions(source_account_id, timestamp)",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_destination_ts ON transactions(destination_account_id, timestamp)",
+                    "CREATE INDEX IF NOT EXISTS idx_accounts_customer ON accounts(customer_id)")),
+            new Migration(2, "Store money as integer cents", SchemaMigrator::convertMoneyToCents),
+            new Migration(3, "Materialized customer dashboard summaries", conn -> execute(conn,
+                    """
+                    CREATE TABLE IF NOT EXISTS customer_summaries (
+                        customer_id INTEGER PRIMARY KEY,
+                        summary_month TEXT NOT NULL,
+                        month_inflow INTEGER NOT NULL DEFAULT 0,
+                        month_outflow INTEGER NOT NULL DEFAULT 0,
+                        FOREIGN KEY(customer_id) REFERENCES customers(customer_id)
+                    )
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS customer_recent_transactions (
+                        customer_id INTEGER NOT NULL,
+                        timestamp TEXT NOT NULL,
+                        transaction_id INTEGER NOT NULL,
+                        PRIMARY KEY (customer_id, timestamp, transaction_id)
+                    ) WITHOUT ROWID
+                    """))
+    );
+
+    /**
+     * Brings the schema up to the latest version
+     * @param conn The connection to migrate
+     * @return The schema version after migrating
+     * @throws SQLException if a migration fails; the failing migration is rolled back
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    applied_at TEXT NOT NULL
+                );
+                """);
+        }
+
+        int current = getCurrentVersion(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                conn.setAutoCommit(false);
+                try {
+                    migration.step.apply(conn);
+                    recordVersion(conn, migration);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Schema migration " + migration.version + " ("
+                            + migration.description + ") failed", e);
+                }
+                current = migration.version;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+
+    /**
+     * Returns the highest applied schema version, or 0 for a database that has never been migrated
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    private static void recordVersion(Connection conn, Migration migration) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, LocalDateTime.now().toString());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuilds the accounts and transactions tables of a database created with REAL money columns,
+     * converting each amount to a whole number of cents. Databases created with INTEGER columns are left as they are.
+     */
+    private static void convertMoneyToCents(Connection conn) throws SQLException {
+        if ("REAL".equalsIgnoreCase(getColumnType(conn, "accounts", "balance"))) {
+            execute(conn,
+                    """
+                    CREATE TABLE accounts_new (
+                        account_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        customer_id INTEGER NOT NULL,
+                        account_number TEXT NOT NULL UNIQUE,
+                        account_type TEXT NOT NULL,
+                        balance INTEGER NOT NULL DEFAULT 0,
+                        date_opened TEXT NOT NULL,
+                        status TEXT NOT NULL DEFAULT 'ACTIVE',
+                        FOREIGN KEY(customer_id) REFERENCES customers(customer_id)
+                    )
+                    """,
+                    "INSERT INTO accounts_new (account_id, customer_id, account_number, account_type, balance, date_opened, status) "
+                            + "SELECT account_id, customer_id, account_number, account_type, CAST(ROUND(balance * 100) AS INTEGER), date_opened, status FROM accounts",
+                    "DROP TABLE accounts",
+                    "ALTER TABLE accounts_new RENAME TO accounts",
+                    "CREATE INDEX IF NOT EXISTS idx_accounts_customer ON accounts(customer_id)");
+        }
+        if ("REAL".equalsIgnoreCase(getColumnType(conn, "transactions", "amount"))) {
+            execute(conn,
+                    """
+                    CREATE TABLE transactions_new (
+                        transaction_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        source_account_id INTEGER,
+                        destination_account_id INTEGER,
+                        type TEXT NOT NULL,
+                        amount INTEGER NOT NULL,
+                        timestamp TEXT NOT NULL,
+                        description TEXT,
+                        FOREIGN KEY(source_account_id) REFERENCES accounts(account_id),
+                        FOREIGN KEY(destination_account_id) REFERENCES accounts(account_id)
+                    )
+                    """,
+                    "INSERT INTO transactions_new (transaction_id, source_account_id, destination_account_id, type, amount, timestamp, description) "
+                            + "SELECT transaction_id, source_account_id, destination_account_id, type, CAST(ROUND(amount * 100) AS INTEGER), timestamp, description FROM transactions",
+                    "DROP TABLE transactions",
+                    "ALTER TABLE transactions_new RENAME TO transactions",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_source_ts ON transactions(source_account_id, timestamp)",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_destination_ts ON transactions(destination_account_id, timestamp)");
+        }
+    }
+
+    private static String getColumnType(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return rs.getString("type");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void execute(Connection conn, String... statements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        private Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bankz.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The original scheme: a single SHA-256 of a 16-byte salt and the password, stored as the hex of salt followed by digest.
+ * Kept so existing hashes still verify; {@link PasswordUtils} replaces them on the next successful login.
+ */
+public class Sha256PasswordHasher implements PasswordHasher {
+
+    private static final int SALT_LENGTH = 16;
+    private static final int DIGEST_LENGTH = 32;
+    private static final int HEX_LENGTH = (SALT_LENGTH + DIGEST_LENGTH) * 2;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = PasswordUtils.newSalt(SALT_LENGTH);
+        byte[] saltedHash = new byte[SALT_LENGTH + DIGEST_LENGTH];
+        System.arraycopy(salt, 0, saltedHash, 0, SALT_LENGTH);
+        System.arraycopy(digest(salt, password), 0, saltedHash, SALT_LENGTH, DIGEST_LENGTH);
+        return Hex.encode(saltedHash);
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        byte[] saltedHash = Hex.decode(storedHash);
+        byte[] salt = new byte[SALT_LENGTH];
+        byte[] expected = new byte[saltedHash.length - SALT_LENGTH];
+        System.arraycopy(saltedHash, 0, salt, 0, SALT_LENGTH);
+        System.arraycopy(saltedHash, SALT_LENGTH, expected, 0, expected.length);
+        return MessageDigest.isEqual(expected, digest(salt, password));
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.length() == HEX_LENGTH && storedHash.indexOf('$') < 0;
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return true;
+    }
+
+    private static byte[] digest(byte[] salt, String password) {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        md.update(salt);
+        return md.digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,131 @@
+package com.bankz.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allows each key at most {@code limit} events in any window of the configured length.
+ * <p>
+ * Each key keeps only two counters, for the current fixed window and the one before it; the previous
+ * window's count is weighted by how much of it still overlaps the sliding window. This is an estimate
+ * that never lets more than {@code limit} events through in one fixed window, in a few bytes per key.
+ * Keys are spread over independently locked stripes, so unrelated keys rarely contend, and a stripe
+ * drops keys that have been quiet for two windows whenever it is touched after a window has passed.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final int limit;
+    private final long windowMillis;
+    private final Clock clock;
+    private final Stripe[] stripes;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public SlidingWindowRateLimiter(int limit, Duration window) {
+        this(limit, window, DEFAULT_STRIPES, Clock.systemUTC());
+    }
+
+    /**
+     * @param limit Events allowed per key in any window
+     * @param window Length of the sliding window
+     * @param stripes Number of independently locked partitions of the keys
+     * @param clock Time source
+     */
+    public SlidingWindowRateLimiter(int limit, Duration window, int stripes, Clock clock) {
+        if (limit < 1 || stripes < 1 || window.toMillis() < 1) {
+            throw new IllegalArgumentException("Limit, window and stripes must be positive");
+        }
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records an event for a key if it is under its limit
+     * @return True if the event is allowed; a refused event is not counted against the key
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.millis();
+        Stripe stripe = stripeFor(key);
+        boolean permitted;
+        synchronized (stripe) {
+            stripe.evictIfDue(now, windowMillis);
+            Window window = stripe.windows.computeIfAbsent(key, k -> new Window());
+            window.advance(now, windowMillis);
+            double overlap = 1.0 - (double) (now - window.start) / windowMillis;
+            permitted = window.previous * overlap + window.current < limit;
+            if (permitted) {
+                window.current++;
+            }
+        }
+        (permitted ? allowed : rejected).increment();
+        return permitted;
+    }
+
+    /**
+     * Number of keys currently tracked
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.windows.size();
+            }
+        }
+        return size;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private final Map<String, Window> windows = new HashMap<>();
+        private long nextEviction;
+
+        private void evictIfDue(long now, long windowMillis) {
+            if (now < nextEviction) {
+                return;
+            }
+            nextEviction = now + windowMillis;
+            windows.values().removeIf(window -> now - window.start >= 2 * windowMillis);
+        }
+    }
+
+    private static final class Window {
+        private long start = Long.MIN_VALUE;
+        private int previous;
+        private int current;
+
+        /**
+         * Moves to the fixed window containing now, carrying the count over if it is the next one
+         */
+        private void advance(long now, long windowMillis) {
+            long currentStart = now - Math.floorMod(now, windowMillis);
+            if (currentStart == start) {
+                return;
+            }
+            previous = currentStart - start == windowMillis ? current : 0;
+            current = 0;
+            start = currentStart;
+        }
+    }
+}
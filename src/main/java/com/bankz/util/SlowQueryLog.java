@@ -0,0 +1,245 @@
+package com.bankz.util;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the most recent statements that took longer than a threshold, with their bound parameters,
+ * row counts and SQLite query plans, and prints each one to standard error as it is caught.
+ * A {@code SCAN} in the plan of a statement that used to be fast usually means growing data has
+ * outgrown an index.
+ * <p>
+ * The shared log is off by default, because while it is on every connection, statement and result set
+ * is wrapped to time executions. Turn it on with {@code db.slowQuery.thresholdMillis}, e.g. {@code 200};
+ * {@code db.slowQuery.capacity} (default 50) sets how many statements are kept.
+ * <p>
+ * The query plan is taken with {@code EXPLAIN QUERY PLAN} synchronously on the connection that ran the slow
+ * statement, before its execution returns, so it adds to the caller's latency and runs inside the caller's
+ * transaction if one is open.
+ */
+public class SlowQueryLog {
+
+    static final String REDACTED = "<redacted>";
+
+    private static final long DEFAULT_THRESHOLD_MILLIS = 0L;
+    private static final int DEFAULT_CAPACITY = 50;
+    private static final String SECRET_COLUMN = "password_hash";
+    private static final Pattern INSERT_COLUMNS = Pattern.compile(
+            "INSERT\\s+(?:OR\\s+\\w+\\s+)?INTO\\s+\\w+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SECRET_COMPARISON = Pattern.compile(
+            "\\b" + SECRET_COLUMN + "\\s*(?:=|<>|!=)\\s*\\?", Pattern.CASE_INSENSITIVE);
+
+    private static volatile SlowQueryLog shared;
+
+    private volatile long thresholdNanos;
+    private final Entry[] entries;
+    private int next;
+    private int size;
+
+    /**
+     * @param thresholdMillis Statements taking at least this long are logged; 0 or less turns the log off
+     * @param capacity How many statements to keep
+     */
+    public SlowQueryLog(long thresholdMillis, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.entries = new Entry[capacity];
+        setThresholdMillis(thresholdMillis);
+    }
+
+    /**
+     * Returns the process-wide log. Checked on every connection lease, so the common path takes no lock.
+     */
+    public static SlowQueryLog getShared() {
+        SlowQueryLog log = shared;
+        if (log == null) {
+            synchronized (SlowQueryLog.class) {
+                if (shared == null) {
+                    shared = new SlowQueryLog(
+                            Long.getLong("db.slowQuery.thresholdMillis", DEFAULT_THRESHOLD_MILLIS),
+                            Integer.getInteger("db.slowQuery.capacity", DEFAULT_CAPACITY));
+                }
+                log = shared;
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Changes the threshold for statements executed from now on; 0 or less turns the log off
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = Math.max(0L, thresholdMillis) * 1_000_000L;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdNanos / 1_000_000L;
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return isEnabled() && elapsedNanos >= thresholdNanos;
+    }
+
+    public void record(Entry entry) {
+        synchronized (this) {
+            entries[next] = entry;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+        System.err.println(entry);
+    }
+
+    /**
+     * Returns the kept statements, newest first
+     */
+    public synchronized List<Entry> getRecent() {
+        List<Entry> recent = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            recent.add(entries[(next - i + entries.length) % entries.length]);
+        }
+        return recent;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Formats bound parameters for display, replacing any value bound to {@code password_hash}.
+     * If the statement mentions the column but its parameter cannot be located, every string parameter is hidden.
+     * @param sql The statement
+     * @param parameters Parameter values by position, starting at index 0 for parameter 1
+     */
+    static List<String> redact(String sql, List<Object> parameters) {
+        List<String> shown = new ArrayList<>(parameters.size());
+        for (Object parameter : parameters) {
+            shown.add(format(parameter));
+        }
+        if (sql == null || !sql.toLowerCase(Locale.ROOT).contains(SECRET_COLUMN)) {
+            return shown;
+        }
+
+        List<Integer> secret = secretParameterIndexes(sql);
+        for (int i = 0; i < shown.size(); i++) {
+            boolean hide = secret.isEmpty() ? parameters.get(i) instanceof String : secret.contains(i);
+            if (hide) {
+                shown.set(i, REDACTED);
+            }
+        }
+        return shown;
+    }
+
+    private static List<Integer> secretParameterIndexes(String sql) {
+        List<Integer> indexes = new ArrayList<>();
+
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            String[] columns = insert.group(1).split(",");
+            int firstValue = countPlaceholders(sql, insert.end());
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].trim().equalsIgnoreCase(SECRET_COLUMN)) {
+                    indexes.add(firstValue + i);
+                }
+            }
+        }
+
+        Matcher comparison = SECRET_COMPARISON.matcher(sql);
+        while (comparison.find()) {
+            indexes.add(countPlaceholders(sql, comparison.end() - 1));
+        }
+        return indexes;
+    }
+
+    private static int countPlaceholders(String sql, int end) {
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String format(Object parameter) {
+        if (parameter == null) {
+            return "NULL";
+        }
+        if (parameter instanceof String text) {
+            return "'" + text + "'";
+        }
+        return String.valueOf(parameter);
+    }
+
+    /**
+     * One slow statement
+     */
+    public static class Entry {
+        private final LocalDateTime timestamp;
+        private final String sql;
+        private final List<String> parameters;
+        private final long rows;
+        private final long elapsedNanos;
+        private final String plan;
+
+        public Entry(LocalDateTime timestamp, String sql, List<String> parameters, long rows, long elapsedNanos, String plan) {
+            this.timestamp = timestamp;
+            this.sql = sql;
+            this.parameters = Collections.unmodifiableList(parameters);
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+            this.plan = plan;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * Bound parameter values in order, with secrets replaced
+         */
+        public List<String> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * Rows read or changed; -1 if unknown
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public double getElapsedMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+
+        /**
+         * Output of {@code EXPLAIN QUERY PLAN}, one step per line
+         */
+        public String getPlan() {
+            return plan;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Slow SQL (%.1f ms, %d rows): %s%n  parameters: %s%n  plan:%n%s",
+                    getElapsedMillis(), rows, sql, parameters, plan.indent(4).stripTrailing());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bankz.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one SQL execution made through {@link DatabaseManager#getConnection()}.
+ * A query's duration runs until its result set is closed, because SQLite does most of the work
+ * while rows are being stepped through.
+ */
+@Name("com.bankz.SqlExecution")
+@Label("SQL Execution")
+@Category({ "Bank-Z", "Database" })
+@Description("A statement executed by a DAO")
+class SqlExecutionEvent extends Event {
+
+    @Label("Statement ID")
+    @Description("Stable hash of the SQL text, for grouping executions of the same statement")
+    String statementId;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    @Description("Rows read by a query or changed by an update; -1 if unknown")
+    long rows;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    static String statementIdOf(String sql) {
+        return sql == null ? null : String.format("%08x", sql.hashCode());
+    }
+}
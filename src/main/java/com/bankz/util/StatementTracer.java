@@ -0,0 +1,301 @@
+package com.bankz.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.EventType;
+
+/**
+ * Wraps connections handed out by {@link DatabaseManager} to observe every statement execution.
+ * Each execution emits a {@link SqlExecutionEvent}, and one that reaches the {@link SlowQueryLog}
+ * threshold is logged with its parameters and query plan. Connections are only wrapped while
+ * a recording has the event enabled or the slow query log is on.
+ */
+final class StatementTracer {
+
+    private static final EventType SQL_EXECUTION = EventType.getEventType(SqlExecutionEvent.class);
+
+    private StatementTracer() {
+    }
+
+    static Connection trace(Connection connection) {
+        SlowQueryLog slowQueryLog = SlowQueryLog.getShared();
+        if (!SQL_EXECUTION.isEnabled() && !slowQueryLog.isEnabled()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConnectionHandler(connection, slowQueryLog));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Runs {@code EXPLAIN QUERY PLAN} for a statement, indenting each step under its parent.
+     * Runs on the caller's thread and connection, so inside any transaction the caller has open.
+     */
+    static String explain(Connection connection, String sql) {
+        if (sql == null) {
+            return "(no SQL text)";
+        }
+        StringBuilder plan = new StringBuilder();
+        Map<Integer, Integer> depths = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int depth = depths.getOrDefault(rs.getInt("parent"), -1) + 1;
+                depths.put(rs.getInt("id"), depth);
+                if (plan.length() > 0) {
+                    plan.append(System.lineSeparator());
+                }
+                plan.append("  ".repeat(depth)).append(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            return "(plan unavailable: " + e.getMessage() + ")";
+        }
+        return plan.length() == 0 ? "(no plan)" : plan.toString();
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final SlowQueryLog slowQueryLog;
+
+        private ConnectionHandler(Connection connection, SlowQueryLog slowQueryLog) {
+            this.connection = connection;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement": {
+                    PreparedStatement statement = (PreparedStatement) StatementTracer.invoke(connection, method, args);
+                    return Proxy.newProxyInstance(
+                            PreparedStatement.class.getClassLoader(),
+                            new Class<?>[] { PreparedStatement.class },
+                            new StatementHandler(this, statement, (String) args[0]));
+                }
+                case "createStatement": {
+                    Statement statement = (Statement) StatementTracer.invoke(connection, method, args);
+                    return Proxy.newProxyInstance(
+                            Statement.class.getClassLoader(),
+                            new Class<?>[] { Statement.class },
+                            new StatementHandler(this, statement, null));
+                }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return StatementTracer.invoke(connection, method, args);
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler owner;
+        private final Statement statement;
+        private final String preparedSql;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private Execution openQuery;
+
+        private StatementHandler(ConnectionHandler owner, Statement statement, String preparedSql) {
+            this.owner = owner;
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            switch (name) {
+                case "close":
+                    finishQuery();
+                    break;
+                case "clearParameters":
+                    Arrays.fill(parameters, 0, parameterCount, null);
+                    parameterCount = 0;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        bind(index, "setNull".equals(name) ? null : args[1]);
+                    }
+                    break;
+            }
+            return StatementTracer.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishQuery();
+            // Plain statements carry their SQL as the first argument
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            Execution execution = new Execution(owner, sql, Arrays.asList(Arrays.copyOf(parameters, parameterCount)));
+            Object result;
+            try {
+                result = StatementTracer.invoke(statement, method, args);
+            } catch (Throwable e) {
+                execution.finish(-1L, false);
+                throw e;
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                openQuery = execution;
+                return Proxy.newProxyInstance(
+                        ResultSet.class.getClassLoader(),
+                        new Class<?>[] { ResultSet.class },
+                        new ResultSetHandler(resultSet, execution));
+            }
+            execution.finish(rowsOf(result), true);
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private void finishQuery() {
+            if (openQuery != null) {
+                openQuery.finish(openQuery.rows, true);
+                openQuery = null;
+            }
+        }
+
+        private static long rowsOf(Object result) {
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(count, 0L);
+                }
+                return total;
+            }
+            return -1L;
+        }
+    }
+
+    /**
+     * Counts the rows a query returns and finishes its execution when the result set is closed
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final Execution execution;
+
+        private ResultSetHandler(ResultSet resultSet, Execution execution) {
+            this.resultSet = resultSet;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    Object hasRow = StatementTracer.invoke(resultSet, method, args);
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        execution.rows++;
+                    }
+                    return hasRow;
+                }
+                case "close": {
+                    Object result = StatementTracer.invoke(resultSet, method, args);
+                    execution.finish(execution.rows, true);
+                    return result;
+                }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return StatementTracer.invoke(resultSet, method, args);
+            }
+        }
+    }
+
+    /**
+     * One statement execution, from the execute call until its results are consumed
+     */
+    private static final class Execution {
+        private final ConnectionHandler owner;
+        private final String sql;
+        private final List<Object> parameters;
+        private final SqlExecutionEvent event = new SqlExecutionEvent();
+        private final long start = System.nanoTime();
+        private long rows;
+        private boolean finished;
+
+        private Execution(ConnectionHandler owner, String sql, List<Object> parameters) {
+            this.owner = owner;
+            this.sql = sql;
+            this.parameters = parameters;
+            event.begin();
+        }
+
+        private void finish(long rows, boolean succeeded) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long elapsed = System.nanoTime() - start;
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.statementId = SqlExecutionEvent.statementIdOf(sql);
+                event.sql = sql;
+                event.rows = rows;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+
+            if (owner.slowQueryLog.isSlow(elapsed)) {
+                owner.slowQueryLog.record(new SlowQueryLog.Entry(LocalDateTime.now(), sql,
+                        SlowQueryLog.redact(sql, parameters), rows, elapsed,
+                        explain(owner.connection, sql)));
+            }
+        }
+    }
+}
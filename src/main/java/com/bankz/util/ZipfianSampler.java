@@ -0,0 +1,51 @@
+package com.bankz.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks from {@code 0} to {@code n - 1} with probability proportional to {@code 1 / (rank + 1)^exponent}.
+ * Rank 0 is the most popular. An exponent of 0 is uniform; around 1 matches the traffic of real account
+ * populations, where a handful of payroll and merchant accounts see most of the activity.
+ * <p>
+ * The cumulative distribution is precomputed, so each draw is a binary search. Not thread-safe.
+ */
+public class ZipfianSampler {
+
+    private final double[] cumulative;
+    private final Random random;
+
+    public ZipfianSampler(int n, double exponent, Random random) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Sampler needs at least one rank");
+        }
+        if (exponent < 0.0) {
+            throw new IllegalArgumentException("Exponent must not be negative");
+        }
+        this.cumulative = new double[n];
+        this.random = random;
+
+        double total = 0.0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    /**
+     * Returns the next rank
+     */
+    public int next() {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        // Guard against rounding leaving the last bucket slightly below 1.0
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.bankz;
+
+import com.bankz.models.Money;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("data_generator_test.db"));
+        DatabaseManager.initializeDatabase();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testGeneratedBalancesMatchTheLedger() throws SQLException {
+        // Arrange
+        DataGenerator.Options options = DataGenerator.Options.parse(new String[] {
+                "--customers=50", "--accounts-per-customer=3", "--transactions=5000", "--opening-balance=100.00"
+        });
+
+        // Act
+        DataGenerator.Result result = new DataGenerator().generate(options);
+
+        // Assert - counts, and every balance equals the sum of its ledger rows and is not negative
+        assertEquals(50, count("SELECT COUNT(*) FROM customers"));
+        assertEquals(150, count("SELECT COUNT(*) FROM accounts"));
+        assertEquals(5150, result.getLedgerRows());
+        assertEquals(5150, count("SELECT COUNT(*) FROM transactions"));
+        assertEquals(0, count("SELECT COUNT(*) FROM accounts WHERE balance < 0"));
+        assertEquals(0, count("SELECT COUNT(*) FROM accounts a WHERE a.balance <> "
+                + "COALESCE((SELECT SUM(amount) FROM transactions WHERE destination_account_id = a.account_id), 0) - "
+                + "COALESCE((SELECT SUM(amount) FROM transactions WHERE source_account_id = a.account_id), 0)"));
+        assertEquals(3, count("SELECT COUNT(*) FROM accounts WHERE customer_id = " + result.getFirstCustomerId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM customers WHERE username = '" + result.getUsername(49) + "'"));
+    }
+
+    @Test
+    void testSameSeedProducesSameData() throws SQLException {
+        // Arrange
+        DataGenerator.Options options = new DataGenerator.Options();
+        options.setCustomers(20);
+        options.setTransactions(2000);
+        options.setOpeningBalance(Money.parse("50.00"));
+        // The default end date is fixed, so default options are reproducible too
+        assertEquals(LocalDate.of(2024, 1, 1), options.getUntil());
+
+        // Act - the second run uses another prefix so usernames and account numbers stay unique
+        DataGenerator.Result first = new DataGenerator().generate(options);
+        options.setUsernamePrefix("again");
+        DataGenerator.Result second = new DataGenerator().generate(options);
+
+        // Assert
+        assertEquals(balances(first), balances(second));
+        assertEquals(2 * first.getLedgerRows(), count("SELECT COUNT(*) FROM transactions"));
+    }
+
+    @Test
+    void testTrafficIsSkewedTowardsFewAccounts() throws SQLException {
+        // Arrange
+        DataGenerator.Options options = new DataGenerator.Options();
+        options.setCustomers(100);
+        options.setAccountsPerCustomer(1);
+        options.setTransactions(10_000);
+
+        // Act
+        new DataGenerator().generate(options);
+
+        // Assert - the busiest tenth of accounts takes several times its share of the deposits
+        long busiest = count("SELECT SUM(c) FROM (SELECT COUNT(*) AS c FROM transactions WHERE type = 'DEPOSIT' "
+                + "GROUP BY destination_account_id ORDER BY c DESC LIMIT 10)");
+        long deposits = count("SELECT COUNT(*) FROM transactions WHERE type = 'DEPOSIT'");
+        assertTrue(busiest > deposits * 2 / 5, "top 10 accounts had " + busiest + " of " + deposits + " deposits");
+    }
+
+    @Test
+    void testRejectsUnknownOptions() {
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[] {"--customer=5"}));
+        assertThrows(IllegalArgumentException.class, () -> DataGenerator.Options.parse(new String[] {"--customers=none"}));
+    }
+
+    private List<Long> balances(DataGenerator.Result result) throws SQLException {
+        List<Long> balances = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT balance FROM accounts WHERE account_id >= " + result.getFirstAccountId()
+                     + " AND account_id < " + (result.getFirstAccountId() + result.getAccountCount()) + " ORDER BY account_id")) {
+            while (rs.next()) {
+                balances.add(rs.getLong(1));
+            }
+        }
+        return balances;
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bankz;
+
+import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CachingAccountDao;
+import com.bankz.dao.CustomerDaoImpl;
+import com.bankz.dao.EmployeeDaoImpl;
+import com.bankz.dao.PrincipalDaoImpl;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.services.AccountServiceImpl;
+import com.bankz.services.AuthenticationServiceImpl;
+import com.bankz.services.LoginThrottle;
+import com.bankz.util.DatabaseManager;
+import com.bankz.util.PasswordHashingPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadDriverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("load_driver_test.db"));
+        DatabaseManager.initializeDatabase();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testConcurrentMixKeepsTheLedgerConsistent() throws SQLException {
+        // Arrange - few accounts and small balances so transfers contend and some withdrawals are refused
+        LoadDriver.Options options = LoadDriver.Options.parse(new String[] {
+                "--threads=16", "--operations=1500", "--mix=login:1,deposit:3,withdraw:3,transfer:4,history:2",
+                "--customers=5", "--transactions=200", "--opening-balance=20.00"
+        });
+        DataGenerator.Result dataset = new DataGenerator().generate(options.getDataset());
+        LoadDriver driver = new LoadDriver(
+                new AuthenticationServiceImpl(new CustomerDaoImpl(), new EmployeeDaoImpl(), new PrincipalDaoImpl(),
+                        PasswordHashingPool.getShared(), LoginThrottle.unlimited()),
+                new AccountServiceImpl(new CachingAccountDao(new AccountDaoImpl(), 64), new TransactionDaoImpl()));
+
+        // Act
+        LoadDriver.Report report = driver.run(options, dataset);
+
+        // Assert
+        assertEquals(1500, report.getTotalOperations());
+        assertEquals(0, report.getTotalErrors(), report.toString());
+        assertTrue(report.isConsistent(), report.toString());
+        for (LoadDriver.Operation operation : LoadDriver.Operation.values()) {
+            assertTrue(report.getStats(operation).getCount() > 0, operation + " never ran");
+        }
+    }
+
+    @Test
+    void testRejectsUnknownOperationInMix() {
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse(new String[] {"--mix=deposit:1,refund:1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse(new String[] {"--mix=deposit:0"}));
+    }
+}
@@ -44,6 +44,7 @@ class EmployeeLoginIntegrationTest {
             stmt.execute("DROP TABLE IF EXISTS accounts");
             stmt.execute("DROP TABLE IF EXISTS transactions");
         }
+        DatabaseManager.closeConnection();
         
         // Reset system property
         System.clearProperty("db.url");
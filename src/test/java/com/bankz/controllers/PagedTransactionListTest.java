@@ -0,0 +1,125 @@
+package com.bankz.controllers;
+
+import com.bankz.dao.TransactionDao;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.models.Money;
+import com.bankz.models.Transaction;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTransactionListTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TransactionDao transactionDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("paged_list_test.db"));
+        DatabaseManager.initializeDatabase();
+        transactionDao = new TransactionDaoImpl();
+
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            batch.add(new Transaction(null, 1, "DEPOSIT", Money.ofCents(100), "Row " + i));
+        }
+        transactionDao.saveAll(batch);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testRowsAreNewestFirstAcrossPages() throws SQLException {
+        // Arrange
+        PagedTransactionList list = new PagedTransactionList(transactionDao, 10, 3);
+
+        // Act & Assert - a full forward then backward scroll sees every row in order
+        assertEquals(95, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals("Row " + (94 - i), list.get(i).getDescription());
+        }
+        for (int i = list.size() - 1; i >= 0; i--) {
+            assertEquals("Row " + (94 - i), list.get(i).getDescription());
+        }
+    }
+
+    @Test
+    void testCacheIsBounded() throws SQLException {
+        // Arrange
+        PagedTransactionList list = new PagedTransactionList(transactionDao, 10, 3);
+
+        // Act
+        for (int i = 0; i < list.size(); i++) {
+            list.get(i);
+        }
+
+        // Assert - each page read once on the way down, never more than three held
+        assertEquals(10, list.getPageLoads());
+        assertTrue(list.getCachedPageCount() <= 3);
+        list.get(94);
+        assertEquals(10, list.getPageLoads());
+    }
+
+    @Test
+    void testJumpLoadsOnlyTheTargetPage() throws SQLException {
+        // Arrange
+        PagedTransactionList list = new PagedTransactionList(transactionDao, 10, 3);
+
+        // Act
+        Transaction row = list.get(57);
+
+        // Assert
+        assertEquals("Row 37", row.getDescription());
+        assertEquals(1, list.getPageLoads());
+        assertEquals(-1, list.indexOf(new Transaction()));
+        assertEquals(57, list.indexOf(row));
+    }
+
+    @Test
+    void testLaterInsertsDoNotShiftPages() throws SQLException {
+        // Arrange
+        PagedTransactionList list = new PagedTransactionList(transactionDao, 10, 3);
+        List<Transaction> later = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            later.add(new Transaction(null, 1, "DEPOSIT", Money.ofCents(100), "Later " + i));
+        }
+        transactionDao.saveAll(later);
+
+        // Act & Assert - far jumps and the pages around them still line up with the snapshot
+        assertEquals(95, list.size());
+        assertEquals("Row 0", list.get(94).getDescription());
+        assertEquals("Row 37", list.get(57).getDescription());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals("Row " + (94 - i), list.get(i).getDescription());
+        }
+    }
+
+    @Test
+    void testDeletedTransactionReadsAsNull() throws SQLException {
+        // Arrange
+        // IDs run from 1 to 95, so ID 50 is "Row 49" at index 45
+        assertTrue(transactionDao.delete(50));
+        PagedTransactionList list = new PagedTransactionList(transactionDao, 10, 3);
+
+        // Act & Assert - the gap keeps its index instead of pulling older rows up
+        assertEquals(95, list.size());
+        assertNull(list.get(45));
+        assertEquals("Row 48", list.get(46).getDescription());
+        assertEquals("Row 50", list.get(44).getDescription());
+    }
+}
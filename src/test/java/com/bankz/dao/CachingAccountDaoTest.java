@@ -0,0 +1,105 @@
+package com.bankz.dao;
+
+import com.bankz.models.Account;
+import com.bankz.models.Money;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAccountDaoTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountDao accountDao;
+    private CachingAccountDao cachingDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("caching_account_dao_test.db"));
+        DatabaseManager.initializeDatabase();
+        accountDao = new AccountDaoImpl();
+        cachingDao = new CachingAccountDao(accountDao, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testReadsAreCachedByIdAndNumberAsCopies() throws SQLException {
+        // Arrange
+        Account account = createAccount("ACC1", Money.parse("10.00"));
+
+        // Act
+        Account first = cachingDao.findById(account.getAccountId());
+        first.setBalance(Money.parse("999.00"));
+        Account second = cachingDao.findById(account.getAccountId());
+        Account byNumber = cachingDao.findByAccountNumber("ACC1");
+
+        // Assert - one miss, then hits that are unaffected by changes to earlier copies
+        assertEquals(Money.parse("10.00"), second.getBalance());
+        assertEquals(Money.parse("10.00"), byNumber.getBalance());
+        assertNotSame(second, byNumber);
+        assertEquals(1, cachingDao.getStats().getMisses());
+        assertEquals(2, cachingDao.getStats().getHits());
+    }
+
+    @Test
+    void testWritesInvalidateAndLeastRecentlyUsedIsEvicted() throws Exception {
+        // Arrange
+        Account a = createAccount("ACC1", Money.parse("10.00"));
+        Account b = createAccount("ACC2", Money.ZERO);
+        Account c = createAccount("ACC3", Money.ZERO);
+        cachingDao.findById(a.getAccountId());
+        cachingDao.findById(b.getAccountId());
+
+        // Act - credit inside a transaction, then touch a third account
+        DatabaseManager.inTransaction(() -> {
+            assertTrue(cachingDao.credit(a.getAccountId(), Money.parse("5.00")));
+            // The transaction sees its own write rather than the cached row
+            assertEquals(Money.parse("15.00"), cachingDao.findById(a.getAccountId()).getBalance());
+            return null;
+        });
+        assertEquals(Money.parse("15.00"), cachingDao.findByAccountNumber("ACC1").getBalance());
+        cachingDao.findById(c.getAccountId());
+
+        // Assert - ACC2 was the least recently used entry when ACC3 was added
+        CachingAccountDao.CacheStats stats = cachingDao.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        assertTrue(stats.getInvalidations() >= 1);
+        assertEquals(4, stats.getMisses());
+    }
+
+    @Test
+    void testRolledBackWriteIsNotCached() throws SQLException {
+        // Arrange
+        Account account = createAccount("ACC1", Money.parse("10.00"));
+        cachingDao.findById(account.getAccountId());
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> DatabaseManager.inTransaction(() -> {
+            cachingDao.updateBalance(account.getAccountId(), Money.parse("1.00"));
+            throw new IllegalStateException("Abort");
+        }));
+
+        // Assert
+        assertEquals(Money.parse("10.00"), cachingDao.findById(account.getAccountId()).getBalance());
+    }
+
+    private Account createAccount(String number, Money balance) throws SQLException {
+        Account account = new Account(1, number, "Checking");
+        account.setBalance(balance);
+        return accountDao.save(account);
+    }
+}
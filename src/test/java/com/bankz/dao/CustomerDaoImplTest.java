@@ -98,4 +98,20 @@ class CustomerDaoImplTest {
         assertTrue(customerDao.usernameExists("bobjohnson"));
         assertFalse(customerDao.usernameExists("nonexistentuser"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdatePasswordHashOnlyReplacesTheExpectedHash() throws SQLException {
+        // Create a new customer
+        Customer customer = customerDao.save(new Customer("Ann", "Lee", "annlee", "oldhash"));
+        
+        // A stale expected hash leaves the row alone
+        assertFalse(customerDao.updatePasswordHash(customer.getCustomerId(), "otherhash", "newhash"));
+        assertEquals("oldhash", customerDao.findById(customer.getCustomerId()).getPasswordHash());
+        
+        // The current hash is replaced without touching the other columns
+        assertTrue(customerDao.updatePasswordHash(customer.getCustomerId(), "oldhash", "newhash"));
+        Customer updated = customerDao.findById(customer.getCustomerId());
+        assertEquals("newhash", updated.getPasswordHash());
+        assertEquals("Ann", updated.getFirstName());
+    }
+}
@@ -0,0 +1,82 @@
+package com.bankz.dao;
+
+import com.bankz.models.Customer;
+import com.bankz.models.Employee;
+import com.bankz.models.Principal;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalDaoImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PrincipalDao principalDao;
+    private CustomerDao customerDao;
+    private EmployeeDao employeeDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("principal_dao_test.db"));
+        DatabaseManager.initializeDatabase();
+        principalDao = new PrincipalDaoImpl();
+        customerDao = new CustomerDaoImpl();
+        employeeDao = new EmployeeDaoImpl();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testFindsCustomersAndEmployeesInOneLookup() throws SQLException {
+        // Arrange
+        Customer customer = customerDao.save(new Customer("John", "Doe", "johndoe", "customerhash"));
+        Employee employee = employeeDao.save(new Employee("Ada", "Admin", "ada", "employeehash", "ADMIN"));
+
+        // Act
+        List<Principal> customers = principalDao.findByUsername("johndoe");
+        List<Principal> employees = principalDao.findByUsername("ada");
+
+        // Assert
+        assertEquals(1, customers.size());
+        Customer foundCustomer = assertInstanceOf(Customer.class, customers.get(0));
+        assertEquals(customer.getCustomerId(), foundCustomer.getCustomerId());
+        assertEquals("customerhash", foundCustomer.getPasswordHash());
+        assertNotNull(foundCustomer.getDateCreated());
+
+        assertEquals(1, employees.size());
+        Employee foundEmployee = assertInstanceOf(Employee.class, employees.get(0));
+        assertEquals(employee.getEmployeeId(), foundEmployee.getEmployeeId());
+        assertEquals("ADMIN", foundEmployee.getRole());
+        assertNotNull(foundEmployee.getDateHired());
+
+        assertTrue(principalDao.findByUsername("nobody").isEmpty());
+    }
+
+    @Test
+    void testReturnsCustomerBeforeEmployeeWithSameUsername() throws SQLException {
+        // Arrange
+        employeeDao.save(new Employee("Sam", "Staff", "sam", "employeehash", "TELLER"));
+        customerDao.save(new Customer("Sam", "Customer", "sam", "customerhash"));
+
+        // Act
+        List<Principal> principals = principalDao.findByUsername("sam");
+
+        // Assert
+        assertEquals(2, principals.size());
+        assertInstanceOf(Customer.class, principals.get(0));
+        assertInstanceOf(Employee.class, principals.get(1));
+    }
+}
@@ -0,0 +1,126 @@
+package com.bankz.dao;
+
+import com.bankz.models.Money;
+import com.bankz.models.Transaction;
+import com.bankz.models.TransactionCursor;
+import com.bankz.models.TransactionPage;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionDaoImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TransactionDao transactionDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("transaction_dao_test.db"));
+        DatabaseManager.initializeDatabase();
+        transactionDao = new TransactionDaoImpl();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testSaveAllAssignsGeneratedIds() throws SQLException {
+        // Arrange - an existing row so the batch does not start at ID 1
+        transactionDao.save(new Transaction(null, 1, "DEPOSIT", Money.parse("1.00"), "Seed"));
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(new Transaction(null, 1, "DEPOSIT", Money.ofCents(i * 100L + 25), "Branch " + i));
+        }
+
+        // Act
+        List<Transaction> saved = transactionDao.saveAll(batch);
+
+        // Assert - every ID points at the row that was inserted for it
+        assertEquals(500, saved.size());
+        for (Transaction transaction : saved) {
+            Transaction stored = transactionDao.findById(transaction.getTransactionId());
+            assertNotNull(stored);
+            assertEquals(transaction.getDescription(), stored.getDescription());
+        }
+        assertEquals(501, transactionDao.findAll().size());
+    }
+
+    @Test
+    void testSaveAllIsAllOrNothing() throws SQLException {
+        // Arrange - the second row violates the NOT NULL constraint on type
+        List<Transaction> batch = List.of(
+                new Transaction(null, 1, "DEPOSIT", Money.parse("5.00"), "Good"),
+                new Transaction(null, 1, null, Money.parse("5.00"), "Bad"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> transactionDao.saveAll(batch));
+        assertTrue(transactionDao.findAll().isEmpty());
+    }
+
+    @Test
+    void testSaveAllWithEmptyList() throws SQLException {
+        assertTrue(transactionDao.saveAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void testFindPageByAccountIdWalksHistoryNewestFirst() throws SQLException {
+        // Arrange - ties on timestamp, both directions, a self-transfer and another account's rows
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            Transaction deposit = new Transaction(null, 1, "DEPOSIT", Money.ofCents(100), "In " + i);
+            deposit.setTimestamp(base.plusMinutes(i / 2));
+            batch.add(deposit);
+            Transaction withdrawal = new Transaction(1, null, "WITHDRAWAL", Money.ofCents(100), "Out " + i);
+            withdrawal.setTimestamp(base.plusMinutes(i / 2));
+            batch.add(withdrawal);
+            batch.add(new Transaction(2, null, "WITHDRAWAL", Money.ofCents(100), "Other " + i));
+        }
+        batch.add(new Transaction(1, 1, "TRANSFER", Money.ofCents(100), "Self"));
+        transactionDao.saveAll(batch);
+
+        // Act
+        List<Transaction> walked = new ArrayList<>();
+        TransactionCursor cursor = null;
+        int pages = 0;
+        do {
+            TransactionPage page = transactionDao.findPageByAccountId(1, cursor, 10);
+            assertTrue(page.getTransactions().size() <= 10);
+            walked.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(47, walked.size());
+        assertEquals(5, pages);
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < walked.size(); i++) {
+            assertTrue(ids.add(walked.get(i).getTransactionId()));
+            if (i > 0) {
+                Transaction newer = walked.get(i - 1);
+                Transaction older = walked.get(i);
+                int order = newer.getTimestamp().compareTo(older.getTimestamp());
+                assertTrue(order > 0 || (order == 0 && newer.getTransactionId() > older.getTransactionId()));
+            }
+        }
+        assertEquals("Self", walked.get(0).getDescription());
+    }
+}
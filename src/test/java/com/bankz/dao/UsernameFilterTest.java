@@ -0,0 +1,113 @@
+package com.bankz.dao;
+
+import com.bankz.models.Customer;
+import com.bankz.services.CustomerServiceImpl;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UsernameFilter usernameFilter;
+    private CustomerDao customerDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("username_filter_test.db"));
+        DatabaseManager.initializeDatabase();
+        usernameFilter = new UsernameFilter("customers");
+        customerDao = new CustomerDaoImpl(usernameFilter);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testFreeUsernamesAreAnsweredWithoutQuerying() throws SQLException {
+        // Arrange
+        customerDao.save(new Customer("John", "Doe", "johndoe", "hash"));
+
+        // Act
+        boolean taken = customerDao.usernameExists("johndoe");
+        for (int i = 0; i < 100; i++) {
+            assertFalse(customerDao.usernameExists("free" + i));
+        }
+
+        // Assert
+        assertTrue(taken);
+        UsernameFilter.Stats stats = usernameFilter.getStats();
+        assertEquals(1, stats.getRebuilds());
+        assertEquals(1, stats.getSize());
+        assertEquals(100, stats.getDefiniteMisses() + stats.getFalsePositives());
+        assertEquals(stats.getFalsePositives() + 1, stats.getPossibleHits());
+        assertTrue(stats.getDefiniteMisses() >= 95, stats.toString());
+    }
+
+    @Test
+    void testRowsWrittenDirectlyAreSeenAfterInvalidation() throws SQLException {
+        // Arrange - build the filter, then insert behind the DAO's back
+        assertFalse(customerDao.usernameExists("bulkuser"));
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO customers (first_name, last_name, username, password_hash, date_created) "
+                    + "VALUES ('Bulk', 'User', 'bulkuser', 'hash', '2024-01-01T00:00')");
+        }
+
+        // Act
+        usernameFilter.invalidate();
+
+        // Assert
+        assertTrue(customerDao.usernameExists("bulkuser"));
+        assertEquals(2, usernameFilter.getStats().getRebuilds());
+    }
+
+    @Test
+    void testUsernameTakenByAnotherWriterIsReportedAsExisting() throws SQLException {
+        // Arrange - build the filter, then insert as another process would, without invalidating
+        assertFalse(customerDao.usernameExists("racer"));
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO customers (first_name, last_name, username, password_hash, date_created) "
+                    + "VALUES ('Other', 'Process', 'racer', 'hash', '2024-01-01T00:00')");
+        }
+        assertFalse(customerDao.usernameExists("racer"));
+
+        // Act & Assert - the UNIQUE constraint catches it and the filter learns the name
+        CustomerServiceImpl customerService = new CustomerServiceImpl(customerDao);
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> customerService.createCustomer("Late", "Comer", "racer", "password123"));
+        assertEquals("Username already exists", thrown.getMessage());
+        assertTrue(customerDao.usernameExists("racer"));
+    }
+
+    @Test
+    void testRebuildsWhenTheDatabaseChanges() throws SQLException {
+        // Arrange
+        customerDao.save(new Customer("John", "Doe", "johndoe", "hash"));
+        assertTrue(customerDao.usernameExists("johndoe"));
+
+        // Act - point at a fresh database
+        DatabaseManager.closeConnection();
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("other.db"));
+        DatabaseManager.initializeDatabase();
+
+        // Assert
+        assertFalse(customerDao.usernameExists("johndoe"));
+        assertEquals(2, usernameFilter.getStats().getRebuilds());
+    }
+}
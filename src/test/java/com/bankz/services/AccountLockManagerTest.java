@@ -0,0 +1,69 @@
+package com.bankz.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLockManagerTest {
+
+    @Test
+    void testStripeCountIsRoundedToPowerOfTwo() {
+        assertEquals(1, new AccountLockManager(1).getStripeCount());
+        assertEquals(64, new AccountLockManager(64).getStripeCount());
+        assertEquals(128, new AccountLockManager(65).getStripeCount());
+    }
+
+    @Test
+    void testOpposingTransfersDoNotDeadlock() throws InterruptedException {
+        // Arrange
+        AccountLockManager lockManager = new AccountLockManager(16);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch done = new CountDownLatch(2);
+
+        // Act - two threads lock the same pair of accounts in opposite argument order
+        executor.submit(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                try (AccountLockManager.LockHandle lock = lockManager.lockBoth(1, 2)) {
+                    Thread.onSpinWait();
+                }
+            }
+            done.countDown();
+        });
+        executor.submit(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                try (AccountLockManager.LockHandle lock = lockManager.lockBoth(2, 1)) {
+                    Thread.onSpinWait();
+                }
+            }
+            done.countDown();
+        });
+
+        // Assert
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        long acquisitions = 0;
+        for (AccountLockManager.StripeStats stats : lockManager.getStats()) {
+            acquisitions += stats.getAcquisitions();
+        }
+        assertTrue(acquisitions >= 20_000);
+    }
+
+    @Test
+    void testSameStripeIsLockedOnce() {
+        // Arrange - with one stripe every account shares the same lock
+        AccountLockManager lockManager = new AccountLockManager(1);
+
+        // Act & Assert - would self-deadlock or leave the lock held if taken twice
+        try (AccountLockManager.LockHandle lock = lockManager.lockBoth(7, 8)) {
+            assertEquals(1, lockManager.getStats()[0].getAcquisitions());
+        }
+        try (AccountLockManager.LockHandle lock = lockManager.lock(9)) {
+            assertEquals(2, lockManager.getStats()[0].getAcquisitions());
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.bankz.services;
+
+import com.bankz.dao.AccountDao;
+import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.CustomerSummaryDaoImpl;
+import com.bankz.dao.TransactionDao;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.models.Account;
+import com.bankz.models.CustomerSummary;
+import com.bankz.models.Money;
+import com.bankz.models.Transaction;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountDao accountDao;
+    private TransactionDao transactionDao;
+    private AccountServiceImpl accountService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("account_service_test.db"));
+        DatabaseManager.initializeDatabase();
+        accountDao = new AccountDaoImpl();
+        transactionDao = new TransactionDaoImpl();
+        accountService = new AccountServiceImpl(accountDao, transactionDao);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testTransfer_Success() throws Exception {
+        // Arrange
+        Account source = createAccount(Money.parse("100.00"));
+        Account destination = createAccount(Money.parse("5.00"));
+
+        // Act
+        boolean result = accountService.transfer(source.getAccountId(), destination.getAccountId(),
+                Money.parse("40.00"), "Rent");
+
+        // Assert
+        assertTrue(result);
+        assertEquals(Money.parse("60.00"), accountDao.findById(source.getAccountId()).getBalance());
+        assertEquals(Money.parse("45.00"), accountDao.findById(destination.getAccountId()).getBalance());
+        List<Transaction> ledger = transactionDao.findByAccounts(source.getAccountId(), destination.getAccountId());
+        assertEquals(1, ledger.size());
+        assertEquals("TRANSFER", ledger.get(0).getType());
+    }
+
+    @Test
+    void testTransfer_InsufficientFundsLeavesBalancesUnchanged() throws Exception {
+        // Arrange
+        Account source = createAccount(Money.parse("10.00"));
+        Account destination = createAccount(Money.ZERO);
+
+        // Act & Assert
+        assertThrows(InsufficientFundsException.class, () -> accountService.transfer(
+                source.getAccountId(), destination.getAccountId(), Money.parse("10.01"), "Too much"));
+        assertEquals(Money.parse("10.00"), accountDao.findById(source.getAccountId()).getBalance());
+        assertEquals(Money.ZERO, accountDao.findById(destination.getAccountId()).getBalance());
+        assertTrue(transactionDao.findByAccountId(source.getAccountId()).isEmpty());
+    }
+
+    @Test
+    void testTransfer_MissingDestinationRollsBackDebit() throws Exception {
+        // Arrange
+        Account source = createAccount(Money.parse("50.00"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> accountService.transfer(
+                source.getAccountId(), 9999, Money.parse("20.00"), "Nowhere"));
+        assertEquals(Money.parse("50.00"), accountDao.findById(source.getAccountId()).getBalance());
+    }
+
+    @Test
+    void testConcurrentDepositsAreNotLost() throws Exception {
+        // Arrange
+        Account account = createAccount(Money.ZERO);
+        int threads = 8;
+        int depositsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    assertNotNull(accountService.deposit(account.getAccountId(), Money.ofCents(100), "Parallel"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        Money expected = Money.ofCents(threads * depositsPerThread * 100L);
+        assertEquals(expected, accountDao.findById(account.getAccountId()).getBalance());
+    }
+
+    @Test
+    void testGroupCommitPreservesPerCallerResults() throws Exception {
+        // Arrange - a group only closes once every thread has an operation queued, so each
+        // round of deposits shares exactly one commit
+        Account account = createAccount(Money.parse("10.00"));
+        int threads = 8;
+        int depositsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (GroupCommitWriter writer = new GroupCommitWriter(threads, TimeUnit.SECONDS.toMicros(30))) {
+            AccountServiceImpl groupService = new AccountServiceImpl(accountDao, transactionDao,
+                    AccountLockManager.getShared(), writer);
+
+            // Act
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        assertNotNull(groupService.deposit(account.getAccountId(), Money.ofCents(100), "Grouped"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // Assert - every deposit landed, sharing fewer commits than operations
+            assertEquals(Money.parse("210.00"), accountDao.findById(account.getAccountId()).getBalance());
+            assertEquals(threads * depositsPerThread, transactionDao.findByAccountId(account.getAccountId()).size());
+            assertEquals(threads * depositsPerThread, writer.getOperationCount());
+            assertEquals(depositsPerThread, writer.getBatchCount());
+            assertTrue(writer.getBatchCount() < writer.getOperationCount());
+        } finally {
+            executor.shutdown();
+        }
+
+        try (GroupCommitWriter writer = new GroupCommitWriter(32, 2_000L)) {
+            AccountServiceImpl groupService = new AccountServiceImpl(accountDao, transactionDao,
+                    AccountLockManager.getShared(), writer);
+
+            // A failing operation is reported to its caller only
+            assertThrows(InsufficientFundsException.class, () -> groupService.withdraw(
+                    account.getAccountId(), Money.parse("1000.00"), "Too much"));
+            assertThrows(IllegalArgumentException.class, () -> groupService.deposit(9999, Money.ofCents(100), "Nowhere"));
+            Account afterWithdrawal = groupService.withdraw(account.getAccountId(), Money.parse("10.00"), "Cash");
+            assertEquals(Money.parse("200.00"), afterWithdrawal.getBalance());
+        }
+    }
+
+    @Test
+    void testGroupCommitWriterSurvivesAnError() throws Exception {
+        // Arrange
+        Account account = createAccount(Money.parse("10.00"));
+        try (GroupCommitWriter writer = new GroupCommitWriter(1, 0L)) {
+            // Act
+            CompletableFuture<Account> failed = writer.submit(() -> {
+                throw new AssertionError("Boom");
+            });
+            CompletableFuture<Account> next = writer.submit(() -> accountDao.findById(account.getAccountId()));
+
+            // Assert - the Error fails its own group and the writer keeps serving
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, thrown.getCause());
+            assertEquals(account.getAccountId(), next.get(5, TimeUnit.SECONDS).getAccountId());
+        }
+    }
+
+    @Test
+    void testTimedOutOperationIsNeverApplied() throws Exception {
+        // Arrange - the writer is held inside an earlier group until released
+        Account account = createAccount(Money.parse("10.00"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (GroupCommitWriter writer = new GroupCommitWriter(1, 0L, 200L)) {
+            AccountServiceImpl groupService = new AccountServiceImpl(accountDao, transactionDao,
+                    AccountLockManager.getShared(), writer);
+            CompletableFuture<Account> blocker = writer.submit(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Act - the deposit is still queued when its caller gives up
+            Account result = groupService.deposit(account.getAccountId(), Money.parse("5.00"), "Late");
+            release.countDown();
+            blocker.get(5, TimeUnit.SECONDS);
+            CompletableFuture<Account> next = writer.submit(() -> accountDao.findById(account.getAccountId()));
+
+            // Assert - reported as failed and skipped by the writer, so a retry cannot double-post
+            assertNull(result);
+            assertEquals(Money.parse("10.00"), next.get(5, TimeUnit.SECONDS).getBalance());
+            assertTrue(transactionDao.findByAccountId(account.getAccountId()).isEmpty());
+            assertEquals(2, writer.getOperationCount());
+        }
+    }
+
+    @Test
+    void testCustomerSummaryIsBuiltOnceAndKeptUpToDate() throws Exception {
+        // Arrange - customer 1 owns two accounts, customer 2 one
+        Account checking = createAccount(Money.parse("100.00"));
+        Account savings = createAccount(Money.ZERO);
+        Account other = createAccount(2, Money.parse("50.00"));
+        accountService.deposit(checking.getAccountId(), Money.parse("20.00"), "Before first visit");
+
+        // Act - the first read builds the summary from the ledger, later postings update it
+        CustomerSummary built = accountService.getCustomerSummary(1);
+        accountService.withdraw(checking.getAccountId(), Money.parse("5.00"), "Cash");
+        accountService.transfer(checking.getAccountId(), savings.getAccountId(), Money.parse("30.00"), "Own accounts");
+        accountService.transfer(other.getAccountId(), savings.getAccountId(), Money.parse("10.00"), "Gift");
+        CustomerSummary updated = accountService.getCustomerSummary(1);
+
+        // Assert
+        assertEquals(Money.parse("20.00"), built.getMonthInflow());
+        assertEquals(1, built.getRecentTransactions().size());
+        assertEquals(Money.parse("125.00"), updated.getTotalBalance());
+        assertEquals(2, updated.getAccounts().size());
+        assertEquals(Money.parse("30.00"), updated.getMonthInflow());
+        assertEquals(Money.parse("5.00"), updated.getMonthOutflow());
+        assertEquals("Gift", updated.getRecentTransactions().get(0).getDescription());
+        assertEquals(4, updated.getRecentTransactions().size());
+
+        // The incrementally maintained summary matches one rebuilt from scratch
+        CustomerSummary otherSummary = accountService.getCustomerSummary(2);
+        assertEquals(Money.parse("10.00"), otherSummary.getMonthOutflow());
+        DatabaseManager.inTransaction(() -> {
+            new CustomerSummaryDaoImpl().rebuild(1, updated.getMonth());
+            return null;
+        });
+        CustomerSummary rebuilt = accountService.getCustomerSummary(1);
+        assertEquals(updated.getMonthInflow(), rebuilt.getMonthInflow());
+        assertEquals(updated.getMonthOutflow(), rebuilt.getMonthOutflow());
+        assertEquals(updated.getRecentTransactions().size(), rebuilt.getRecentTransactions().size());
+    }
+
+    @Test
+    void testOperationsAreRecordedAsFlightRecorderEvents() throws Exception {
+        // Arrange
+        Account source = createAccount(Money.parse("100.00"));
+        Account destination = createAccount(Money.parse("0.00"));
+        Path file = tempDir.resolve("operations.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("com.bankz.AccountOperation");
+            recording.enable("com.bankz.SqlExecution");
+            recording.start();
+            accountService.deposit(destination.getAccountId(), Money.parse("25.00"), "Cash");
+            accountService.transfer(source.getAccountId(), destination.getAccountId(), Money.parse("40.00"), "Rent");
+            assertThrows(InsufficientFundsException.class,
+                    () -> accountService.withdraw(source.getAccountId(), Money.parse("500.00"), "Too much"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<String> operations = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("com.bankz.AccountOperation")) {
+                operations.add(event.getString("operation") + ":" + event.getString("outcome") + ":" + event.getString("amountBucket"));
+            }
+        }
+        assertEquals(List.of("DEPOSIT:OK:10-100", "TRANSFER:OK:10-100", "WITHDRAWAL:INSUFFICIENT_FUNDS:100-1k"), operations);
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.bankz.SqlExecution")
+                && event.getString("sql").startsWith("INSERT INTO transactions") && event.getLong("rows") == 1));
+    }
+
+    private Account createAccount(Money balance) throws SQLException {
+        return createAccount(1, balance);
+    }
+
+    private Account createAccount(int customerId, Money balance) throws SQLException {
+        Account account = new Account(customerId, "ACC" + System.nanoTime(), "Checking");
+        account.setBalance(balance);
+        return accountDao.save(account);
+    }
+}
@@ -2,13 +2,19 @@ package com.bankz.services;
 
 import com.bankz.dao.CustomerDao;
 import com.bankz.dao.EmployeeDao;
+import com.bankz.dao.PrincipalDao;
 import com.bankz.models.Customer;
 import com.bankz.models.Employee;
+import com.bankz.models.Principal;
+import com.bankz.util.PasswordHashingPool;
 import com.bankz.util.PasswordUtils;
+import com.bankz.util.Sha256PasswordHasher;
+import com.bankz.util.SlidingWindowRateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,12 +25,32 @@ class AuthenticationServiceImplTest {
     private TestCustomerDao customerDao;
     private TestEmployeeDao employeeDao;
     private AuthenticationServiceImpl authenticationService;
+    private int principalLookups;
+    
+    private static final int LOGIN_LIMIT = 5;
     
     @BeforeEach
     void setUp() {
         customerDao = new TestCustomerDao();
         employeeDao = new TestEmployeeDao();
-        authenticationService = new AuthenticationServiceImpl(customerDao, employeeDao);
+        PrincipalDao principalDao = username -> {
+            principalLookups++;
+            List<Principal> principals = new ArrayList<>();
+            Customer customer = customerDao.findByUsername(username);
+            if (customer != null) {
+                principals.add(customer);
+            }
+            Employee employee = employeeDao.findByUsername(username);
+            if (employee != null) {
+                principals.add(employee);
+            }
+            return principals;
+        };
+        LoginThrottle loginThrottle = new LoginThrottle(
+                new SlidingWindowRateLimiter(LOGIN_LIMIT, Duration.ofMinutes(5)),
+                new SlidingWindowRateLimiter(LOGIN_LIMIT * 2, Duration.ofMinutes(1)));
+        authenticationService = new AuthenticationServiceImpl(customerDao, employeeDao, principalDao,
+                PasswordHashingPool.getShared(), loginThrottle);
     }
     
     @Test
@@ -75,6 +101,73 @@ class AuthenticationServiceImplTest {
         assertNull(result);
     }
     
+    @Test
+    void testAuthenticateCustomer_UpgradesLegacyHash() throws SQLException {
+        // Arrange
+        String username = "legacyuser";
+        String password = "testpassword";
+        String legacyHash = new Sha256PasswordHasher().hash(password);
+        customerDao.saveCustomer(new Customer(1, "John", "Doe", username, legacyHash, null));
+
+        // Act
+        Customer result = authenticationService.authenticateCustomer(username, password);
+
+        // Assert
+        assertNotNull(result);
+        String storedHash = customerDao.findByUsername(username).getPasswordHash();
+        assertNotEquals(legacyHash, storedHash);
+        assertFalse(PasswordUtils.needsRehash(storedHash));
+        assertTrue(PasswordUtils.verifyPassword(password, storedHash));
+        assertNotNull(authenticationService.authenticateCustomer(username, password));
+    }
+    
+    @Test
+    void testAuthenticate_ReturnsEmployee() throws SQLException {
+        // Arrange
+        String password = "staffpassword";
+        employeeDao.save(new Employee(7, "Ada", "Admin", "ada", PasswordUtils.hashPassword(password), "ADMIN", null));
+
+        // Act
+        Principal result = authenticationService.authenticate("ada", password);
+
+        // Assert
+        Employee employee = assertInstanceOf(Employee.class, result);
+        assertEquals(7, employee.getEmployeeId());
+        assertNull(authenticationService.authenticate("ada", "wrongpassword"));
+    }
+
+    @Test
+    void testAuthenticate_TriesEmployeeWhenCustomerWithSameUsernameDoesNotMatch() throws SQLException {
+        // Arrange
+        customerDao.saveCustomer(new Customer(1, "Sam", "Customer", "sam", PasswordUtils.hashPassword("customerpassword"), null));
+        employeeDao.save(new Employee(2, "Sam", "Staff", "sam", PasswordUtils.hashPassword("staffpassword"), "TELLER", null));
+
+        // Act & Assert
+        assertInstanceOf(Customer.class, authenticationService.authenticate("sam", "customerpassword"));
+        assertInstanceOf(Employee.class, authenticationService.authenticate("sam", "staffpassword"));
+        assertNull(authenticationService.authenticate("nobody", "staffpassword"));
+    }
+
+    @Test
+    void testAuthenticate_ThrottlesBeforeLookup() {
+        // Arrange
+        customerDao.saveCustomer(new Customer(1, "John", "Doe", "target", PasswordUtils.hashPassword("testpassword"), null));
+        for (int i = 0; i < LOGIN_LIMIT; i++) {
+            assertNull(authenticationService.authenticate("target", "guess" + i, "10.0.0.1"));
+        }
+        int lookups = principalLookups;
+
+        // Act & Assert - even the right password is refused, without touching the DAO
+        assertThrows(LoginThrottledException.class, () -> authenticationService.authenticate("target", "testpassword", "10.0.0.2"));
+        assertEquals(lookups, principalLookups);
+
+        // The first source has used half of its own budget; trying other usernames uses up the rest
+        for (int i = 0; i < LOGIN_LIMIT; i++) {
+            assertNull(authenticationService.authenticate("other" + i, "guess", "10.0.0.1"));
+        }
+        assertThrows(LoginThrottledException.class, () -> authenticationService.authenticate("another", "guess", "10.0.0.1"));
+    }
+
     @Test
     void testRegisterCustomer_Success() {
         // Arrange
@@ -152,6 +245,17 @@ class AuthenticationServiceImplTest {
             return false;
         }
         
+        @Override
+        public boolean updatePasswordHash(int customerId, String expectedHash, String newHash) throws SQLException {
+            for (Customer customer : customers) {
+                if (customer.getCustomerId() == customerId && customer.getPasswordHash().equals(expectedHash)) {
+                    customer.setPasswordHash(newHash);
+                    return true;
+                }
+            }
+            return false;
+        }
+        
         @Override
         public boolean delete(Integer id) throws SQLException {
             return customers.removeIf(c -> c.getCustomerId() == id);
@@ -206,6 +310,17 @@ class AuthenticationServiceImplTest {
             return false;
         }
         
+        @Override
+        public boolean updatePasswordHash(int employeeId, String expectedHash, String newHash) throws SQLException {
+            for (Employee employee : employees) {
+                if (employee.getEmployeeId() == employeeId && employee.getPasswordHash().equals(expectedHash)) {
+                    employee.setPasswordHash(newHash);
+                    return true;
+                }
+            }
+            return false;
+        }
+        
         @Override
         public boolean delete(Integer id) throws SQLException {
             return employees.removeIf(e -> e.getEmployeeId() == id);
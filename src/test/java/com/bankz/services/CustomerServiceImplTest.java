@@ -147,6 +147,17 @@ class CustomerServiceImplTest {
             return false;
         }
         
+        @Override
+        public boolean updatePasswordHash(int customerId, String expectedHash, String newHash) throws SQLException {
+            for (Customer customer : customers) {
+                if (customer.getCustomerId() == customerId && customer.getPasswordHash().equals(expectedHash)) {
+                    customer.setPasswordHash(newHash);
+                    return true;
+                }
+            }
+            return false;
+        }
+        
         @Override
         public boolean delete(Integer id) throws SQLException {
             return customers.removeIf(c -> c.getCustomerId() == id);
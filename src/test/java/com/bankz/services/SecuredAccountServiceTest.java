@@ -0,0 +1,135 @@
+package com.bankz.services;
+
+import com.bankz.dao.AccountDao;
+import com.bankz.dao.AccountDaoImpl;
+import com.bankz.dao.TransactionDaoImpl;
+import com.bankz.models.Account;
+import com.bankz.models.Customer;
+import com.bankz.models.Employee;
+import com.bankz.models.Money;
+import com.bankz.util.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecuredAccountServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MutableClock clock;
+    private SessionManager sessions;
+    private AccountDao accountDao;
+    private SecuredAccountService securedService;
+    private Account account;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("secured_service_test.db"));
+        DatabaseManager.initializeDatabase();
+        clock = new MutableClock();
+        sessions = new SessionManager(Duration.ofMinutes(15), Duration.ofHours(8), clock);
+        accountDao = new AccountDaoImpl();
+        securedService = new SecuredAccountService(
+                new AccountServiceImpl(accountDao, new TransactionDaoImpl(), AccountLockManager.getShared()),
+                accountDao, sessions);
+
+        // Owned by customer 1
+        account = new Account(1, "ACC-SECURED-1", "Checking");
+        account.setBalance(Money.parse("100.00"));
+        account = accountDao.save(account);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testCustomerMayOnlyActOnOwnAccounts() throws SQLException {
+        // Arrange
+        String owner = sessions.open(customer(1)).getToken();
+        String stranger = sessions.open(customer(2)).getToken();
+
+        // Act & Assert
+        assertNotNull(securedService.deposit(owner, account.getAccountId(), Money.parse("10.00"), "Own"));
+        assertThrows(AuthorizationException.class, () -> securedService.withdraw(
+                stranger, account.getAccountId(), Money.parse("10.00"), "Not mine"));
+        assertThrows(AuthorizationException.class, () -> securedService.getAccountsByCustomer(stranger, 1));
+        // An unknown account is refused like someone else's rather than reported missing
+        assertThrows(AuthorizationException.class, () -> securedService.deposit(
+                stranger, 9999, Money.parse("10.00"), "Probe"));
+        assertEquals(Money.parse("110.00"), accountDao.findById(account.getAccountId()).getBalance());
+    }
+
+    @Test
+    void testExpiredOrUnknownTokenIsRejected() throws SQLException {
+        // Arrange
+        String token = sessions.open(customer(1)).getToken();
+        clock.advance(Duration.ofMinutes(16));
+
+        // Act & Assert
+        assertThrows(AuthorizationException.class, () -> securedService.deposit(
+                token, account.getAccountId(), Money.parse("10.00"), "Too late"));
+        assertThrows(AuthorizationException.class, () -> securedService.getCustomerSummary(token, 1));
+        assertThrows(AuthorizationException.class, () -> securedService.deposit(
+                "not-a-token", account.getAccountId(), Money.parse("10.00"), "Forged"));
+        assertEquals(Money.parse("100.00"), accountDao.findById(account.getAccountId()).getBalance());
+    }
+
+    @Test
+    void testWrongPermissionIsRejected() throws SQLException {
+        // Arrange
+        String customerToken = sessions.open(customer(1)).getToken();
+        String employeeToken = sessions.open(new Employee(7, "Ada", "Admin", "ada", "hash", "ADMIN", null)).getToken();
+
+        // Act & Assert - customers cannot use staff operations, even on their own account
+        assertThrows(AuthorizationException.class, () -> securedService.freezeAccount(customerToken, account.getAccountId()));
+        assertThrows(AuthorizationException.class, () -> securedService.getAllAccounts(customerToken));
+        assertEquals("ACTIVE", accountDao.findById(account.getAccountId()).getStatus());
+
+        // Staff manage any customer's accounts
+        assertNotNull(securedService.deposit(employeeToken, account.getAccountId(), Money.parse("5.00"), "Initial deposit"));
+        assertTrue(securedService.freezeAccount(employeeToken, account.getAccountId()));
+        assertEquals("FROZEN", accountDao.findById(account.getAccountId()).getStatus());
+    }
+
+    private static Customer customer(int customerId) {
+        return new Customer(customerId, "John", "Doe", "customer" + customerId, "hash", null);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T09:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.bankz.services;
+
+import com.bankz.models.Account;
+import com.bankz.models.Customer;
+import com.bankz.models.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    private MutableClock clock;
+    private SessionManager sessionManager;
+    private Customer customer;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        sessionManager = new SessionManager(Duration.ofMinutes(15), Duration.ofHours(1), clock);
+        customer = new Customer(1, "John", "Doe", "johndoe", "hash", null);
+        employee = new Employee(2, "Ada", "Admin", "ada", "hash", "ADMIN", null);
+    }
+
+    @Test
+    void testTokensIdentifyTheirSessions() {
+        SessionManager.Session first = sessionManager.open(customer);
+        SessionManager.Session second = sessionManager.open(customer);
+
+        assertNotEquals(first.getToken(), second.getToken());
+        assertTrue(first.getToken().length() >= 40);
+        assertSame(first, sessionManager.validate(first.getToken()));
+        assertSame(customer, sessionManager.validate(second.getToken()).getPrincipal());
+        assertNull(sessionManager.validate("not-a-token"));
+        assertNull(sessionManager.validate(null));
+    }
+
+    @Test
+    void testAuthorizesByPermission() {
+        String customerToken = sessionManager.open(customer).getToken();
+        String employeeToken = sessionManager.open(employee).getToken();
+
+        assertNotNull(sessionManager.authorize(customerToken, Permission.TRANSACT_OWN_ACCOUNTS));
+        assertThrows(AuthorizationException.class, () -> sessionManager.authorize(customerToken, Permission.MANAGE_ACCOUNTS));
+        assertNotNull(sessionManager.authorize(employeeToken, Permission.MANAGE_ACCOUNTS));
+        assertThrows(AuthorizationException.class, () -> sessionManager.authorize("unknown", Permission.VIEW_OWN_ACCOUNTS));
+    }
+
+    @Test
+    void testCustomersOnlyAccessTheirOwnAccounts() {
+        Account own = new Account(1, "ACC-1", "Savings");
+        Account other = new Account(99, "ACC-99", "Savings");
+
+        SessionManager.Session customerSession = sessionManager.open(customer);
+        SessionManager.Session employeeSession = sessionManager.open(employee);
+
+        assertTrue(customerSession.canAccess(own));
+        assertFalse(customerSession.canAccess(other));
+        assertTrue(employeeSession.canAccess(other));
+    }
+
+    @Test
+    void testIdleSessionsExpireAndUseExtendsThem() {
+        String active = sessionManager.open(customer).getToken();
+        String idle = sessionManager.open(customer).getToken();
+
+        clock.advance(Duration.ofMinutes(10));
+        assertNotNull(sessionManager.validate(active));
+        clock.advance(Duration.ofMinutes(10));
+
+        assertNotNull(sessionManager.validate(active));
+        assertNull(sessionManager.validate(idle));
+        assertEquals(1, sessionManager.size());
+    }
+
+    @Test
+    void testSessionsEndAtTheAbsoluteTimeoutEvenWhenUsed() {
+        String token = sessionManager.open(employee).getToken();
+
+        for (int i = 0; i < 5; i++) {
+            clock.advance(Duration.ofMinutes(10));
+            assertNotNull(sessionManager.validate(token));
+        }
+        clock.advance(Duration.ofMinutes(10));
+
+        assertNull(sessionManager.validate(token));
+    }
+
+    @Test
+    void testInvalidateAndPurge() {
+        String loggedOut = sessionManager.open(customer).getToken();
+        sessionManager.open(employee);
+
+        sessionManager.invalidate(loggedOut);
+        assertNull(sessionManager.validate(loggedOut));
+
+        clock.advance(Duration.ofMinutes(20));
+        assertEquals(1, sessionManager.purgeExpired());
+        assertEquals(0, sessionManager.size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T09:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
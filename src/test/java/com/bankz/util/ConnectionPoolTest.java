@@ -0,0 +1,183 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = "jdbc:sqlite:" + tempDir.resolve("pool_test.db");
+        pool = new ConnectionPool(url, 2, 1, 200L, 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testClosedLeaseIsReturnedAndReused() throws SQLException {
+        // Act
+        try (Connection conn = pool.acquire();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER)");
+        }
+        try (Connection conn = pool.acquire()) {
+            assertFalse(conn.isClosed());
+        }
+
+        // Assert - the pre-opened connection served both leases
+        ConnectionPool.PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getOpenConnections());
+        assertEquals(0, stats.getLeasedConnections());
+        assertEquals(2, stats.getTotalLeases());
+    }
+
+    @Test
+    void testAcquireTimesOutWhenPoolIsExhausted() throws SQLException {
+        // Arrange
+        Connection first = pool.acquire();
+        Connection second = pool.acquire();
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> pool.acquire());
+        assertEquals(1, pool.getStats().getTimeouts());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void testReturnedConnectionIsRolledBackAndUnusable() throws SQLException {
+        // Arrange
+        Connection conn = pool.acquire();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER)");
+        }
+
+        // Act
+        conn.close();
+
+        // Assert
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        try (Connection next = pool.acquire()) {
+            assertTrue(next.getAutoCommit());
+        }
+    }
+
+    @Test
+    void testProfileIsAppliedToNewConnections() throws SQLException {
+        // Arrange
+        String url = "jdbc:sqlite:" + tempDir.resolve("profile_test.db");
+        ConnectionPool profiledPool = new ConnectionPool(url, SqlitePragmaProfile.THROUGHPUT, 1, 1, 200L, 0L);
+
+        // Act & Assert
+        try (Connection conn = profiledPool.acquire();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+                assertTrue(rs.next());
+                assertEquals("wal", rs.getString(1));
+            }
+            try (ResultSet rs = stmt.executeQuery("PRAGMA synchronous")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1)); // NORMAL
+            }
+        } finally {
+            profiledPool.shutdown();
+        }
+    }
+
+    @Test
+    void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        // Arrange
+        String url = "jdbc:sqlite:" + tempDir.resolve("statement_cache_test.db");
+        ConnectionPool cachingPool = new ConnectionPool(url, null, 1, 1, 200L, 0L, 8);
+        String insert = "INSERT INTO t (id) VALUES (?)";
+        try (Connection conn = cachingPool.acquire();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER)");
+        }
+
+        try {
+            // Act - the same SQL on later leases of the same connection
+            for (int i = 0; i < 3; i++) {
+                try (Connection conn = cachingPool.acquire();
+                     PreparedStatement stmt = conn.prepareStatement(insert)) {
+                    stmt.setInt(1, i);
+                    assertEquals(1, stmt.executeUpdate());
+                }
+            }
+            try (Connection conn = cachingPool.acquire();
+                 PreparedStatement first = conn.prepareStatement(insert);
+                 PreparedStatement second = conn.prepareStatement(insert)) {
+                // A statement already in use is not handed out twice
+                assertNotSame(first, second);
+                first.close();
+                assertTrue(first.isClosed());
+                assertThrows(SQLException.class, () -> first.setInt(1, 0));
+            }
+            try (Connection conn = cachingPool.acquire();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM t");
+                 ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(3, rs.getInt(1));
+            }
+
+            // Assert - two hits for the repeated inserts and one for the first statement in the last lease
+            ConnectionPool.PoolStats stats = cachingPool.getStats();
+            assertEquals(3, stats.getStatementCacheHits());
+            assertEquals(3, stats.getStatementCacheMisses());
+            assertEquals(0.5, stats.getStatementCacheHitRatio(), 1e-9);
+        } finally {
+            cachingPool.shutdown();
+        }
+    }
+
+    @Test
+    void testDatabaseManagerReplacesPoolOnlyWhenSettingsChange() throws SQLException {
+        // Arrange
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("manager_test.db"));
+        try {
+            ConnectionPool first = DatabaseManager.getPool();
+
+            // Act & Assert - unchanged settings keep the pool
+            assertSame(first, DatabaseManager.getPool());
+            assertSame(first, DatabaseManager.reconfigure());
+
+            // A pragma override is part of the settings
+            System.setProperty("db.pragma.cache_size", "-8000");
+            ConnectionPool second = DatabaseManager.reconfigure();
+            assertNotSame(first, second);
+            assertSame(second, DatabaseManager.getPool());
+            try (Connection conn = DatabaseManager.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA cache_size")) {
+                assertTrue(rs.next());
+                assertEquals(-8000, rs.getInt(1));
+            }
+        } finally {
+            DatabaseManager.closeConnection();
+            System.clearProperty("db.pragma.cache_size");
+            System.clearProperty("db.url");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        // Arrange - 1 to 100,000 microseconds, one of each
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros * 1_000L);
+        }
+
+        // Act & Assert
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMaxNanos());
+        assertWithin(50_000_000L, histogram.getPercentileNanos(50.0));
+        assertWithin(99_000_000L, histogram.getPercentileNanos(99.0));
+        assertWithin(99_900_000L, histogram.getPercentileNanos(99.9));
+        assertEquals(100_000_000L, histogram.getPercentileNanos(100.0));
+    }
+
+    @Test
+    void testMergeCombinesCountsAndMaximum() {
+        // Arrange
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            fast.record(10);
+        }
+        slow.record(5_000_000L);
+
+        // Act
+        fast.merge(slow);
+
+        // Assert - the single slow call is the 100th percentile only
+        assertEquals(100, fast.getCount());
+        assertEquals(10, fast.getPercentileNanos(99.0));
+        assertEquals(5_000_000L, fast.getPercentileNanos(100.0));
+        assertEquals(5_000_000L, fast.getMaxNanos());
+    }
+
+    @Test
+    void testEveryValueFallsInsideItsBucket() {
+        long[] values = { 0, 1, 63, 64, 65, 127, 128, 1_000, 123_456_789L, Long.MAX_VALUE };
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(bucket), "value " + value);
+            assertTrue(bucket == 0 || value > LatencyHistogram.upperBoundOf(bucket - 1), "value " + value);
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.035, "expected about " + expected + " but was " + actual);
+    }
+}
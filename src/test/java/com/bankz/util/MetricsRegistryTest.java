@@ -0,0 +1,88 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    interface Lookup {
+        String find(int id) throws SQLException;
+    }
+
+    @Test
+    void testInstrumentedCallsRecordLatencyAndErrors() {
+        // Arrange
+        MetricsRegistry registry = new MetricsRegistry();
+        Lookup lookup = Instrumented.wrap(Lookup.class, id -> {
+            if (id < 0) {
+                throw new SQLException("bad id");
+            }
+            return "row " + id;
+        }, "Lookup", registry);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertDoesNotThrow(() -> lookup.find(1));
+        }
+        SQLException thrown = assertThrows(SQLException.class, () -> lookup.find(-1));
+
+        // Assert - the checked exception reaches the caller unwrapped and is counted
+        assertEquals("bad id", thrown.getMessage());
+        MetricsRegistry.Snapshot snapshot = registry.snapshot();
+        assertEquals(11, snapshot.getTimers().get("Lookup.find").getCount());
+        assertEquals(1L, snapshot.getCounters().get("Lookup.find.errors"));
+        assertEquals(11L, snapshot.toAttributes().get("Lookup.find.count"));
+    }
+
+    @Test
+    void testTimerIsSafeUnderConcurrentRecording() throws InterruptedException {
+        // Arrange
+        MetricsRegistry registry = new MetricsRegistry();
+        MetricsRegistry.Timer timer = registry.timer("concurrent");
+        List<Thread> threads = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    timer.record(i * 1_000L);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        LatencyHistogram histogram = timer.snapshot();
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(10_000_000L, histogram.getMaxNanos());
+        assertEquals(5_000_500.0, histogram.getMeanNanos(), 1.0);
+    }
+
+    @Test
+    void testGaugesAreReadAtSnapshotTime() {
+        // Arrange
+        MetricsRegistry registry = new MetricsRegistry();
+        long[] value = { 1 };
+        registry.gauge("value", () -> value[0]);
+        registry.gauge("broken", () -> {
+            throw new IllegalStateException("closed");
+        });
+
+        // Act
+        value[0] = 42;
+        MetricsRegistry.Snapshot snapshot = registry.snapshot();
+
+        // Assert - a failing gauge is reported as -1 instead of breaking the snapshot
+        assertEquals(42L, snapshot.getGauges().get("value"));
+        assertEquals(-1L, snapshot.getGauges().get("broken"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordUtilsTest {
+
+    private final PasswordHasher originalHasher = PasswordUtils.getHasher();
+
+    @AfterEach
+    void tearDown() {
+        PasswordUtils.setHasher(originalHasher);
+    }
+
+    @Test
+    void testNewHashesUsePbkdf2AndVerify() {
+        String hash = PasswordUtils.hashPassword("correct horse");
+
+        assertTrue(hash.startsWith("$pbkdf2-sha512$"), hash);
+        assertTrue(PasswordUtils.verifyPassword("correct horse", hash));
+        assertFalse(PasswordUtils.verifyPassword("wrong horse", hash));
+        assertFalse(PasswordUtils.needsRehash(hash));
+        assertNotEquals(hash, PasswordUtils.hashPassword("correct horse"), "Each hash should get its own salt");
+    }
+
+    @Test
+    void testLegacySha256HashesStillVerifyButNeedRehash() {
+        String legacy = new Sha256PasswordHasher().hash("secret");
+
+        assertEquals(96, legacy.length());
+        assertTrue(PasswordUtils.verifyPassword("secret", legacy));
+        assertFalse(PasswordUtils.verifyPassword("Secret", legacy));
+        assertTrue(PasswordUtils.needsRehash(legacy));
+    }
+
+    @Test
+    void testRaisingIterationsFlagsOlderHashes() {
+        PasswordUtils.setHasher(new Pbkdf2PasswordHasher(500));
+        String weak = PasswordUtils.hashPassword("secret");
+
+        PasswordUtils.setHasher(new Pbkdf2PasswordHasher(1000));
+
+        assertTrue(PasswordUtils.verifyPassword("secret", weak));
+        assertTrue(PasswordUtils.needsRehash(weak));
+        assertFalse(PasswordUtils.needsRehash(PasswordUtils.hashPassword("secret")));
+    }
+
+    @Test
+    void testMalformedHashesFailVerification() {
+        assertFalse(PasswordUtils.verifyPassword("secret", null));
+        assertFalse(PasswordUtils.verifyPassword("secret", "hashedpassword"));
+        assertFalse(PasswordUtils.verifyPassword("secret", "$pbkdf2-sha512$1000$zz$00"));
+    }
+
+    @Test
+    void testHexRoundTrip() {
+        byte[] bytes = {0, 1, 0x0f, 0x10, 0x7f, (byte) 0x80, (byte) 0xab, (byte) 0xff};
+
+        assertEquals("00010f107f80abff", Hex.encode(bytes));
+        assertArrayEquals(bytes, Hex.decode("00010F107f80ABff"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("0g"));
+    }
+
+    @Test
+    void testPoolRefusesWorkBeyondItsQueue() throws InterruptedException {
+        PasswordHashingPool pool = new PasswordHashingPool(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> waiting = new ArrayList<>();
+        try {
+            // One task holds the only thread and one more fills the queue
+            waiting.add(Thread.ofVirtual().start(() -> pool.run(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            })));
+            started.await();
+            waiting.add(Thread.ofVirtual().start(() -> pool.run(() -> null)));
+            while (pool.getQueuedCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(RejectedExecutionException.class, () -> pool.run(() -> null));
+            assertEquals(1, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            for (Thread thread : waiting) {
+                thread.join();
+            }
+            pool.shutdown();
+        }
+    }
+}
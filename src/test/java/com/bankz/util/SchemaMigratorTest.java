@@ -0,0 +1,109 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("migrator_test.db"));
+        DatabaseManager.initializeDatabase();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testInitializeRecordsLatestVersion() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertEquals(SchemaMigrator.getLatestVersion(), SchemaMigrator.getCurrentVersion(conn));
+        }
+    }
+
+    @Test
+    void testMigrateIsIdempotent() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // Act
+            int version = SchemaMigrator.migrate(conn);
+
+            // Assert - no migration is recorded twice
+            assertEquals(SchemaMigrator.getLatestVersion(), version);
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schema_version")) {
+                assertTrue(rs.next());
+                assertEquals(SchemaMigrator.getLatestVersion(), rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void testAccountHistoryQueryUsesIndexes() throws SQLException {
+        String sql = "EXPLAIN QUERY PLAN "
+                + "SELECT * FROM transactions WHERE source_account_id = 1 "
+                + "UNION ALL "
+                + "SELECT * FROM transactions WHERE destination_account_id = 1 AND source_account_id IS NOT 1";
+
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString("detail")).append('\n');
+            }
+        }
+
+        assertTrue(plan.toString().contains("idx_transactions_source_ts"), plan.toString());
+        assertTrue(plan.toString().contains("idx_transactions_destination_ts"), plan.toString());
+        assertFalse(plan.toString().contains("SCAN transactions"), plan.toString());
+    }
+
+    @Test
+    void testMigrationConvertsRealMoneyToCents() throws SQLException {
+        DatabaseManager.closeConnection();
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("legacy_money.db"));
+        try (Connection conn = DriverManager.getConnection(System.getProperty("db.url"));
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE accounts (account_id INTEGER PRIMARY KEY AUTOINCREMENT, customer_id INTEGER NOT NULL, "
+                    + "account_number TEXT NOT NULL UNIQUE, account_type TEXT NOT NULL, balance REAL NOT NULL DEFAULT 0.0, "
+                    + "date_opened TEXT NOT NULL, status TEXT NOT NULL DEFAULT 'ACTIVE')");
+            stmt.execute("CREATE TABLE transactions (transaction_id INTEGER PRIMARY KEY AUTOINCREMENT, source_account_id INTEGER, "
+                    + "destination_account_id INTEGER, type TEXT NOT NULL, amount REAL NOT NULL, timestamp TEXT NOT NULL, description TEXT)");
+            stmt.execute("INSERT INTO accounts (customer_id, account_number, account_type, balance, date_opened) "
+                    + "VALUES (1, 'ACC1', 'Checking', 1234.57, '2024-01-01')");
+            stmt.execute("INSERT INTO transactions (destination_account_id, type, amount, timestamp) "
+                    + "VALUES (1, 'DEPOSIT', 0.29, '2024-01-01T00:00')");
+        }
+
+        // Act
+        DatabaseManager.initializeDatabase();
+
+        // Assert - 0.29 is not exact as a double but still becomes 29 cents
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT a.balance, typeof(a.balance), t.amount "
+                     + "FROM accounts a JOIN transactions t ON t.destination_account_id = a.account_id")) {
+            assertTrue(rs.next());
+            assertEquals(123457L, rs.getLong(1));
+            assertEquals("integer", rs.getString(2));
+            assertEquals(29L, rs.getLong(3));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+    private MutableClock clock;
+    private SlidingWindowRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        limiter = new SlidingWindowRateLimiter(3, Duration.ofSeconds(60), 4, clock);
+    }
+
+    @Test
+    void testLimitsEachKeySeparately() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+        }
+        assertFalse(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("bob"));
+
+        assertEquals(4, limiter.getAllowedCount());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void testPreviousWindowFadesOutAsTheWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+        }
+        assertFalse(limiter.tryAcquire("alice"));
+
+        // Five seconds into the next fixed window, 55/60 of the earlier attempts still count
+        clock.advance(Duration.ofSeconds(65));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        // Two thirds of the way through, only one earlier attempt still counts
+        clock.advance(Duration.ofSeconds(35));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        // After a quiet window nothing carries over
+        clock.advance(Duration.ofSeconds(80));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+        }
+    }
+
+    @Test
+    void testEvictsQuietKeys() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire("user" + i);
+        }
+        assertEquals(20, limiter.size());
+
+        clock.advance(Duration.ofMinutes(3));
+        for (int i = 0; i < 8; i++) {
+            // Touch enough keys that every stripe runs its eviction
+            limiter.tryAcquire("fresh" + i);
+        }
+
+        assertEquals(8, limiter.size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T09:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
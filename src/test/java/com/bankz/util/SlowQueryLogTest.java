@@ -0,0 +1,98 @@
+package com.bankz.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private long previousThreshold;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        System.setProperty("db.url", "jdbc:sqlite:" + tempDir.resolve("slow_query_test.db"));
+        DatabaseManager.initializeDatabase();
+        previousThreshold = SlowQueryLog.getShared().getThresholdMillis();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        SlowQueryLog.getShared().setThresholdMillis(previousThreshold);
+        SlowQueryLog.getShared().clear();
+        DatabaseManager.closeConnection();
+        System.clearProperty("db.url");
+    }
+
+    @Test
+    void testSlowStatementIsLoggedWithParametersAndPlan() throws SQLException {
+        // Arrange - a full scan of a generated series is reliably slower than 1 ms
+        SlowQueryLog log = SlowQueryLog.getShared();
+        log.clear();
+        log.setThresholdMillis(1);
+        String sql = "WITH RECURSIVE n(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM n WHERE x < ?) "
+                + "SELECT COUNT(*) FROM n WHERE x % 7 = 0";
+
+        // Act
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, 300_000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+
+        // Assert
+        List<SlowQueryLog.Entry> recent = log.getRecent();
+        assertEquals(1, recent.size());
+        SlowQueryLog.Entry entry = recent.get(0);
+        assertEquals(sql, entry.getSql());
+        assertEquals(List.of("300000"), entry.getParameters());
+        assertEquals(1, entry.getRows());
+        assertTrue(entry.getElapsedMillis() >= 1.0);
+        assertTrue(entry.getPlan().contains("SCAN"), entry.getPlan());
+    }
+
+    @Test
+    void testPasswordHashParametersAreRedacted() {
+        List<String> insert = SlowQueryLog.redact(
+                "INSERT INTO customers (first_name, last_name, username, password_hash, date_created) VALUES (?, ?, ?, ?, ?)",
+                Arrays.asList("Ada", "Lovelace", "ada", "secret-hash", "2024-01-01T00:00"));
+        List<String> update = SlowQueryLog.redact(
+                "UPDATE employees SET password_hash = ? WHERE employee_id = ?",
+                Arrays.asList("secret-hash", 7));
+        List<String> unknown = SlowQueryLog.redact(
+                "SELECT * FROM customers WHERE username = ? AND length(password_hash) > ?",
+                Arrays.asList("ada", 10));
+
+        assertEquals(List.of("'Ada'", "'Lovelace'", "'ada'", SlowQueryLog.REDACTED, "'2024-01-01T00:00'"), insert);
+        assertEquals(List.of(SlowQueryLog.REDACTED, "7"), update);
+        // The column is mentioned but not bound directly, so every string is hidden
+        assertEquals(List.of(SlowQueryLog.REDACTED, "10"), unknown);
+    }
+
+    @Test
+    void testKeepsOnlyTheNewestEntries() {
+        SlowQueryLog log = new SlowQueryLog(100, 3);
+        for (int i = 1; i <= 5; i++) {
+            log.record(new SlowQueryLog.Entry(LocalDateTime.now(), "SELECT " + i, List.of(), 1, 200_000_000L, "SCAN t"));
+        }
+
+        List<SlowQueryLog.Entry> recent = log.getRecent();
+        assertEquals(List.of("SELECT 5", "SELECT 4", "SELECT 3"), recent.stream().map(SlowQueryLog.Entry::getSql).toList());
+    }
+}